@@ -0,0 +1,296 @@
+package com.ghostwriter.build;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Build-time asset stage, run from source by Maven after the classes and
+ * resources are in place (see the exec plugin in pom.xml), so it depends on
+ * the JDK alone and never ships in the application jar. For every file under
+ * {@code static/js} and {@code static/css} it writes a minified copy under
+ * {@code static/assets/} with a content hash in its name, plus gzip and
+ * brotli variants, then points the templates at the hashed names. The
+ * originals stay where they were, so pages rendered from unprocessed
+ * templates keep working.
+ *
+ * <p>Minification is deliberately conservative: comments and indentation go,
+ * but line breaks in scripts are kept so semicolon insertion and regex
+ * literals are never affected.
+ */
+public final class AssetPipeline {
+
+    static final String ASSETS_DIR = "assets";
+
+    private static final int HASH_LENGTH = 10;
+
+    // A quoted reference to an original or an earlier build's hashed asset
+    private static final Pattern REFERENCE = Pattern.compile(
+            "\"(?:/" + ASSETS_DIR + ")?/(js|css)/([A-Za-z0-9_-]+)(?:\\.[0-9a-f]{" + HASH_LENGTH + "})?\\.(js|css)\"");
+
+    private final Path staticDir;
+    private final Path templatesDir;
+    private final boolean brotli;
+
+    private AssetPipeline(Path outputDir) {
+        this.staticDir = outputDir.resolve("static");
+        this.templatesDir = outputDir.resolve("templates");
+        this.brotli = brotliAvailable();
+    }
+
+    /**
+     * @param args the build output directory, usually {@code target/classes}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: AssetPipeline <build output directory>");
+        }
+        new AssetPipeline(Paths.get(args[0])).run();
+    }
+
+    private void run() throws IOException {
+        Path assets = staticDir.resolve(ASSETS_DIR);
+        deleteRecursively(assets);
+
+        Map<String, String> manifest = new LinkedHashMap<>();
+        long before = 0;
+        long after = 0;
+        for (String type : List.of("js", "css")) {
+            Path dir = staticDir.resolve(type);
+            if (!Files.isDirectory(dir)) {
+                continue;
+            }
+            Files.createDirectories(assets.resolve(type));
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : files.filter(f -> f.getFileName().toString().endsWith("." + type)).sorted().toList()) {
+                    String source = Files.readString(file, StandardCharsets.UTF_8);
+                    byte[] minified = ("js".equals(type) ? minifyScript(source) : minifyStyles(source))
+                            .getBytes(StandardCharsets.UTF_8);
+                    String name = file.getFileName().toString();
+                    String base = name.substring(0, name.length() - type.length() - 1);
+                    String hashedName = base + "." + hash(minified) + "." + type;
+
+                    Path target = assets.resolve(type).resolve(hashedName);
+                    Files.write(target, minified);
+                    compress(target, minified);
+
+                    manifest.put("/" + type + "/" + name, "/" + ASSETS_DIR + "/" + type + "/" + hashedName);
+                    before += Files.size(file);
+                    after += minified.length;
+                }
+            }
+        }
+
+        int rewritten = rewriteTemplates(manifest);
+        System.out.println("[Assets] " + manifest.size() + " files, " + before + " -> " + after
+                + " bytes minified, " + rewritten + " templates rewritten"
+                + (brotli ? "" : " (brotli not on PATH, gzip only)"));
+    }
+
+    /**
+     * Point every template reference to an original asset at its hashed copy.
+     * Also matches the hashed names of a previous build, since Maven leaves
+     * already-processed templates in place when their sources are unchanged.
+     */
+    private int rewriteTemplates(Map<String, String> manifest) throws IOException {
+        if (!Files.isDirectory(templatesDir)) {
+            return 0;
+        }
+        int count = 0;
+        try (Stream<Path> files = Files.walk(templatesDir)) {
+            for (Path file : files.filter(f -> f.toString().endsWith(".html")).toList()) {
+                String html = Files.readString(file, StandardCharsets.UTF_8);
+                Matcher m = REFERENCE.matcher(html);
+                StringBuilder out = new StringBuilder(html.length());
+                while (m.find()) {
+                    String original = "/" + m.group(1) + "/" + m.group(2) + "." + m.group(3);
+                    String hashed = m.group(1).equals(m.group(3)) ? manifest.get(original) : null;
+                    m.appendReplacement(out, Matcher.quoteReplacement(
+                            hashed != null ? "\"" + hashed + "\"" : m.group()));
+                }
+                m.appendTail(out);
+                String result = out.toString();
+                if (!result.equals(html)) {
+                    Files.writeString(file, result, StandardCharsets.UTF_8);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Strip comments, indentation and blank lines from a script, keeping one
+     * statement per line as written. Only whole-line comments are removed, so
+     * nothing inside a string or regex literal is touched.
+     */
+    static String minifyScript(String source) {
+        StringBuilder out = new StringBuilder(source.length());
+        boolean inComment = false;
+        for (String line : source.split("\r?\n")) {
+            String trimmed = line.strip();
+            if (inComment) {
+                int end = trimmed.indexOf("*/");
+                if (end < 0) {
+                    continue;
+                }
+                inComment = false;
+                trimmed = trimmed.substring(end + 2).strip();
+            } else if (trimmed.startsWith("/*")) {
+                int end = trimmed.indexOf("*/", 2);
+                if (end < 0) {
+                    inComment = true;
+                    continue;
+                }
+                trimmed = trimmed.substring(end + 2).strip();
+            }
+            if (trimmed.isEmpty() || trimmed.startsWith("//")) {
+                continue;
+            }
+            out.append(trimmed).append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Strip comments and collapse whitespace in a stylesheet. Quoted strings
+     * are copied through unchanged.
+     */
+    static String minifyStyles(String source) {
+        StringBuilder out = new StringBuilder(source.length());
+        int i = 0;
+        int n = source.length();
+        boolean space = false;
+        while (i < n) {
+            char c = source.charAt(i);
+            if (c == '/' && i + 1 < n && source.charAt(i + 1) == '*') {
+                int end = source.indexOf("*/", i + 2);
+                i = end < 0 ? n : end + 2;
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                space = true;
+                i++;
+                continue;
+            }
+            if (c == '"' || c == '\'') {
+                int end = i + 1;
+                while (end < n && source.charAt(end) != c) {
+                    end += source.charAt(end) == '\\' ? 2 : 1;
+                }
+                end = Math.min(end + 1, n);
+                appendSpace(out, space);
+                space = false;
+                out.append(source, i, end);
+                i = end;
+                continue;
+            }
+            if (isPunctuation(c)) {
+                // Drop the space before punctuation, and a last ';' before '}'
+                if (c == '}' && out.length() > 0 && out.charAt(out.length() - 1) == ';') {
+                    out.setLength(out.length() - 1);
+                }
+                out.append(c);
+            } else {
+                appendSpace(out, space);
+                out.append(c);
+            }
+            space = false;
+            i++;
+        }
+        return out.toString().strip();
+    }
+
+    private static void appendSpace(StringBuilder out, boolean space) {
+        if (space && out.length() > 0 && !isPunctuation(out.charAt(out.length() - 1))) {
+            out.append(' ');
+        }
+    }
+
+    private static boolean isPunctuation(char c) {
+        return c == '{' || c == '}' || c == ';' || c == ',';
+    }
+
+    private void compress(Path target, byte[] bytes) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(bytes);
+        }
+        if (buffer.size() < bytes.length) {
+            Files.write(target.resolveSibling(target.getFileName() + ".gz"), buffer.toByteArray());
+        }
+
+        if (brotli) {
+            Path br = target.resolveSibling(target.getFileName() + ".br");
+            try {
+                Process process = new ProcessBuilder("brotli", "-q", "11", "-f", "-o", br.toString(), target.toString())
+                        .redirectErrorStream(true)
+                        .start();
+                process.getInputStream().transferTo(ByteArrayOutputStream.nullOutputStream());
+                if (process.waitFor() != 0 || Files.size(br) >= bytes.length) {
+                    Files.deleteIfExists(br);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                Files.deleteIfExists(br);
+            }
+        }
+    }
+
+    private static boolean brotliAvailable() {
+        try {
+            Process process = new ProcessBuilder("brotli", "--version").redirectErrorStream(true).start();
+            process.getInputStream().transferTo(ByteArrayOutputStream.nullOutputStream());
+            return process.waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return HexFormat.of().formatHex(digest).substring(0, HASH_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(f -> {
+                try {
+                    Files.delete(f);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
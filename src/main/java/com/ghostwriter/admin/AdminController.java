@@ -1,6 +1,10 @@
 package com.ghostwriter.admin;
 
+import com.ghostwriter.config.MongoIndexVerifier;
+import com.ghostwriter.moderation.ModerationQueue;
+import com.ghostwriter.moderation.PublishingService;
 import com.ghostwriter.story.Story;
+import com.ghostwriter.story.StoryPager;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -14,45 +18,52 @@ import java.util.Map;
 public class AdminController {
 
     private final AdminService adminService;
+    private final StoryPager storyPager;
+    private final MongoIndexVerifier indexVerifier;
+    private final PublishingService publishingService;
+    private final ModerationQueue moderationQueue;
 
     @Value("${admin.github.id:}")
     private String adminGithubId;
 
-    public AdminController(AdminService adminService) {
+    public AdminController(AdminService adminService, StoryPager storyPager,
+            MongoIndexVerifier indexVerifier,
+            PublishingService publishingService, ModerationQueue moderationQueue) {
         this.adminService = adminService;
+        this.storyPager = storyPager;
+        this.indexVerifier = indexVerifier;
+        this.publishingService = publishingService;
+        this.moderationQueue = moderationQueue;
     }
 
     /**
      * Get pending stories.
      */
     @GetMapping("/stories/pending")
-    public ResponseEntity<?> getPendingStories(@AuthenticationPrincipal OAuth2User principal) {
-        if (!isAdmin(principal)) {
-            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
-        }
-        return ResponseEntity.ok(adminService.getPendingStories());
+    public ResponseEntity<?> getPendingStories(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @AuthenticationPrincipal OAuth2User principal) {
+        return storiesPage(principal, "pending_review", cursor, size);
     }
 
     /**
      * Get published stories.
      */
     @GetMapping("/stories/published")
-    public ResponseEntity<?> getPublishedStories(@AuthenticationPrincipal OAuth2User principal) {
-        if (!isAdmin(principal)) {
-            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
-        }
-        return ResponseEntity.ok(adminService.getPublishedStories());
+    public ResponseEntity<?> getPublishedStories(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @AuthenticationPrincipal OAuth2User principal) {
+        return storiesPage(principal, "published", cursor, size);
     }
 
     /**
      * Get rejected stories.
      */
     @GetMapping("/stories/rejected")
-    public ResponseEntity<?> getRejectedStories(@AuthenticationPrincipal OAuth2User principal) {
-        if (!isAdmin(principal)) {
-            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
-        }
-        return ResponseEntity.ok(adminService.getRejectedStories());
+    public ResponseEntity<?> getRejectedStories(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @AuthenticationPrincipal OAuth2User principal) {
+        return storiesPage(principal, "rejected", cursor, size);
     }
 
     /**
@@ -91,6 +102,23 @@ public class AdminController {
         }
     }
 
+    /**
+     * Run automatic moderation on a story again, ahead of new submissions.
+     */
+    @PostMapping("/stories/{id}/recheck")
+    public ResponseEntity<?> recheckStory(@PathVariable String id,
+            @AuthenticationPrincipal OAuth2User principal) {
+        if (!isAdmin(principal)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
+        }
+        try {
+            publishingService.submitForRecheck(id);
+            return ResponseEntity.accepted().body(Map.of("message", "Story queued for re-check"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Delete any story (admin privilege).
      */
@@ -108,6 +136,55 @@ public class AdminController {
         }
     }
 
+    /**
+     * Get the number of stories in each moderation status.
+     */
+    @GetMapping("/stories/counts")
+    public ResponseEntity<?> getStatusCounts(@AuthenticationPrincipal OAuth2User principal) {
+        if (!isAdmin(principal)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
+        }
+        return ResponseEntity.ok(adminService.getStatusCounts());
+    }
+
+    /**
+     * Report declared versus existing indexes. Read-only: nothing is
+     * created or dropped.
+     */
+    @GetMapping("/indexes")
+    public ResponseEntity<?> getIndexReport(@AuthenticationPrincipal OAuth2User principal) {
+        if (!isAdmin(principal)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
+        }
+        try {
+            return ResponseEntity.ok(Map.of("indexes", indexVerifier.verify(false)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Moderation queue depth per lane and processing times.
+     */
+    @GetMapping("/moderation/queue")
+    public ResponseEntity<?> getModerationQueue(@AuthenticationPrincipal OAuth2User principal) {
+        if (!isAdmin(principal)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
+        }
+        return ResponseEntity.ok(moderationQueue.stats());
+    }
+
+    private ResponseEntity<?> storiesPage(OAuth2User principal, String status, String cursor, Integer size) {
+        if (!isAdmin(principal)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Admin access required"));
+        }
+        try {
+            return ResponseEntity.ok(adminService.getStoriesByStatus(status, cursor, storyPager.pageSize(size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     private boolean isAdmin(OAuth2User principal) {
         if (principal == null || adminGithubId == null || adminGithubId.isBlank()) {
             return false;
@@ -1,14 +1,23 @@
 package com.ghostwriter.admin;
 
 import com.ghostwriter.chapter.ChapterRepository;
+import com.ghostwriter.interaction.EngagementRollups;
 import com.ghostwriter.interaction.LikeRepository;
 import com.ghostwriter.interaction.StoryViewRepository;
+import com.ghostwriter.interaction.UniqueReaderCounter;
+import com.ghostwriter.model.CursorPage;
+import com.ghostwriter.moderation.ModerationQueue;
 import com.ghostwriter.story.Story;
+import com.ghostwriter.story.StoryChangedEvent;
+import com.ghostwriter.story.StoryPager;
 import com.ghostwriter.story.StoryRepository;
+import com.ghostwriter.story.StoryService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
-import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -18,51 +27,58 @@ public class AdminService {
     private final ChapterRepository chapterRepository;
     private final LikeRepository likeRepository;
     private final StoryViewRepository viewRepository;
+    private final UniqueReaderCounter uniqueReaders;
+    private final EngagementRollups engagementRollups;
+    private final ModerationQueue moderationQueue;
+    private final StoryPager storyPager;
+    private final StoryService storyService;
+    private final ApplicationEventPublisher events;
 
     public AdminService(StoryRepository storyRepository,
             ChapterRepository chapterRepository,
             LikeRepository likeRepository,
-            StoryViewRepository viewRepository) {
+            StoryViewRepository viewRepository,
+            UniqueReaderCounter uniqueReaders,
+            EngagementRollups engagementRollups,
+            ModerationQueue moderationQueue,
+            StoryPager storyPager,
+            StoryService storyService,
+            ApplicationEventPublisher events) {
         this.storyRepository = storyRepository;
         this.chapterRepository = chapterRepository;
         this.likeRepository = likeRepository;
         this.viewRepository = viewRepository;
+        this.uniqueReaders = uniqueReaders;
+        this.engagementRollups = engagementRollups;
+        this.moderationQueue = moderationQueue;
+        this.storyPager = storyPager;
+        this.storyService = storyService;
+        this.events = events;
     }
 
-    public List<Story> getPendingStories() {
-        return storyRepository.findByStatusOrderByUpdatedAtDesc("pending_review");
+    /**
+     * A page of stories in the given status, newest first, without content
+     * or inline cover images.
+     */
+    public CursorPage<Story> getStoriesByStatus(String status, String cursor, int size) {
+        Query query = Query.query(Criteria.where("status").is(status));
+        query.fields().exclude("content", "coverImage");
+        return storyPager.page(query, cursor, size, Story.class, Story::getUpdatedAt, Story::getId);
     }
 
-    public List<Story> getPublishedStories() {
-        return storyRepository.findByStatusOrderByUpdatedAtDesc("published");
-    }
-
-    public List<Story> getRejectedStories() {
-        return storyRepository.findByStatusOrderByUpdatedAtDesc("rejected");
+    public Map<String, Long> getStatusCounts() {
+        return Map.of(
+                "pending", storyRepository.countByStatus("pending_review"),
+                "published", storyRepository.countByStatus("published"),
+                "rejected", storyRepository.countByStatus("rejected"));
     }
 
     public Story approveStory(String storyId) {
-        Optional<Story> opt = storyRepository.findById(storyId);
-        if (opt.isEmpty()) {
-            throw new RuntimeException("Story not found");
-        }
-        Story story = opt.get();
-        story.setStatus("published");
-        story.setRejectionReason(null);
-        story.setUpdatedAt(Instant.now());
-        return storyRepository.save(story);
+        return storyService.setStatus(storyId, "published", null);
     }
 
     public Story rejectStory(String storyId, String reason) {
-        Optional<Story> opt = storyRepository.findById(storyId);
-        if (opt.isEmpty()) {
-            throw new RuntimeException("Story not found");
-        }
-        Story story = opt.get();
-        story.setStatus("rejected");
-        story.setRejectionReason(reason);
-        story.setUpdatedAt(Instant.now());
-        return storyRepository.save(story);
+        return storyService.setStatus(storyId, "rejected", reason);
     }
 
     public void deleteStory(String storyId) {
@@ -74,6 +90,10 @@ public class AdminService {
         chapterRepository.deleteByStoryId(storyId);
         likeRepository.deleteByStoryId(storyId);
         viewRepository.deleteByStoryId(storyId);
+        uniqueReaders.deleteStory(storyId);
+        engagementRollups.deleteStory(storyId);
+        moderationQueue.forget(storyId);
         storyRepository.deleteById(storyId);
+        events.publishEvent(new StoryChangedEvent(storyId));
     }
 }
@@ -1,7 +1,7 @@
 package com.ghostwriter.auth;
 
+import com.ghostwriter.user.CurrentUser;
 import com.ghostwriter.user.User;
-import com.ghostwriter.user.UserRepository;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.user.OAuth2User;
@@ -16,17 +16,12 @@ import java.util.Map;
 @RequestMapping("/api/auth")
 public class AuthController {
 
-    private final UserRepository userRepository;
-
     @org.springframework.beans.factory.annotation.Value("${admin.github.id:}")
     private String adminGithubId;
 
-    public AuthController(UserRepository userRepository) {
-        this.userRepository = userRepository;
-    }
-
     @GetMapping("/status")
-    public ResponseEntity<Map<String, Object>> authStatus(@AuthenticationPrincipal OAuth2User principal) {
+    public ResponseEntity<Map<String, Object>> authStatus(@AuthenticationPrincipal OAuth2User principal,
+            @CurrentUser User user) {
         Map<String, Object> result = new HashMap<>();
 
         if (principal == null) {
@@ -35,7 +30,6 @@ public class AuthController {
         }
 
         String githubId = String.valueOf(principal.getAttributes().get("id"));
-        User user = userRepository.findByGithubId(githubId).orElse(null);
 
         result.put("authenticated", true);
         result.put("username", principal.getAttributes().getOrDefault("login", ""));
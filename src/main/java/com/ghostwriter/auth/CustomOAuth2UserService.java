@@ -1,7 +1,10 @@
 package com.ghostwriter.auth;
 
 import com.ghostwriter.user.User;
+import com.ghostwriter.user.UserCache;
+import com.ghostwriter.user.UserChangedEvent;
 import com.ghostwriter.user.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
 import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
@@ -14,9 +17,14 @@ import java.util.Map;
 public class CustomOAuth2UserService extends DefaultOAuth2UserService {
 
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final ApplicationEventPublisher events;
 
-    public CustomOAuth2UserService(UserRepository userRepository) {
+    public CustomOAuth2UserService(UserRepository userRepository, UserCache userCache,
+            ApplicationEventPublisher events) {
         this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.events = events;
     }
 
     @Override
@@ -40,7 +48,9 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
             user.setEmail(email);
             user.setAvatarUrl(avatarUrl);
         }
-        userRepository.save(user);
+        // Refresh the cached copy so requests see the new profile at once
+        userCache.put(userRepository.save(user));
+        events.publishEvent(new UserChangedEvent(githubId));
 
         return oAuth2User;
     }
@@ -84,13 +84,14 @@ public class SecurityConfig {
                                 .csrf(csrf -> csrf.disable())
                                 .authorizeHttpRequests(auth -> auth
                                                 // ─── Public: existing pages & APIs ───
-                                                .requestMatchers("/", "/css/**", "/js/**", "/images/**").permitAll()
+                                                .requestMatchers("/", "/css/**", "/js/**", "/assets/**", "/images/**").permitAll()
                                                 .requestMatchers("/api/analyze", "/api/expand", "/api/upload")
                                                 .permitAll()
                                                 .requestMatchers("/api/auth/**").permitAll()
                                                 .requestMatchers("/stories", "/story/**").permitAll()
                                                 .requestMatchers(HttpMethod.GET, "/api/stories/published",
-                                                                "/api/stories/*")
+                                                                "/api/stories/*", "/api/stories/*/cover",
+                                                                "/api/stories/*/live")
                                                 .permitAll()
                                                 // ─── Authenticated: dashboard & story management ───
                                                 .requestMatchers("/dashboard").authenticated()
@@ -1,30 +1,48 @@
 package com.ghostwriter.chapter;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.ReadOnlyProperty;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 
 @Document(collection = "chapters")
+@CompoundIndex(name = "storyId_rank_chapterNumber", def = "{'storyId': 1, 'rank': 1, 'chapterNumber': 1}")
 public class Chapter {
 
     @Id
     private String id;
     private String storyId;
+    // Position key within the story, see RankKeys
+    private String rank;
+    // Display position, derived from rank order when chapters are read.
+    // Only chapters saved before ranks existed still carry it in the database.
+    @ReadOnlyProperty
     private int chapterNumber;
     private String title;
     private String content;
+    private String contentHash;
+    private int wordCount;
+    private int characterCount;
+    private int readingTimeMinutes;
+    private long version;
     private Instant createdAt;
     private Instant updatedAt;
 
     public Chapter() {
     }
 
-    public Chapter(String storyId, int chapterNumber, String title, String content) {
+    public Chapter(String storyId, String rank, String title, String content) {
         this.storyId = storyId;
-        this.chapterNumber = chapterNumber;
+        this.rank = rank;
         this.title = title;
         this.content = content;
+        this.contentHash = ContentHash.of(content);
+        TextStats stats = TextStats.of(content);
+        this.wordCount = stats.getWordCount();
+        this.characterCount = stats.getCharacterCount();
+        this.readingTimeMinutes = stats.getReadingTimeMinutes();
         this.createdAt = Instant.now();
         this.updatedAt = Instant.now();
     }
@@ -45,6 +63,14 @@ public class Chapter {
         this.storyId = storyId;
     }
 
+    public String getRank() {
+        return rank;
+    }
+
+    public void setRank(String rank) {
+        this.rank = rank;
+    }
+
     public int getChapterNumber() {
         return chapterNumber;
     }
@@ -69,6 +95,46 @@ public class Chapter {
         this.content = content;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    public void setWordCount(int wordCount) {
+        this.wordCount = wordCount;
+    }
+
+    public int getCharacterCount() {
+        return characterCount;
+    }
+
+    public void setCharacterCount(int characterCount) {
+        this.characterCount = characterCount;
+    }
+
+    public int getReadingTimeMinutes() {
+        return readingTimeMinutes;
+    }
+
+    public void setReadingTimeMinutes(int readingTimeMinutes) {
+        this.readingTimeMinutes = readingTimeMinutes;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
@@ -1,42 +1,102 @@
 package com.ghostwriter.chapter;
 
+import com.ghostwriter.model.CacheValidator;
+import com.ghostwriter.model.ContentPatchRequest;
+import com.ghostwriter.model.StaleVersionException;
+import com.ghostwriter.user.CurrentUser;
 import com.ghostwriter.user.User;
-import com.ghostwriter.user.UserRepository;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/chapters")
 public class ChapterController {
 
+    private static final int MAX_WINDOW = 20;
+    private static final int DEFAULT_PAGE_LENGTH = 20000;
+    private static final int MAX_PAGE_LENGTH = 100000;
+
     private final ChapterService chapterService;
-    private final UserRepository userRepository;
 
-    public ChapterController(ChapterService chapterService, UserRepository userRepository) {
+    public ChapterController(ChapterService chapterService) {
         this.chapterService = chapterService;
-        this.userRepository = userRepository;
     }
 
     /**
-     * Get all chapters for a story (public).
+     * Get all chapters for a story (public). Answers conditional requests
+     * with 304 before any chapter content is loaded.
      */
     @GetMapping("/story/{storyId}")
-    public ResponseEntity<List<Chapter>> getChapters(@PathVariable String storyId) {
-        return ResponseEntity.ok(chapterService.getChaptersByStoryId(storyId));
+    public ResponseEntity<List<Chapter>> getChapters(@PathVariable String storyId, WebRequest request) {
+        CacheValidator validator = chapterService.getListValidator(storyId);
+        if (request.checkNotModified(validator.getEtag(), validator.getLastModifiedMillis())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(validator.getEtag())
+                .lastModified(validator.getLastModifiedMillis())
+                .body(chapterService.getChaptersByStoryId(storyId));
+    }
+
+    /**
+     * Get the table of contents for a story, without chapter content (public).
+     */
+    @GetMapping("/story/{storyId}/toc")
+    public ResponseEntity<List<ChapterTocEntry>> getTableOfContents(@PathVariable String storyId) {
+        return ResponseEntity.ok(chapterService.getTableOfContents(storyId));
+    }
+
+    /**
+     * Get a window of full chapters, starting at a 1-based position (public).
+     */
+    @GetMapping("/story/{storyId}/range")
+    public ResponseEntity<List<Chapter>> getChapterWindow(@PathVariable String storyId,
+            @RequestParam(defaultValue = "1") int from,
+            @RequestParam(defaultValue = "1") int count) {
+        int window = Math.max(1, Math.min(count, MAX_WINDOW));
+        return ResponseEntity.ok(chapterService.getChapterWindow(storyId, from, window));
+    }
+
+    /**
+     * Get a character range of a chapter's content (public).
+     */
+    @GetMapping("/{id}/content")
+    public ResponseEntity<?> getChapterContent(@PathVariable String id,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_LENGTH) int length) {
+        int pageLength = Math.max(1, Math.min(length, MAX_PAGE_LENGTH));
+        return chapterService.getContentPage(id, Math.max(0, offset), pageLength)
+                .map(page -> ResponseEntity.ok((Object) page))
+                .orElse(ResponseEntity.notFound().build());
     }
 
     /**
-     * Get a single chapter by ID.
+     * Get a single chapter by ID. Answers conditional requests with 304
+     * before the chapter content is loaded.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getChapter(@PathVariable String id) {
+    public ResponseEntity<?> getChapter(@PathVariable String id, WebRequest request) {
+        Optional<CacheValidator> validator = chapterService.getValidator(id);
+        if (validator.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        CacheValidator v = validator.get();
+        if (request.checkNotModified(v.getEtag(), v.getLastModifiedMillis())) {
+            return null;
+        }
         return chapterService.getChapterById(id)
-                .map(ch -> ResponseEntity.ok((Object) ch))
+                .map(ch -> ResponseEntity.ok()
+                        .cacheControl(CacheControl.noCache())
+                        .eTag(v.getEtag())
+                        .lastModified(v.getLastModifiedMillis())
+                        .body((Object) ch))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -45,8 +105,8 @@ public class ChapterController {
      */
     @PostMapping
     public ResponseEntity<?> createChapter(@RequestBody Map<String, String> body,
-            @AuthenticationPrincipal OAuth2User principal) {
-        if (resolveUser(principal) == null) {
+            @CurrentUser User user) {
+        if (user == null) {
             return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
         }
 
@@ -65,8 +125,8 @@ public class ChapterController {
     @PutMapping("/{id}")
     public ResponseEntity<?> updateChapter(@PathVariable String id,
             @RequestBody Map<String, String> body,
-            @AuthenticationPrincipal OAuth2User principal) {
-        if (resolveUser(principal) == null) {
+            @CurrentUser User user) {
+        if (user == null) {
             return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
         }
 
@@ -80,24 +140,94 @@ public class ChapterController {
         }
     }
 
+    /**
+     * Move a chapter to a new 1-based position within its story.
+     */
+    @PutMapping("/{id}/move")
+    public ResponseEntity<?> moveChapter(@PathVariable String id,
+            @RequestBody Map<String, Integer> body,
+            @CurrentUser User user) {
+        if (user == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+
+        Integer position = body.get("chapterNumber");
+        if (position == null || position < 1) {
+            return ResponseEntity.badRequest().body(Map.of("error", "A chapterNumber of 1 or more is required"));
+        }
+
+        try {
+            Chapter chapter = chapterService.moveChapter(id, user.getId(), position);
+            return ResponseEntity.ok(chapter);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Apply text deltas to a chapter's content against a known version.
+     * Responds 409 with the current version if the chapter has moved on.
+     */
+    @PatchMapping("/{id}/content")
+    public ResponseEntity<?> patchChapterContent(@PathVariable String id,
+            @RequestBody ContentPatchRequest body,
+            @CurrentUser User user) {
+        if (user == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+
+        try {
+            Chapter chapter = chapterService.patchContent(id, user.getId(), body);
+            return ResponseEntity.ok(chapter);
+        } catch (StaleVersionException e) {
+            return ResponseEntity.status(409).body(Map.of(
+                    "error", e.getMessage(),
+                    "version", e.getCurrentVersion()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Sync a story's chapter list against per-chapter content hashes.
+     * Responds 409 with the entry indexes whose content must be resent.
+     */
+    @PutMapping("/story/{storyId}/sync")
+    public ResponseEntity<?> syncChapters(@PathVariable String storyId,
+            @RequestBody ChapterSyncRequest body,
+            @CurrentUser User user) {
+        if (user == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+
+        if (body.getChapters() == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Chapter list is required"));
+        }
+
+        try {
+            ChapterSyncResult result = chapterService.syncChapters(storyId, user.getId(), body.getChapters());
+            if (!result.isComplete()) {
+                return ResponseEntity.status(409).body(Map.of(
+                        "error", "Content required for changed chapters",
+                        "missingContent", result.getMissingContent()));
+            }
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Delete a chapter.
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteChapter(@PathVariable String id,
-            @AuthenticationPrincipal OAuth2User principal) {
-        if (resolveUser(principal) == null) {
+            @CurrentUser User user) {
+        if (user == null) {
             return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
         }
 
         chapterService.deleteChapter(id);
         return ResponseEntity.ok(Map.of("message", "Chapter deleted"));
     }
-
-    private User resolveUser(OAuth2User principal) {
-        if (principal == null)
-            return null;
-        String githubId = String.valueOf(principal.getAttributes().get("id"));
-        return userRepository.findByGithubId(githubId).orElse(null);
-    }
 }
@@ -0,0 +1,113 @@
+package com.ghostwriter.chapter;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rewrites the rank keys of a story's chapters as a fresh, evenly spread
+ * sequence in their current order. Only needed when repeated inserts at the
+ * same spot have made keys long, and once for chapters saved before ranks
+ * existed; everyday inserts and moves never touch other chapters.
+ */
+@Component
+public class ChapterRankRebalancer {
+
+    static final Sort ORDER = Sort.by("rank", "chapterNumber");
+
+    private final MongoTemplate mongoTemplate;
+    private final TaskExecutor taskExecutor;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    @Value("${chapters.rank.backfill.enabled:true}")
+    private boolean backfillEnabled;
+
+    public ChapterRankRebalancer(MongoTemplate mongoTemplate,
+            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.mongoTemplate = mongoTemplate;
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * Give ranks to the chapters of a story that has none yet, so that
+     * rank-based writes see a consistent order.
+     */
+    public void ensureRanked(String storyId) {
+        Query unranked = Query.query(Criteria.where("storyId").is(storyId).and("rank").exists(false));
+        if (mongoTemplate.exists(unranked, Chapter.class)) {
+            rebalance(storyId);
+        }
+    }
+
+    /**
+     * Rebalance in the background if {@code rank} has grown past the
+     * comfortable length. Requests for a story already queued are dropped.
+     */
+    public void rebalanceIfLong(String storyId, String rank) {
+        if (rank != null && rank.length() > RankKeys.MAX_LENGTH && pending.add(storyId)) {
+            // Handed to the executor directly: a call to an @Async method on
+            // this bean would bypass its proxy and run on the request thread
+            taskExecutor.execute(() -> {
+                try {
+                    rebalance(storyId);
+                } catch (RuntimeException e) {
+                    System.err.println("[ChapterRanks] Rebalance of " + storyId + " failed: " + e.getMessage());
+                } finally {
+                    pending.remove(storyId);
+                }
+            });
+        }
+    }
+
+    public void rebalance(String storyId) {
+        Query query = Query.query(Criteria.where("storyId").is(storyId)).with(ORDER);
+        query.fields().include("_id");
+        List<Chapter> chapters = mongoTemplate.find(query, Chapter.class);
+        if (chapters.isEmpty()) {
+            return;
+        }
+
+        List<String> ranks = RankKeys.spread(chapters.size());
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Chapter.class);
+        for (int i = 0; i < chapters.size(); i++) {
+            bulk.updateOne(Query.query(Criteria.where("_id").is(chapters.get(i).getId())),
+                    new Update().set("rank", ranks.get(i)));
+        }
+        bulk.execute();
+        System.out.println("[ChapterRanks] Rebalanced " + chapters.size() + " chapters of story " + storyId);
+    }
+
+    /**
+     * Rank the chapters of every story saved before ranks existed.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!backfillEnabled) {
+            return;
+        }
+        try {
+            Query unranked = Query.query(Criteria.where("rank").exists(false));
+            List<String> storyIds = mongoTemplate.findDistinct(unranked, "storyId", Chapter.class, String.class);
+            for (String storyId : storyIds) {
+                rebalance(storyId);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("[ChapterRanks] Backfill FAILED: " + e.getClass().getSimpleName() + " — " + e.getMessage());
+        }
+    }
+}
@@ -1,12 +1,25 @@
 package com.ghostwriter.chapter;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
 import java.util.List;
 
 public interface ChapterRepository extends MongoRepository<Chapter, String> {
 
-    List<Chapter> findByStoryIdOrderByChapterNumberAsc(String storyId);
+    // Chapters saved before ranks existed have none and fall back to chapterNumber
+    List<Chapter> findByStoryIdOrderByRankAscChapterNumberAsc(String storyId);
+
+    /**
+     * Chapters of a story with the content field left out.
+     */
+    @Query(value = "{ 'storyId': ?0 }", fields = "{ 'content': 0 }", sort = "{ 'rank': 1, 'chapterNumber': 1 }")
+    List<Chapter> findWithoutContentByStoryId(String storyId);
+
+    @Query(value = "{ 'storyId': ?0 }",
+            fields = "{ 'rank': 1, 'title': 1, 'wordCount': 1, 'updatedAt': 1 }",
+            sort = "{ 'rank': 1, 'chapterNumber': 1 }")
+    List<Chapter> findTocByStoryId(String storyId);
 
     void deleteByStoryId(String storyId);
 
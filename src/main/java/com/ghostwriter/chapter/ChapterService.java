@@ -1,51 +1,265 @@
 package com.ghostwriter.chapter;
 
+import com.ghostwriter.model.CacheValidator;
+import com.ghostwriter.model.ContentPatchRequest;
+import com.ghostwriter.model.VersionedPatch;
+import com.ghostwriter.story.Story;
+import com.ghostwriter.story.StoryChangedEvent;
+import com.ghostwriter.story.StoryRepository;
+import com.ghostwriter.story.StoryTotals;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.bson.Document;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class ChapterService {
 
     private final ChapterRepository chapterRepository;
+    private final StoryRepository storyRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ChapterRankRebalancer rankRebalancer;
+    private final ApplicationEventPublisher events;
 
-    public ChapterService(ChapterRepository chapterRepository) {
+    public ChapterService(ChapterRepository chapterRepository, StoryRepository storyRepository,
+            MongoTemplate mongoTemplate, ChapterRankRebalancer rankRebalancer, ApplicationEventPublisher events) {
         this.chapterRepository = chapterRepository;
+        this.storyRepository = storyRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.rankRebalancer = rankRebalancer;
+        this.events = events;
     }
 
+    /**
+     * Insert a chapter at the 1-based position {@code chapterNumber}, or at
+     * the end if the story is shorter. Only the new chapter is written.
+     */
     public Chapter createChapter(String storyId, int chapterNumber, String title, String content) {
-        Chapter chapter = new Chapter(storyId, chapterNumber, title, content);
-        return chapterRepository.save(chapter);
+        String rank = rankAt(storyId, null, chapterNumber);
+        Chapter chapter = chapterRepository.save(new Chapter(storyId, rank, title, content));
+        adjustStoryTotals(storyId, chapter.getWordCount(), chapter.getCharacterCount(), 1);
+        events.publishEvent(new StoryChangedEvent(storyId));
+        rankRebalancer.rebalanceIfLong(storyId, rank);
+        return withPosition(chapter);
     }
 
-    public Chapter updateChapter(String chapterId, String title, String content) {
+    /**
+     * Move a chapter to the 1-based position {@code chapterNumber} by giving
+     * it a new rank between its new neighbours.
+     */
+    public Chapter moveChapter(String chapterId, String userId, int chapterNumber) {
         Optional<Chapter> opt = chapterRepository.findById(chapterId);
         if (opt.isEmpty()) {
             throw new RuntimeException("Chapter not found");
         }
         Chapter chapter = opt.get();
+        if (!storyRepository.existsByIdAndUserId(chapter.getStoryId(), userId)) {
+            throw new RuntimeException("Not authorized to edit this chapter");
+        }
+
+        String rank = rankAt(chapter.getStoryId(), chapterId, chapterNumber);
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(chapterId)),
+                new Update().set("rank", rank), Chapter.class);
+        chapter.setRank(rank);
+        rankRebalancer.rebalanceIfLong(chapter.getStoryId(), rank);
+        return withPosition(chapter);
+    }
+
+    /**
+     * Replace a chapter's title and content. Only those fields are written,
+     * with the version bumped in the same atomic update, so an autosave
+     * racing this edit sees a new version rather than a silently replaced
+     * base text.
+     */
+    public Chapter updateChapter(String chapterId, String title, String content) {
+        TextStats stats = TextStats.of(content);
+        Instant now = Instant.now();
+        Update update = contentUpdate(content, stats)
+                .set("title", title)
+                .set("updatedAt", now)
+                .inc("version", 1);
+        Query query = Query.query(Criteria.where("_id").is(chapterId));
+        query.fields().exclude("content");
+
+        // The chapter as it was, for the change in the story's totals
+        Chapter chapter = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(false), Chapter.class);
+        if (chapter == null) {
+            throw new RuntimeException("Chapter not found");
+        }
+        adjustStoryTotals(chapter.getStoryId(), stats.getWordCount() - chapter.getWordCount(),
+                stats.getCharacterCount() - chapter.getCharacterCount(), 0);
+        events.publishEvent(new StoryChangedEvent(chapter.getStoryId()));
         chapter.setTitle(title);
-        chapter.setContent(content);
-        chapter.setUpdatedAt(Instant.now());
-        return chapterRepository.save(chapter);
+        applyContent(chapter, content);
+        chapter.setVersion(chapter.getVersion() + 1);
+        chapter.setUpdatedAt(now);
+        return withPosition(chapter);
+    }
+
+    /**
+     * Apply text deltas to a chapter's content, provided they were made
+     * against the current version. The write is conditional on that version,
+     * so two tabs autosaving the same chapter cannot overwrite each other.
+     * Returns the updated chapter without its content.
+     */
+    public Chapter patchContent(String chapterId, String userId, ContentPatchRequest patch) {
+        Optional<Chapter> opt = chapterRepository.findById(chapterId);
+        if (opt.isEmpty()) {
+            throw new RuntimeException("Chapter not found");
+        }
+        Chapter chapter = opt.get();
+        if (!storyRepository.existsByIdAndUserId(chapter.getStoryId(), userId)) {
+            throw new RuntimeException("Not authorized to edit this chapter");
+        }
+        String content = patch.applyTo(chapter.getContent());
+        TextStats stats = TextStats.of(content);
+        Update update = contentUpdate(content, stats).set("updatedAt", Instant.now());
+        Chapter updated = VersionedPatch.apply(mongoTemplate, Chapter.class, chapterId, chapter.getVersion(),
+                patch, update);
+        adjustStoryTotals(chapter.getStoryId(), stats.getWordCount() - chapter.getWordCount(),
+                stats.getCharacterCount() - chapter.getCharacterCount(), 0);
+        events.publishEvent(new StoryChangedEvent(chapter.getStoryId()));
+        return withPosition(updated);
     }
 
     public void deleteChapter(String chapterId) {
-        chapterRepository.deleteById(chapterId);
+        Query query = Query.query(Criteria.where("_id").is(chapterId));
+        query.fields().include("storyId", "wordCount", "characterCount");
+        Chapter removed = mongoTemplate.findAndRemove(query, Chapter.class);
+        if (removed != null) {
+            adjustStoryTotals(removed.getStoryId(), -removed.getWordCount(),
+                    -removed.getCharacterCount(), -1);
+            events.publishEvent(new StoryChangedEvent(removed.getStoryId()));
+        }
     }
 
     public void deleteAllByStoryId(String storyId) {
         chapterRepository.deleteByStoryId(storyId);
+        recalculateStoryTotals(storyId);
     }
 
     public List<Chapter> getChaptersByStoryId(String storyId) {
-        return chapterRepository.findByStoryIdOrderByChapterNumberAsc(storyId);
+        return numbered(chapterRepository.findByStoryIdOrderByRankAscChapterNumberAsc(storyId), 1);
     }
 
     public Optional<Chapter> getChapterById(String chapterId) {
-        return chapterRepository.findById(chapterId);
+        return chapterRepository.findById(chapterId).map(this::withPosition);
+    }
+
+    /**
+     * Validator for one chapter's JSON, read without its content. The
+     * display number is part of the tag, since inserting or removing an
+     * earlier chapter changes it without touching this one.
+     */
+    public Optional<CacheValidator> getValidator(String chapterId) {
+        Query query = Query.query(Criteria.where("_id").is(chapterId));
+        query.fields().exclude("content");
+        Chapter chapter = mongoTemplate.findOne(query, Chapter.class);
+        if (chapter == null) {
+            return Optional.empty();
+        }
+        withPosition(chapter);
+        return Optional.of(CacheValidator.of(chapter.getUpdatedAt(), chapter.getId(), chapter.getUpdatedAt(),
+                chapter.getVersion(), chapter.getContentHash(), chapter.getTitle(), chapter.getChapterNumber()));
+    }
+
+    /**
+     * Validator for a story's full chapter list, from the chapters'
+     * metadata alone. Any insert, edit, move or delete changes the tag.
+     */
+    public CacheValidator getListValidator(String storyId) {
+        List<Object> parts = new ArrayList<>();
+        Instant lastModified = null;
+        for (Chapter ch : chapterRepository.findWithoutContentByStoryId(storyId)) {
+            parts.add(ch.getId());
+            parts.add(ch.getRank());
+            parts.add(ch.getVersion());
+            parts.add(ch.getContentHash());
+            parts.add(ch.getTitle());
+            parts.add(ch.getUpdatedAt());
+            if (ch.getUpdatedAt() != null && (lastModified == null || ch.getUpdatedAt().isAfter(lastModified))) {
+                lastModified = ch.getUpdatedAt();
+            }
+        }
+        return CacheValidator.of(lastModified, parts.toArray());
+    }
+
+    /**
+     * Chapter list for a story without any content.
+     */
+    public List<ChapterTocEntry> getTableOfContents(String storyId) {
+        List<Chapter> chapters = chapterRepository.findTocByStoryId(storyId);
+        List<ChapterTocEntry> toc = new ArrayList<>(chapters.size());
+        for (int i = 0; i < chapters.size(); i++) {
+            Chapter ch = chapters.get(i);
+            toc.add(new ChapterTocEntry(ch.getId(), i + 1, ch.getTitle(), ch.getWordCount(), ch.getUpdatedAt()));
+        }
+        return toc;
+    }
+
+    /**
+     * Full chapters for a window of the reading order, starting at the
+     * 1-based position {@code from}.
+     */
+    public List<Chapter> getChapterWindow(String storyId, int from, int count) {
+        Query query = Query.query(Criteria.where("storyId").is(storyId))
+                .with(ChapterRankRebalancer.ORDER)
+                .skip(Math.max(0, from - 1))
+                .limit(count);
+        return numbered(mongoTemplate.find(query, Chapter.class), Math.max(1, from));
+    }
+
+    /**
+     * A code-point range of one chapter's content. The substring is taken
+     * inside MongoDB so only the requested slice leaves the database.
+     */
+    public Optional<ChapterContentPage> getContentPage(String chapterId, int offset, int length) {
+        Document content = new Document("$ifNull", List.of("$content", ""));
+        Document projection = new Document("storyId", 1)
+                .append("rank", 1)
+                .append("chapterNumber", 1)
+                .append("title", 1)
+                .append("totalLength", new Document("$strLenCP", content))
+                .append("content", new Document("$substrCP", List.of(content, offset, length)));
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("_id").is(chapterId)),
+                Aggregation.stage(new Document("$project", projection)));
+
+        Document doc = mongoTemplate.aggregate(aggregation, Chapter.class, Document.class)
+                .getUniqueMappedResult();
+        if (doc == null) {
+            return Optional.empty();
+        }
+
+        ChapterContentPage page = new ChapterContentPage();
+        page.setId(chapterId);
+        page.setStoryId(doc.getString("storyId"));
+        page.setChapterNumber(positionOf(page.getStoryId(), doc.getString("rank"),
+                doc.getInteger("chapterNumber", 0)));
+        page.setTitle(doc.getString("title"));
+        page.setOffset(offset);
+        page.setTotalLength(doc.getInteger("totalLength", 0));
+        page.setContent(doc.getString("content"));
+        int end = offset + length;
+        page.setNextOffset(end < page.getTotalLength() ? end : null);
+        return Optional.of(page);
     }
 
     public long getChapterCount(String storyId) {
@@ -57,13 +271,313 @@ public class ChapterService {
      */
     public List<Chapter> saveAllChapters(String storyId, List<Chapter> chapters) {
         chapterRepository.deleteByStoryId(storyId);
+        List<String> ranks = RankKeys.spread(chapters.size());
         for (int i = 0; i < chapters.size(); i++) {
             Chapter ch = chapters.get(i);
             ch.setStoryId(storyId);
+            ch.setRank(ranks.get(i));
             ch.setChapterNumber(i + 1);
+            applyContent(ch, ch.getContent());
             ch.setCreatedAt(Instant.now());
             ch.setUpdatedAt(Instant.now());
         }
-        return chapterRepository.saveAll(chapters);
+        List<Chapter> saved = chapterRepository.saveAll(chapters);
+        recalculateStoryTotals(storyId);
+        events.publishEvent(new StoryChangedEvent(storyId));
+        return saved;
+    }
+
+    /**
+     * Recompute the chapter part of a story's totals from its chapters'
+     * stored statistics.
+     */
+    public void recalculateStoryTotals(String storyId) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("storyId").is(storyId)),
+                Aggregation.group("storyId")
+                        .sum("wordCount").as("wordCount")
+                        .sum("characterCount").as("characterCount")
+                        .count().as("chapterCount"));
+        Document totals = mongoTemplate.aggregate(aggregation, Chapter.class, Document.class)
+                .getUniqueMappedResult();
+
+        long words = totals != null ? ((Number) totals.get("wordCount")).longValue() : 0;
+        long characters = totals != null ? ((Number) totals.get("characterCount")).longValue() : 0;
+        int chapterCount = totals != null ? ((Number) totals.get("chapterCount")).intValue() : 0;
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(storyId)),
+                StoryTotals.setChapters(words, characters, chapterCount), Story.class);
+    }
+
+    /**
+     * Bring a story's chapters in line with the client's list, writing only
+     * the chapters that were added, edited, renamed or moved and deleting the
+     * ones the client dropped. Existing chapters are compared by content hash,
+     * so unchanged bodies never have to be sent or rewritten. If a new or
+     * changed chapter arrives without its content, nothing is written and the
+     * offending entry indexes are returned instead.
+     */
+    public ChapterSyncResult syncChapters(String storyId, String userId,
+            List<ChapterSyncRequest.Entry> entries) {
+        if (!storyRepository.existsByIdAndUserId(storyId, userId)) {
+            throw new RuntimeException("Not authorized to edit this story");
+        }
+        rankRebalancer.ensureRanked(storyId);
+
+        Map<String, Chapter> existing = new HashMap<>();
+        for (Chapter ch : chapterRepository.findWithoutContentByStoryId(storyId)) {
+            existing.put(ch.getId(), ch);
+        }
+
+        // Pair each entry with the stored chapter it refers to, if any
+        List<Chapter> matched = new ArrayList<>();
+        Set<String> claimed = new HashSet<>();
+        List<Integer> missingContent = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            ChapterSyncRequest.Entry entry = entries.get(i);
+            Chapter current = entry.getId() != null ? existing.get(entry.getId()) : null;
+            if (current != null && !claimed.add(current.getId())) {
+                current = null;
+            }
+            matched.add(current);
+
+            if (entry.getContent() != null) {
+                continue;
+            }
+            if (current == null || current.getContentHash() == null
+                    || !current.getContentHash().equals(entry.getContentHash())) {
+                missingContent.add(i);
+            }
+        }
+        if (!missingContent.isEmpty()) {
+            return ChapterSyncResult.needsContent(missingContent);
+        }
+
+        List<String> ranks = syncRanks(matched);
+        ChapterSyncResult result = new ChapterSyncResult();
+        Instant now = Instant.now();
+        long wordDelta = 0;
+        long characterDelta = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            ChapterSyncRequest.Entry entry = entries.get(i);
+            Chapter current = matched.get(i);
+            String rank = ranks.get(i);
+            String title = entry.getTitle() != null ? entry.getTitle() : "Chapter " + (i + 1);
+
+            if (current == null) {
+                Chapter inserted = chapterRepository.save(
+                        new Chapter(storyId, rank, title, entry.getContent()));
+                wordDelta += inserted.getWordCount();
+                characterDelta += inserted.getCharacterCount();
+                result.setInserted(result.getInserted() + 1);
+                continue;
+            }
+
+            Update update = new Update();
+            boolean changed = false;
+            if (entry.getContent() != null) {
+                if (!ContentHash.of(entry.getContent()).equals(current.getContentHash())) {
+                    TextStats stats = TextStats.of(entry.getContent());
+                    update = contentUpdate(entry.getContent(), stats);
+                    wordDelta += stats.getWordCount() - current.getWordCount();
+                    characterDelta += stats.getCharacterCount() - current.getCharacterCount();
+                    changed = true;
+                }
+            }
+            if (!Objects.equals(title, current.getTitle())) {
+                update.set("title", title);
+                changed = true;
+            }
+            if (!rank.equals(current.getRank())) {
+                update.set("rank", rank);
+                changed = true;
+            }
+
+            if (changed) {
+                update.set("updatedAt", now).inc("version", 1);
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(current.getId())),
+                        update, Chapter.class);
+                result.setUpdated(result.getUpdated() + 1);
+            } else {
+                result.setUnchanged(result.getUnchanged() + 1);
+            }
+        }
+
+        List<String> removed = new ArrayList<>();
+        for (Chapter ch : existing.values()) {
+            if (!claimed.contains(ch.getId())) {
+                removed.add(ch.getId());
+                wordDelta -= ch.getWordCount();
+                characterDelta -= ch.getCharacterCount();
+            }
+        }
+        if (!removed.isEmpty()) {
+            chapterRepository.deleteAllById(removed);
+        }
+        result.setDeleted(removed.size());
+        adjustStoryTotals(storyId, wordDelta, characterDelta, result.getInserted() - removed.size());
+        if (result.getInserted() > 0 || result.getUpdated() > 0 || !removed.isEmpty()) {
+            events.publishEvent(new StoryChangedEvent(storyId));
+        }
+
+        result.setChapters(numbered(chapterRepository.findWithoutContentByStoryId(storyId), 1));
+        for (String rank : ranks) {
+            rankRebalancer.rebalanceIfLong(storyId, rank);
+        }
+        return result;
+    }
+
+    /**
+     * Ranks for the synced list, in entry order. The longest run of existing
+     * chapters that is already in rank order keeps its ranks; new and moved
+     * chapters get keys between their kept neighbours, so a reorder rewrites
+     * only the chapters that actually moved.
+     */
+    private static List<String> syncRanks(List<Chapter> matched) {
+        int n = matched.size();
+        boolean[] keep = keptInOrder(matched);
+        List<String> ranks = new ArrayList<>(n);
+        int i = 0;
+        while (i < n) {
+            if (keep[i]) {
+                ranks.add(matched.get(i).getRank());
+                i++;
+                continue;
+            }
+            int end = i;
+            while (end < n && !keep[end]) {
+                end++;
+            }
+            String lo = i > 0 ? ranks.get(i - 1) : null;
+            String hi = end < n ? matched.get(end).getRank() : null;
+            ranks.addAll(RankKeys.between(lo, hi, end - i));
+            i = end;
+        }
+        return ranks;
+    }
+
+    // Longest strictly increasing subsequence of the existing ranks, by patience sorting
+    private static boolean[] keptInOrder(List<Chapter> matched) {
+        int n = matched.size();
+        int[] tails = new int[n];
+        int[] previous = new int[n];
+        int length = 0;
+        for (int i = 0; i < n; i++) {
+            Chapter ch = matched.get(i);
+            if (ch == null || ch.getRank() == null) {
+                continue;
+            }
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (matched.get(tails[mid]).getRank().compareTo(ch.getRank()) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+
+        boolean[] keep = new boolean[n];
+        for (int k = length > 0 ? tails[length - 1] : -1; k >= 0; k = previous[k]) {
+            keep[k] = true;
+        }
+        return keep;
+    }
+
+    /**
+     * Rank for a chapter placed at a 1-based position, between the chapters
+     * that will surround it. {@code movingId} is left out of the neighbours.
+     */
+    private String rankAt(String storyId, String movingId, int chapterNumber) {
+        rankRebalancer.ensureRanked(storyId);
+        for (int attempt = 0;; attempt++) {
+            Criteria criteria = Criteria.where("storyId").is(storyId);
+            if (movingId != null) {
+                criteria.and("_id").ne(movingId);
+            }
+            int before = Math.max(0, chapterNumber - 1);
+            Query query = Query.query(criteria)
+                    .with(Sort.by("rank"))
+                    .skip(Math.max(0, before - 1))
+                    .limit(before > 0 ? 2 : 1);
+            query.fields().include("rank");
+            List<Chapter> around = mongoTemplate.find(query, Chapter.class);
+            if (before > 0 && around.isEmpty()) {
+                // Past the end of the story: append after the last chapter
+                query = Query.query(criteria).with(Sort.by(Sort.Direction.DESC, "rank")).limit(1);
+                query.fields().include("rank");
+                around = mongoTemplate.find(query, Chapter.class);
+            }
+
+            String lo = before > 0 && !around.isEmpty() ? around.get(0).getRank() : null;
+            String hi = before > 0
+                    ? (around.size() > 1 ? around.get(1).getRank() : null)
+                    : (around.isEmpty() ? null : around.get(0).getRank());
+            if (lo == null || hi == null || lo.compareTo(hi) < 0) {
+                return RankKeys.between(lo, hi);
+            }
+            // Two concurrent inserts picked the same key; spread them apart and retry
+            if (attempt > 0) {
+                throw new IllegalStateException("Could not place chapter in story " + storyId);
+            }
+            rankRebalancer.rebalance(storyId);
+        }
+    }
+
+    // Display numbers follow rank order; a chapter's number is one more than
+    // the count of chapters ranked before it
+    private Chapter withPosition(Chapter chapter) {
+        chapter.setChapterNumber(positionOf(chapter.getStoryId(), chapter.getRank(), chapter.getChapterNumber()));
+        return chapter;
+    }
+
+    private int positionOf(String storyId, String rank, int legacyNumber) {
+        if (rank == null) {
+            return legacyNumber;
+        }
+        Query before = Query.query(Criteria.where("storyId").is(storyId).and("rank").lt(rank));
+        return (int) mongoTemplate.count(before, Chapter.class) + 1;
+    }
+
+    private static List<Chapter> numbered(List<Chapter> chapters, int first) {
+        for (int i = 0; i < chapters.size(); i++) {
+            chapters.get(i).setChapterNumber(first + i);
+        }
+        return chapters;
+    }
+
+    // Content and the fields derived from it are always written together
+    private static void applyContent(Chapter chapter, String content) {
+        TextStats stats = TextStats.of(content);
+        chapter.setContent(content);
+        chapter.setContentHash(ContentHash.of(content));
+        chapter.setWordCount(stats.getWordCount());
+        chapter.setCharacterCount(stats.getCharacterCount());
+        chapter.setReadingTimeMinutes(stats.getReadingTimeMinutes());
+    }
+
+    private static Update contentUpdate(String content, TextStats stats) {
+        return new Update()
+                .set("content", content)
+                .set("contentHash", ContentHash.of(content))
+                .set("wordCount", stats.getWordCount())
+                .set("characterCount", stats.getCharacterCount())
+                .set("readingTimeMinutes", stats.getReadingTimeMinutes());
+    }
+
+    // Shift the chapter part of the story's totals by the given deltas in
+    // one atomic pipeline update, which also recomputes the totals
+    private void adjustStoryTotals(String storyId, long words, long characters, int chapters) {
+        if (storyId == null || (words == 0 && characters == 0 && chapters == 0)) {
+            return;
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(storyId)),
+                StoryTotals.shiftChapters(words, characters, chapters), Story.class);
     }
 }
@@ -0,0 +1,68 @@
+package com.ghostwriter.chapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Desired chapter list for a story, in reading order. Each entry carries the
+ * hash of its content; the content itself only has to be sent for chapters
+ * the server does not already hold.
+ */
+public class ChapterSyncRequest {
+
+    private List<Entry> chapters = new ArrayList<>();
+
+    public ChapterSyncRequest() {
+    }
+
+    public List<Entry> getChapters() {
+        return chapters;
+    }
+
+    public void setChapters(List<Entry> chapters) {
+        this.chapters = chapters;
+    }
+
+    // ─── Entry inner class ───
+    public static class Entry {
+        private String id;
+        private String title;
+        private String contentHash;
+        private String content;
+
+        public Entry() {
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+
+        public String getContentHash() {
+            return contentHash;
+        }
+
+        public void setContentHash(String contentHash) {
+            this.contentHash = contentHash;
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        public void setContent(String content) {
+            this.content = content;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.ghostwriter.chapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a chapter sync: what was written, plus the resulting chapter
+ * list (without content). When {@code missingContent} is non-empty nothing
+ * was written and the client must resend those entries with their content.
+ */
+public class ChapterSyncResult {
+
+    private int inserted;
+    private int updated;
+    private int deleted;
+    private int unchanged;
+    private List<Integer> missingContent = new ArrayList<>();
+    private List<Chapter> chapters = new ArrayList<>();
+
+    public ChapterSyncResult() {
+    }
+
+    public static ChapterSyncResult needsContent(List<Integer> missingContent) {
+        ChapterSyncResult result = new ChapterSyncResult();
+        result.setMissingContent(missingContent);
+        return result;
+    }
+
+    public boolean isComplete() {
+        return missingContent.isEmpty();
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(int inserted) {
+        this.inserted = inserted;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    public int getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(int deleted) {
+        this.deleted = deleted;
+    }
+
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    public void setUnchanged(int unchanged) {
+        this.unchanged = unchanged;
+    }
+
+    public List<Integer> getMissingContent() {
+        return missingContent;
+    }
+
+    public void setMissingContent(List<Integer> missingContent) {
+        this.missingContent = missingContent;
+    }
+
+    public List<Chapter> getChapters() {
+        return chapters;
+    }
+
+    public void setChapters(List<Chapter> chapters) {
+        this.chapters = chapters;
+    }
+}
@@ -0,0 +1,44 @@
+package com.ghostwriter.chapter;
+
+import java.time.Instant;
+
+/**
+ * Table-of-contents row for a chapter: everything needed to draw the chapter
+ * list, nothing that grows with the chapter's length.
+ */
+public class ChapterTocEntry {
+
+    private final String id;
+    private final int chapterNumber;
+    private final String title;
+    private final int wordCount;
+    private final Instant updatedAt;
+
+    public ChapterTocEntry(String id, int chapterNumber, String title, int wordCount, Instant updatedAt) {
+        this.id = id;
+        this.chapterNumber = chapterNumber;
+        this.title = title;
+        this.wordCount = wordCount;
+        this.updatedAt = updatedAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getChapterNumber() {
+        return chapterNumber;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,26 @@
+package com.ghostwriter.chapter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 fingerprint of chapter text, stored alongside the content so that
+ * clients and the server can compare chapters without shipping the bodies.
+ */
+public final class ContentHash {
+
+    private ContentHash() {
+    }
+
+    public static String of(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((content != null ? content : "").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.ghostwriter.chapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lexicographic ordering keys for chapters. Keys are base-62 strings compared
+ * byte-wise (MongoDB's default string order), and there is always room for a
+ * new key between any two, so inserting or moving a chapter only ever writes
+ * that one chapter. Generated keys never end in '0', which keeps that
+ * guarantee intact.
+ */
+public final class RankKeys {
+
+    /** Keys longer than this trigger a background rebalance of the story. */
+    public static final int MAX_LENGTH = 12;
+
+    private static final String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+
+    // Fresh orderings stay below this key, leaving the top of the range for appends
+    private static final String SPREAD_CEILING = "V";
+
+    private RankKeys() {
+    }
+
+    /**
+     * A key strictly between {@code lo} and {@code hi}; null means unbounded
+     * on that side. Appends and prepends step by one digit instead of
+     * halving the gap, so keys grow slowly when chapters are added at the
+     * ends of a story one by one.
+     */
+    public static String between(String lo, String hi) {
+        checkOrder(lo, hi);
+        if (hi == null && lo != null) {
+            String next = increment(lo);
+            if (next != null) {
+                return next;
+            }
+        }
+        if (lo == null && hi != null) {
+            String previous = decrement(hi);
+            if (previous != null) {
+                return previous;
+            }
+        }
+        return midpoint(lo, hi);
+    }
+
+    /**
+     * {@code count} ascending keys between {@code lo} and {@code hi}, spread
+     * evenly so that a block insert does not grow keys linearly.
+     */
+    public static List<String> between(String lo, String hi, int count) {
+        checkOrder(lo, hi);
+        if (lo == null && hi == null) {
+            return spread(count);
+        }
+        String upper = hi;
+        if (upper == null) {
+            upper = increment(lo);
+            if (upper != null) {
+                // Fill up to and including the next appended key
+                List<String> keys = new ArrayList<>(count);
+                fill(lo, upper, count - 1, keys);
+                keys.add(upper);
+                return keys;
+            }
+        }
+        List<String> keys = new ArrayList<>(count);
+        fill(lo, upper, count, keys);
+        return keys;
+    }
+
+    /**
+     * {@code count} evenly spread keys, for assigning a fresh ordering.
+     */
+    public static List<String> spread(int count) {
+        List<String> keys = new ArrayList<>(count);
+        fill(null, SPREAD_CEILING, count, keys);
+        return keys;
+    }
+
+    private static void fill(String lo, String hi, int count, List<String> keys) {
+        if (count <= 0) {
+            return;
+        }
+        String mid = midpoint(lo, hi);
+        int left = (count - 1) / 2;
+        fill(lo, mid, left, keys);
+        keys.add(mid);
+        fill(mid, hi, count - 1 - left, keys);
+    }
+
+    // Halve the gap between lo and hi, digit by digit
+    private static String midpoint(String lo, String hi) {
+        StringBuilder key = new StringBuilder();
+        boolean upperOpen = hi == null;
+        for (int i = 0;; i++) {
+            int l = lo != null && i < lo.length() ? digit(lo.charAt(i)) : 0;
+            int h = !upperOpen && i < hi.length() ? digit(hi.charAt(i)) : BASE;
+            if (l == h) {
+                key.append(DIGITS.charAt(l));
+                continue;
+            }
+            int mid = (l + h) >>> 1;
+            if (mid > l) {
+                key.append(DIGITS.charAt(mid));
+                return key.toString();
+            }
+            // Adjacent digits: keep lo's digit, after which anything is below hi
+            key.append(DIGITS.charAt(l));
+            upperOpen = true;
+        }
+    }
+
+    // Shortest key above lo made by bumping one of its digits, or null if all are 'z'
+    private static String increment(String lo) {
+        for (int i = 0; i < lo.length(); i++) {
+            int d = digit(lo.charAt(i));
+            if (d + 1 < BASE) {
+                return lo.substring(0, i) + DIGITS.charAt(d + 1);
+            }
+        }
+        return null;
+    }
+
+    // Shortest key below hi made by lowering one of its digits, or null if none is above '1'
+    private static String decrement(String hi) {
+        for (int i = 0; i < hi.length(); i++) {
+            int d = digit(hi.charAt(i));
+            if (d > 1) {
+                return hi.substring(0, i) + DIGITS.charAt(d - 1);
+            }
+        }
+        return null;
+    }
+
+    private static void checkOrder(String lo, String hi) {
+        if (lo != null && hi != null && lo.compareTo(hi) >= 0) {
+            throw new IllegalArgumentException("Rank " + lo + " is not below " + hi);
+        }
+    }
+
+    private static int digit(char c) {
+        int d = DIGITS.indexOf(c);
+        if (d < 0) {
+            throw new IllegalArgumentException("Invalid rank character: " + c);
+        }
+        return d;
+    }
+}
@@ -0,0 +1,137 @@
+package com.ghostwriter.chapter;
+
+import com.ghostwriter.story.Story;
+import com.ghostwriter.story.StoryTotals;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Fills in word/character statistics for chapters written before they were
+ * tracked, then recomputes the totals of every affected story and counts
+ * the story's own content into totals that did not include it yet. Runs
+ * once in the background after startup; documents that already have
+ * statistics are never touched, so repeated runs are cheap.
+ */
+@Component
+public class StatsBackfillJob {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final ChapterService chapterService;
+
+    @Value("${stats.backfill.enabled:true}")
+    private boolean enabled;
+
+    public StatsBackfillJob(MongoTemplate mongoTemplate, ChapterService chapterService) {
+        this.mongoTemplate = mongoTemplate;
+        this.chapterService = chapterService;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        run();
+    }
+
+    public void run() {
+        try {
+            Set<String> storyIds = new HashSet<>();
+            int chapters = backfillChapters(storyIds);
+
+            Query storiesMissing = Query.query(Criteria.where("characterCount").exists(false));
+            storiesMissing.fields().include("_id");
+            for (Story story : mongoTemplate.find(storiesMissing, Story.class)) {
+                storyIds.add(story.getId());
+            }
+            for (String storyId : storyIds) {
+                chapterService.recalculateStoryTotals(storyId);
+            }
+            int contents = backfillStoryContent();
+
+            if (chapters > 0 || !storyIds.isEmpty() || contents > 0) {
+                System.out.println("[StatsBackfill] Updated " + chapters + " chapters and "
+                        + storyIds.size() + " stories, counted the text of " + contents + " stories");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("[StatsBackfill] FAILED: " + e.getClass().getSimpleName() + " — " + e.getMessage());
+        }
+    }
+
+    private int backfillChapters(Set<String> storyIds) {
+        Query missing = Query.query(Criteria.where("characterCount").exists(false));
+        missing.fields().include("storyId", "content");
+
+        int total = 0;
+        int pending = 0;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Chapter.class);
+        try (Stream<Chapter> stream = mongoTemplate.stream(missing, Chapter.class)) {
+            Iterator<Chapter> chapters = stream.iterator();
+            while (chapters.hasNext()) {
+                Chapter chapter = chapters.next();
+                TextStats stats = TextStats.of(chapter.getContent());
+                bulk.updateOne(Query.query(Criteria.where("_id").is(chapter.getId())),
+                        new Update()
+                                .set("wordCount", stats.getWordCount())
+                                .set("characterCount", stats.getCharacterCount())
+                                .set("readingTimeMinutes", stats.getReadingTimeMinutes()));
+                if (chapter.getStoryId() != null) {
+                    storyIds.add(chapter.getStoryId());
+                }
+                total++;
+                if (++pending == BATCH_SIZE) {
+                    bulk.execute();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Chapter.class);
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+        }
+        return total;
+    }
+
+    private int backfillStoryContent() {
+        Query missing = Query.query(Criteria.where("contentCharacterCount").exists(false));
+        missing.fields().include("content");
+
+        int total = 0;
+        int pending = 0;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Story.class);
+        try (Stream<Story> stream = mongoTemplate.stream(missing, Story.class)) {
+            Iterator<Story> stories = stream.iterator();
+            while (stories.hasNext()) {
+                Story story = stories.next();
+                bulk.updateOne(Query.query(Criteria.where("_id").is(story.getId())),
+                        StoryTotals.setContent(TextStats.of(story.getContent())));
+                total++;
+                if (++pending == BATCH_SIZE) {
+                    bulk.execute();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Story.class);
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,62 @@
+package com.ghostwriter.chapter;
+
+/**
+ * Derived figures about a piece of text, computed on write so readers never
+ * have to download content just to count it.
+ */
+public final class TextStats {
+
+    public static final int WORDS_PER_MINUTE = 230;
+
+    private static final TextStats EMPTY = new TextStats(0, 0);
+
+    private final int wordCount;
+    private final int characterCount;
+
+    private TextStats(int wordCount, int characterCount) {
+        this.wordCount = wordCount;
+        this.characterCount = characterCount;
+    }
+
+    /**
+     * Count words (whitespace-separated) and characters (code points) in a
+     * single pass over the text.
+     */
+    public static TextStats of(CharSequence text) {
+        if (text == null || text.length() == 0) {
+            return EMPTY;
+        }
+        int words = 0;
+        int characters = 0;
+        boolean inWord = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isLowSurrogate(c)) {
+                characters++;
+            }
+            if (Character.isWhitespace(c)) {
+                inWord = false;
+            } else if (!inWord) {
+                inWord = true;
+                words++;
+            }
+        }
+        return new TextStats(words, characters);
+    }
+
+    public static int readingTimeMinutes(long wordCount) {
+        return (int) ((wordCount + WORDS_PER_MINUTE - 1) / WORDS_PER_MINUTE);
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    public int getCharacterCount() {
+        return characterCount;
+    }
+
+    public int getReadingTimeMinutes() {
+        return readingTimeMinutes(wordCount);
+    }
+}
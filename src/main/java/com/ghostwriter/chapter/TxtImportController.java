@@ -2,11 +2,9 @@ package com.ghostwriter.chapter;
 
 import com.ghostwriter.story.Story;
 import com.ghostwriter.story.StoryRepository;
+import com.ghostwriter.user.CurrentUser;
 import com.ghostwriter.user.User;
-import com.ghostwriter.user.UserRepository;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -26,16 +24,13 @@ public class TxtImportController {
     private final TxtImportService txtImportService;
     private final ChapterService chapterService;
     private final StoryRepository storyRepository;
-    private final UserRepository userRepository;
 
     public TxtImportController(TxtImportService txtImportService,
             ChapterService chapterService,
-            StoryRepository storyRepository,
-            UserRepository userRepository) {
+            StoryRepository storyRepository) {
         this.txtImportService = txtImportService;
         this.chapterService = chapterService;
         this.storyRepository = storyRepository;
-        this.userRepository = userRepository;
     }
 
     /**
@@ -46,8 +41,7 @@ public class TxtImportController {
             @RequestParam(value = "title", defaultValue = "Imported Story") String title,
             @RequestParam(value = "genre", defaultValue = "") String genre,
             @RequestParam(value = "tone", defaultValue = "") String tone,
-            @AuthenticationPrincipal OAuth2User principal) {
-        User user = resolveUser(principal);
+            @CurrentUser User user) {
         if (user == null) {
             return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
         }
@@ -100,11 +94,4 @@ public class TxtImportController {
         List<Chapter> chapters = txtImportService.parseTextIntoChapters(text);
         return ResponseEntity.ok(Map.of("chapters", chapters, "chapterCount", chapters.size()));
     }
-
-    private User resolveUser(OAuth2User principal) {
-        if (principal == null)
-            return null;
-        String githubId = String.valueOf(principal.getAttributes().get("id"));
-        return userRepository.findByGithubId(githubId).orElse(null);
-    }
 }
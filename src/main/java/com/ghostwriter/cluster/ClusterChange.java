@@ -0,0 +1,101 @@
+package com.ghostwriter.cluster;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A change made on one instance that others must apply to their in-memory
+ * state. Entries only need to outlive the polling interval, so they expire
+ * after an hour.
+ */
+@Document(collection = "cluster_changes")
+public class ClusterChange {
+
+    public static final String STORY = "story";
+    public static final String ENGAGEMENT = "engagement";
+    public static final String USER = "user";
+
+    @Id
+    private String id;
+    private String origin;
+    private String topic;
+    // The story for STORY changes, the GitHub ID for USER changes
+    private String key;
+    // Views and likes added, by story, for ENGAGEMENT changes
+    private Map<String, Long> views;
+    private Map<String, Long> likes;
+    @Indexed(name = "at_ttl", expireAfter = "1h")
+    private Instant at;
+
+    public ClusterChange() {
+    }
+
+    public ClusterChange(String origin, String topic, String key, Map<String, Long> views, Map<String, Long> likes) {
+        this.origin = origin;
+        this.topic = topic;
+        this.key = key;
+        this.views = views;
+        this.likes = likes;
+        this.at = Instant.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public Map<String, Long> getViews() {
+        return views;
+    }
+
+    public void setViews(Map<String, Long> views) {
+        this.views = views;
+    }
+
+    public Map<String, Long> getLikes() {
+        return likes;
+    }
+
+    public void setLikes(Map<String, Long> likes) {
+        this.likes = likes;
+    }
+
+    public Instant getAt() {
+        return at;
+    }
+
+    public void setAt(Instant at) {
+        this.at = at;
+    }
+}
@@ -0,0 +1,197 @@
+package com.ghostwriter.cluster;
+
+import com.ghostwriter.interaction.EngagementEvent;
+import com.ghostwriter.story.StoryChangedEvent;
+import com.ghostwriter.user.UserChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Relays story, engagement and user events between instances. Local events
+ * are gathered in memory and written to {@code cluster_changes} once per
+ * poll interval, so the request that caused them never waits on the relay;
+ * every instance polls for entries written by the others and publishes them
+ * again locally, marked as remote, so caches such as the published catalog,
+ * live counts and the user cache stay current wherever the change was made.
+ * Listeners that write to the database ignore remote events, since the
+ * origin has already done so.
+ */
+@Component
+public class ClusterFeed {
+
+    // Re-read a little before the newest entry seen, in case of clock skew
+    // between instances or entries inserted out of timestamp order
+    private static final Duration OVERLAP = Duration.ofSeconds(30);
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher events;
+    private final boolean enabled;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private Instant lastSeen = Instant.now();
+    // Entries already applied within the overlap window
+    private final Map<String, Instant> applied = new HashMap<>();
+
+    // Local changes not yet written
+    private final Set<String> changedStories = ConcurrentHashMap.newKeySet();
+    private final Set<String> changedUsers = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, LongAdder> viewDeltas = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LongAdder> likeDeltas = new ConcurrentHashMap<>();
+
+    public ClusterFeed(MongoTemplate mongoTemplate, ApplicationEventPublisher events,
+            @Value("${cluster.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.events = events;
+        this.enabled = enabled;
+    }
+
+    @EventListener
+    public void onStoryChanged(StoryChangedEvent event) {
+        if (enabled && !event.isRemote()) {
+            changedStories.add(event.getStoryId());
+        }
+    }
+
+    @EventListener
+    public void onEngagement(EngagementEvent event) {
+        if (enabled && !event.isRemote()) {
+            event.getViews().forEach((storyId, views) ->
+                    viewDeltas.computeIfAbsent(storyId, k -> new LongAdder()).add(views));
+            event.getLikes().forEach((storyId, likes) ->
+                    likeDeltas.computeIfAbsent(storyId, k -> new LongAdder()).add(likes));
+        }
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (enabled && !event.isRemote()) {
+            changedUsers.add(event.getGithubId());
+        }
+    }
+
+    /**
+     * Write the local changes gathered since the last call in one insert:
+     * an entry per changed story and user, and one for all engagement.
+     */
+    @Scheduled(initialDelayString = "${cluster.poll-ms:2000}", fixedDelayString = "${cluster.poll-ms:2000}")
+    public synchronized void broadcast() {
+        if (!enabled) {
+            return;
+        }
+        List<ClusterChange> changes = new ArrayList<>();
+        for (String storyId : drain(changedStories)) {
+            changes.add(new ClusterChange(instanceId, ClusterChange.STORY, storyId, null, null));
+        }
+        for (String githubId : drain(changedUsers)) {
+            changes.add(new ClusterChange(instanceId, ClusterChange.USER, githubId, null, null));
+        }
+        Map<String, Long> views = drain(viewDeltas);
+        Map<String, Long> likes = drain(likeDeltas);
+        if (!views.isEmpty() || !likes.isEmpty()) {
+            changes.add(new ClusterChange(instanceId, ClusterChange.ENGAGEMENT, null, views, likes));
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        try {
+            mongoTemplate.insert(changes, ClusterChange.class);
+        } catch (RuntimeException e) {
+            // Other instances catch up on their next periodic refresh
+            System.err.println("[Cluster] Could not broadcast " + changes.size() + " change(s): " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void onShutdown() {
+        broadcast();
+    }
+
+    /**
+     * Apply changes made on other instances since the last poll.
+     */
+    @Scheduled(initialDelayString = "${cluster.poll-ms:2000}", fixedDelayString = "${cluster.poll-ms:2000}")
+    public synchronized void poll() {
+        if (!enabled) {
+            return;
+        }
+        Instant since = lastSeen.minus(OVERLAP);
+        try {
+            Query query = Query.query(Criteria.where("at").gte(since).and("origin").ne(instanceId))
+                    .with(Sort.by("at"));
+            for (ClusterChange change : mongoTemplate.find(query, ClusterChange.class)) {
+                if (applied.putIfAbsent(change.getId(), change.getAt()) != null) {
+                    continue;
+                }
+                if (change.getAt().isAfter(lastSeen)) {
+                    lastSeen = change.getAt();
+                }
+                apply(change);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("[Cluster] Poll FAILED: " + e.getMessage());
+        }
+        applied.values().removeIf(at -> at.isBefore(since));
+    }
+
+    private void apply(ClusterChange change) {
+        try {
+            if (ClusterChange.STORY.equals(change.getTopic())) {
+                events.publishEvent(StoryChangedEvent.remote(change.getKey()));
+            } else if (ClusterChange.ENGAGEMENT.equals(change.getTopic())) {
+                events.publishEvent(EngagementEvent.remote(orEmpty(change.getViews()), orEmpty(change.getLikes())));
+            } else if (ClusterChange.USER.equals(change.getTopic())) {
+                events.publishEvent(UserChangedEvent.remote(change.getKey()));
+            }
+        } catch (RuntimeException e) {
+            System.err.println("[Cluster] Could not apply " + change.getTopic() + " change: " + e.getMessage());
+        }
+    }
+
+    private static List<String> drain(Set<String> keys) {
+        List<String> drained = new ArrayList<>();
+        for (String key : keys) {
+            if (keys.remove(key)) {
+                drained.add(key);
+            }
+        }
+        return drained;
+    }
+
+    private static Map<String, Long> drain(ConcurrentHashMap<String, LongAdder> deltas) {
+        Map<String, Long> drained = new HashMap<>();
+        for (Map.Entry<String, LongAdder> entry : deltas.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta == 0 && deltas.remove(entry.getKey(), entry.getValue())) {
+                // Idle since the last call; keep anything that raced the removal
+                delta = entry.getValue().sumThenReset();
+            }
+            if (delta != 0) {
+                drained.put(entry.getKey(), delta);
+            }
+        }
+        return drained;
+    }
+
+    private static Map<String, Long> orEmpty(Map<String, Long> counts) {
+        return counts != null ? counts : Map.of();
+    }
+}
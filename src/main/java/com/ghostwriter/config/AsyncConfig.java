@@ -0,0 +1,13 @@
+package com.ghostwriter.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Enables {@code @Async} methods, which run on Spring Boot's shared
+ * application task executor.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
@@ -0,0 +1,145 @@
+package com.ghostwriter.config;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Compares the indexes declared on {@code @Document} classes with the ones
+ * that exist in the database. At startup, missing indexes are created (or
+ * only reported, with {@code mongo.indexes.create=false}); an index that
+ * cannot be built, say because of duplicate keys under a unique index, is
+ * logged and left for an operator instead of stopping the application.
+ */
+@Component
+public class MongoIndexVerifier {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${mongo.indexes.create:true}")
+    private boolean create;
+
+    public MongoIndexVerifier(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            int problems = 0;
+            for (Map<String, Object> entry : verify(create)) {
+                String status = (String) entry.get("status");
+                if (!"present".equals(status) && !"created".equals(status)) {
+                    problems++;
+                }
+                if (!"present".equals(status)) {
+                    System.out.println("[Indexes] " + entry.get("collection") + "." + entry.get("index")
+                            + " " + entry.get("keys") + ": " + status
+                            + (entry.containsKey("detail") ? " — " + entry.get("detail") : ""));
+                }
+            }
+            System.out.println("[Indexes] Verified, " + problems + " problem(s)");
+        } catch (RuntimeException e) {
+            System.err.println("[Indexes] Verification FAILED: " + e.getClass().getSimpleName() + " — " + e.getMessage());
+        }
+    }
+
+    /**
+     * One entry per declared index, with its status: {@code present},
+     * {@code created}, {@code missing}, {@code conflict} (same keys, other
+     * options) or {@code failed}. Indexes in the database that nothing
+     * declares are listed as {@code undeclared}; they are never dropped.
+     */
+    public List<Map<String, Object>> verify(boolean createMissing) {
+        MongoMappingContext context = (MongoMappingContext) mongoTemplate.getConverter().getMappingContext();
+        IndexResolver resolver = IndexResolver.create(context);
+        List<Map<String, Object>> report = new ArrayList<>();
+
+        for (MongoPersistentEntity<?> entity : context.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class)) {
+                continue;
+            }
+            String collection = entity.getCollection();
+            IndexOperations ops = mongoTemplate.indexOps(entity.getType());
+            List<IndexInfo> existing = ops.getIndexInfo();
+            Set<String> declaredKeys = new HashSet<>();
+
+            for (IndexDefinition definition : resolver.resolveIndexFor(entity.getTypeInformation())) {
+                String keys = keysOf(definition.getIndexKeys());
+                boolean unique = definition.getIndexOptions().getBoolean("unique", false);
+                declaredKeys.add(keys);
+
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("collection", collection);
+                entry.put("index", definition.getIndexOptions().getString("name"));
+                entry.put("keys", keys);
+                report.add(entry);
+
+                IndexInfo match = existing.stream().filter(i -> keys.equals(keysOf(i))).findFirst().orElse(null);
+                if (match != null) {
+                    entry.put("status", match.isUnique() == unique ? "present" : "conflict");
+                    if (match.isUnique() != unique) {
+                        entry.put("detail", "exists as " + match.getName() + (match.isUnique() ? " (unique)" : ""));
+                    }
+                } else if (!createMissing) {
+                    entry.put("status", "missing");
+                } else {
+                    try {
+                        ops.ensureIndex(definition);
+                        entry.put("status", "created");
+                    } catch (RuntimeException e) {
+                        entry.put("status", "failed");
+                        entry.put("detail", e.getMessage());
+                    }
+                }
+            }
+
+            for (IndexInfo info : existing) {
+                String keys = keysOf(info);
+                if (!"_id_".equals(info.getName()) && !declaredKeys.contains(keys)) {
+                    Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("collection", collection);
+                    entry.put("index", info.getName());
+                    entry.put("keys", keys);
+                    entry.put("status", "undeclared");
+                    report.add(entry);
+                }
+            }
+        }
+        return report;
+    }
+
+    private static String keysOf(Document keys) {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        keys.forEach((field, direction) -> joiner.add(field + ": " + direction));
+        return joiner.toString();
+    }
+
+    private static String keysOf(IndexInfo info) {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        for (IndexField field : info.getIndexFields()) {
+            Sort.Direction direction = field.getDirection();
+            joiner.add(field.getKey() + ": " + (direction == Sort.Direction.DESC ? -1 : 1));
+        }
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,14 @@
+package com.ghostwriter.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} background jobs. They share the scheduler's
+ * pool ({@code spring.task.scheduling.pool.size}), so jobs must hand slow or
+ * unbounded work to their own executors rather than do it in the tick.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
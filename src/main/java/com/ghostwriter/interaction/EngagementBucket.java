@@ -0,0 +1,88 @@
+package com.ghostwriter.interaction;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Views and net likes of one story during one hour or one UTC day. The id
+ * is {@code <storyId>:<granularity>:<bucket start>}. Daily buckets list the
+ * hourly buckets merged into them, so compaction can be safely repeated.
+ */
+@Document(collection = "engagement_buckets")
+@CompoundIndex(name = "storyId_granularity_start", def = "{'storyId': 1, 'granularity': 1, 'start': 1}")
+// Compaction looks for old hourly buckets across all stories
+@CompoundIndex(name = "granularity_start", def = "{'granularity': 1, 'start': 1}")
+public class EngagementBucket {
+
+    public static final String HOUR = "hour";
+    public static final String DAY = "day";
+
+    @Id
+    private String id;
+    private String storyId;
+    private String granularity;
+    private Instant start;
+    private long views;
+    private long likes;
+    private List<String> mergedHours;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getStoryId() {
+        return storyId;
+    }
+
+    public void setStoryId(String storyId) {
+        this.storyId = storyId;
+    }
+
+    public String getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(String granularity) {
+        this.granularity = granularity;
+    }
+
+    public Instant getStart() {
+        return start;
+    }
+
+    public void setStart(Instant start) {
+        this.start = start;
+    }
+
+    public long getViews() {
+        return views;
+    }
+
+    public void setViews(long views) {
+        this.views = views;
+    }
+
+    public long getLikes() {
+        return likes;
+    }
+
+    public void setLikes(long likes) {
+        this.likes = likes;
+    }
+
+    public List<String> getMergedHours() {
+        return mergedHours;
+    }
+
+    public void setMergedHours(List<String> mergedHours) {
+        this.mergedHours = mergedHours;
+    }
+}
@@ -0,0 +1,49 @@
+package com.ghostwriter.interaction;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Published after likes or views were applied to stories' counters, with
+ * the change per story: a like toggle carries +1 or -1 likes for one story,
+ * a view flush the views added to every story since the last one. Remote
+ * events relay counters already applied by another instance.
+ */
+public class EngagementEvent {
+
+    private final Map<String, Long> views;
+    private final Map<String, Long> likes;
+    private final boolean remote;
+
+    private EngagementEvent(Map<String, Long> views, Map<String, Long> likes, boolean remote) {
+        this.views = Collections.unmodifiableMap(views);
+        this.likes = Collections.unmodifiableMap(likes);
+        this.remote = remote;
+    }
+
+    public static EngagementEvent views(Map<String, Long> views) {
+        return new EngagementEvent(views, Collections.emptyMap(), false);
+    }
+
+    public static EngagementEvent like(String storyId, long delta) {
+        return new EngagementEvent(Collections.emptyMap(), Map.of(storyId, delta), false);
+    }
+
+    public static EngagementEvent remote(Map<String, Long> views, Map<String, Long> likes) {
+        return new EngagementEvent(views, likes, true);
+    }
+
+    /** Views added, by story ID. */
+    public Map<String, Long> getViews() {
+        return views;
+    }
+
+    /** Net likes added (negative for unlikes), by story ID. */
+    public Map<String, Long> getLikes() {
+        return likes;
+    }
+
+    public boolean isRemote() {
+        return remote;
+    }
+}
@@ -0,0 +1,241 @@
+package com.ghostwriter.interaction;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Views and likes over time, per story. Engagement events are tallied in
+ * memory per story and hour, and the tallies are added to the hourly bucket
+ * documents with upserted {@code $inc}s every few seconds; hourly buckets
+ * older than the retention window are then folded into daily ones. Charts
+ * read only bucket documents, never the likes or views collections, and
+ * lag by at most one flush.
+ */
+@Service
+public class EngagementRollups {
+
+    private final MongoTemplate mongoTemplate;
+    private final int hourlyRetentionHours;
+    // By hourly bucket id
+    private final ConcurrentHashMap<String, Tally> pending = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    public EngagementRollups(MongoTemplate mongoTemplate,
+            @Value("${engagement.hourly-retention-hours:72}") int hourlyRetentionHours) {
+        this.mongoTemplate = mongoTemplate;
+        this.hourlyRetentionHours = hourlyRetentionHours;
+    }
+
+    public int getHourlyRetentionHours() {
+        return hourlyRetentionHours;
+    }
+
+    /**
+     * Add the event to this hour's tallies. Nothing is written here, so the
+     * like or view that caused it costs no extra round trip; see {@link #flush()}.
+     */
+    @EventListener
+    public void onEngagement(EngagementEvent event) {
+        if (event.isRemote()) {
+            return; // counted where it happened
+        }
+        Instant hour = Instant.now().truncatedTo(ChronoUnit.HOURS);
+        event.getViews().forEach((storyId, views) -> tally(storyId, hour).views.add(views));
+        event.getLikes().forEach((storyId, likes) -> tally(storyId, hour).likes.add(likes));
+        if (closed) {
+            // Events published by other beans' shutdown flushes
+            flush();
+        }
+    }
+
+    /**
+     * Write the tallies gathered since the last flush into their hourly
+     * buckets, one upserted {@code $inc} per story and hour in a single bulk.
+     * Tallies that could not be written are kept for the next flush.
+     */
+    @Scheduled(initialDelayString = "${engagement.flush-ms:5000}", fixedDelayString = "${engagement.flush-ms:5000}")
+    public synchronized void flush() {
+        List<Tally> taken = new ArrayList<>();
+        for (Map.Entry<String, Tally> entry : pending.entrySet()) {
+            Tally tally = entry.getValue();
+            Tally delta = tally.take();
+            if (!delta.isEmpty()) {
+                taken.add(delta);
+            } else if (pending.remove(entry.getKey(), tally)) {
+                // Idle since the last flush; keep anything that raced the removal
+                restore(tally.take());
+            }
+        }
+        if (taken.isEmpty()) {
+            return;
+        }
+
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, EngagementBucket.class);
+            for (Tally delta : taken) {
+                Update update = new Update()
+                        .setOnInsert("storyId", delta.storyId)
+                        .setOnInsert("granularity", EngagementBucket.HOUR)
+                        .setOnInsert("start", delta.hour)
+                        .inc("views", delta.views.sum())
+                        .inc("likes", delta.likes.sum());
+                bulk.upsert(Query.query(Criteria.where("_id").is(bucketId(delta.storyId, EngagementBucket.HOUR,
+                        delta.hour))), update);
+            }
+            bulk.execute();
+        } catch (RuntimeException e) {
+            // Charts are best-effort, but keep the counts for another try
+            taken.forEach(this::restore);
+            System.err.println("[Engagement] Could not update buckets: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void onShutdown() {
+        closed = true;
+        flush();
+    }
+
+    private Tally tally(String storyId, Instant hour) {
+        return pending.computeIfAbsent(bucketId(storyId, EngagementBucket.HOUR, hour), id -> new Tally(storyId, hour));
+    }
+
+    private void restore(Tally delta) {
+        if (!delta.isEmpty()) {
+            Tally tally = tally(delta.storyId, delta.hour);
+            tally.views.add(delta.views.sum());
+            tally.likes.add(delta.likes.sum());
+        }
+    }
+
+    /**
+     * Fold hourly buckets older than the retention window into daily ones.
+     * Each daily bucket records which hours it has absorbed, so an hour is
+     * never counted twice even if a previous run stopped between merging it
+     * and deleting it.
+     */
+    @Scheduled(initialDelayString = "${engagement.compact-ms:3600000}",
+            fixedDelayString = "${engagement.compact-ms:3600000}")
+    public synchronized void compact() {
+        Instant cutoff = Instant.now().truncatedTo(ChronoUnit.HOURS).minus(hourlyRetentionHours, ChronoUnit.HOURS);
+        Query old = Query.query(Criteria.where("granularity").is(EngagementBucket.HOUR).and("start").lt(cutoff));
+        int merged = 0;
+        try (Stream<EngagementBucket> hours = mongoTemplate.stream(old, EngagementBucket.class)) {
+            for (EngagementBucket hour : (Iterable<EngagementBucket>) hours::iterator) {
+                Instant day = hour.getStart().truncatedTo(ChronoUnit.DAYS);
+                Query target = Query.query(Criteria.where("_id").is(bucketId(hour.getStoryId(), EngagementBucket.DAY, day))
+                        .and("mergedHours").ne(hour.getId()));
+                Update update = new Update()
+                        .setOnInsert("storyId", hour.getStoryId())
+                        .setOnInsert("granularity", EngagementBucket.DAY)
+                        .setOnInsert("start", day)
+                        .inc("views", hour.getViews())
+                        .inc("likes", hour.getLikes())
+                        .addToSet("mergedHours", hour.getId());
+                try {
+                    mongoTemplate.upsert(target, update, EngagementBucket.class);
+                } catch (DuplicateKeyException e) {
+                    // The daily bucket exists and already holds this hour
+                }
+                mongoTemplate.remove(Query.query(Criteria.where("_id").is(hour.getId())), EngagementBucket.class);
+                merged++;
+            }
+            if (merged > 0) {
+                System.out.println("[Engagement] Compacted " + merged + " hourly bucket(s)");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("[Engagement] Compaction FAILED after " + merged + " bucket(s): " + e.getMessage());
+        }
+    }
+
+    /**
+     * Views and likes of a story for the last {@code count} hours or UTC
+     * days, oldest first, with empty buckets filled in as zero. Daily points
+     * include hours not yet compacted.
+     */
+    public List<Map<String, Object>> series(String storyId, String granularity, int count) {
+        boolean daily = EngagementBucket.DAY.equals(granularity);
+        ChronoUnit unit = daily ? ChronoUnit.DAYS : ChronoUnit.HOURS;
+        Instant last = Instant.now().truncatedTo(unit);
+        Instant first = last.minus(count - 1L, unit);
+
+        Criteria criteria = Criteria.where("storyId").is(storyId).and("start").gte(first);
+        if (!daily) {
+            criteria = criteria.and("granularity").is(EngagementBucket.HOUR);
+        }
+        Query query = Query.query(criteria);
+        query.fields().include("start", "views", "likes");
+
+        Map<Instant, long[]> totals = new HashMap<>();
+        for (EngagementBucket bucket : mongoTemplate.find(query, EngagementBucket.class)) {
+            long[] sums = totals.computeIfAbsent(bucket.getStart().truncatedTo(unit), k -> new long[2]);
+            sums[0] += bucket.getViews();
+            sums[1] += bucket.getLikes();
+        }
+
+        List<Map<String, Object>> points = new ArrayList<>(count);
+        for (Instant start = first; !start.isAfter(last); start = start.plus(1, unit)) {
+            long[] sums = totals.getOrDefault(start, new long[2]);
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("start", start);
+            point.put("views", sums[0]);
+            point.put("likes", sums[1]);
+            points.add(point);
+        }
+        return points;
+    }
+
+    public void deleteStory(String storyId) {
+        mongoTemplate.remove(Query.query(Criteria.where("storyId").is(storyId)), EngagementBucket.class);
+    }
+
+    private static String bucketId(String storyId, String granularity, Instant start) {
+        return storyId + ":" + granularity + ":" + start;
+    }
+
+    // Views and likes of one story in one hour, not yet written
+    private static final class Tally {
+
+        final String storyId;
+        final Instant hour;
+        final LongAdder views = new LongAdder();
+        final LongAdder likes = new LongAdder();
+
+        Tally(String storyId, Instant hour) {
+            this.storyId = storyId;
+            this.hour = hour;
+        }
+
+        // Move the counts so far into a new tally, leaving this one at zero
+        Tally take() {
+            Tally taken = new Tally(storyId, hour);
+            taken.views.add(views.sumThenReset());
+            taken.likes.add(likes.sumThenReset());
+            return taken;
+        }
+
+        boolean isEmpty() {
+            return views.sum() == 0 && likes.sum() == 0;
+        }
+    }
+}
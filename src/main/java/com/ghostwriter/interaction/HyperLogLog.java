@@ -0,0 +1,153 @@
+package com.ghostwriter.interaction;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog distinct-count sketch. Holds one byte register per bucket, so
+ * its size is fixed by the precision no matter how many items are added,
+ * and two sketches of the same precision merge by taking the larger of each
+ * register. The standard error of an estimate is about 1.04 / sqrt(2^p).
+ *
+ * <p>Not thread-safe.
+ */
+public class HyperLogLog {
+
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 16;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    private HyperLogLog(int precision, byte[] registers) {
+        this.precision = precision;
+        this.registers = registers;
+    }
+
+    /**
+     * The smallest precision whose standard error is at most {@code error}.
+     */
+    public static int precisionFor(double error) {
+        if (!(error > 0)) {
+            throw new IllegalArgumentException("Error bound must be positive");
+        }
+        double buckets = Math.pow(1.04 / error, 2);
+        int precision = (int) Math.ceil(Math.log(buckets) / Math.log(2));
+        return Math.max(MIN_PRECISION, Math.min(MAX_PRECISION, precision));
+    }
+
+    /**
+     * The standard error of estimates at a precision.
+     */
+    public static double errorOf(int precision) {
+        return 1.04 / Math.sqrt(1 << precision);
+    }
+
+    /**
+     * Rebuild a sketch from {@link #toBytes()}.
+     *
+     * @throws IllegalArgumentException if the bytes are not a sketch
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length < 1) {
+            throw new IllegalArgumentException("Empty sketch");
+        }
+        int precision = bytes[0];
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION || bytes.length != (1 << precision) + 1) {
+            throw new IllegalArgumentException("Malformed sketch");
+        }
+        return new HyperLogLog(precision, Arrays.copyOfRange(bytes, 1, bytes.length));
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public void add(String item) {
+        addHash(hash64(item));
+    }
+
+    void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // Rank of the first set bit in the remaining bits, 1-based; a guard
+        // bit keeps an all-zero remainder from running past the end
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Fold another sketch into this one.
+     *
+     * @throws IllegalArgumentException if the precisions differ
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches of different precision");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        // Small cardinalities: linear counting over the empty registers
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public HyperLogLog copy() {
+        return new HyperLogLog(precision, registers.clone());
+    }
+
+    /**
+     * The precision followed by the registers.
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[registers.length + 1];
+        bytes[0] = (byte) precision;
+        System.arraycopy(registers, 0, bytes, 1, registers.length);
+        return bytes;
+    }
+
+    // FNV-1a over the UTF-8 bytes, then the MurmurHash3 finalizer to spread
+    // the bits evenly across the whole word
+    static long hash64(String item) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : item.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -1,28 +1,45 @@
 package com.ghostwriter.interaction;
 
+import com.ghostwriter.story.StoryRepository;
+import com.ghostwriter.user.CurrentUser;
 import com.ghostwriter.user.User;
-import com.ghostwriter.user.UserRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/stories")
 public class InteractionController {
 
+    private static final int MAX_READER_DAYS = 90;
+    private static final int MAX_BATCH = 100;
+    private static final int MAX_ENGAGEMENT_DAYS = 365;
+
     private final LikeService likeService;
     private final ViewService viewService;
-    private final UserRepository userRepository;
+    private final InteractionService interactionService;
+    private final UniqueReaderCounter uniqueReaders;
+    private final EngagementRollups engagementRollups;
+    private final LiveCounts liveCounts;
+    private final StoryRepository storyRepository;
 
     public InteractionController(LikeService likeService, ViewService viewService,
-            UserRepository userRepository) {
+            InteractionService interactionService, UniqueReaderCounter uniqueReaders,
+            EngagementRollups engagementRollups, LiveCounts liveCounts,
+            StoryRepository storyRepository) {
         this.likeService = likeService;
         this.viewService = viewService;
-        this.userRepository = userRepository;
+        this.interactionService = interactionService;
+        this.uniqueReaders = uniqueReaders;
+        this.engagementRollups = engagementRollups;
+        this.liveCounts = liveCounts;
+        this.storyRepository = storyRepository;
     }
 
     /**
@@ -30,16 +47,22 @@ public class InteractionController {
      */
     @PostMapping("/{id}/like")
     public ResponseEntity<?> toggleLike(@PathVariable String id,
-            @AuthenticationPrincipal OAuth2User principal) {
-        User user = resolveUser(principal);
+            @CurrentUser User user) {
         if (user == null) {
             return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
         }
 
-        boolean liked = likeService.toggleLike(id, user.getId());
+        LikeToggleResult toggle;
+        try {
+            toggle = likeService.toggleLike(id, user.getId());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).body(Map.of("error", "Likes are temporarily unavailable"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        }
         Map<String, Object> result = new HashMap<>();
-        result.put("liked", liked);
-        result.put("likeCount", likeService.getLikeCount(id));
+        result.put("liked", toggle.isLiked());
+        result.put("likeCount", toggle.getLikeCount());
         return ResponseEntity.ok(result);
     }
 
@@ -48,10 +71,14 @@ public class InteractionController {
      */
     @PostMapping("/{id}/view")
     public ResponseEntity<?> recordView(@PathVariable String id,
-            @AuthenticationPrincipal OAuth2User principal) {
-        User user = resolveUser(principal);
+            @CurrentUser User user,
+            HttpServletRequest request) {
         String userId = user != null ? user.getId() : null;
-        viewService.recordView(id, userId);
+        // Anonymous readers are told apart by address and browser only
+        String readerKey = userId != null
+                ? "user:" + userId
+                : "anon:" + request.getRemoteAddr() + "|" + request.getHeader("User-Agent");
+        viewService.recordView(id, userId, readerKey);
 
         Map<String, Object> result = new HashMap<>();
         result.put("viewCount", viewService.getViewCount(id));
@@ -63,19 +90,93 @@ public class InteractionController {
      */
     @GetMapping("/{id}/interactions")
     public ResponseEntity<?> getInteractions(@PathVariable String id,
-            @AuthenticationPrincipal OAuth2User principal) {
-        User user = resolveUser(principal);
-        Map<String, Object> result = new HashMap<>();
-        result.put("likeCount", likeService.getLikeCount(id));
-        result.put("viewCount", viewService.getViewCount(id));
-        result.put("userLiked", user != null && likeService.hasUserLiked(id, user.getId()));
+            @CurrentUser User user) {
+        Map<String, Object> result = interactionService
+                .getInteractions(List.of(id), user != null ? user.getId() : null)
+                .get(id);
+        if (result == null) {
+            result = Map.of("likeCount", 0, "viewCount", 0, "userLiked", false);
+        }
         return ResponseEntity.ok(result);
     }
 
-    private User resolveUser(OAuth2User principal) {
-        if (principal == null)
-            return null;
-        String githubId = String.valueOf(principal.getAttributes().get("id"));
-        return userRepository.findByGithubId(githubId).orElse(null);
+    /**
+     * Get interactions data for several stories at once, keyed by story ID.
+     */
+    @GetMapping("/interactions")
+    public ResponseEntity<?> getInteractionsBatch(@RequestParam List<String> ids,
+            @CurrentUser User user) {
+        if (ids.size() > MAX_BATCH) {
+            return ResponseEntity.badRequest().body(Map.of("error", "At most " + MAX_BATCH + " stories per request"));
+        }
+        return ResponseEntity.ok(interactionService.getInteractions(ids, user != null ? user.getId() : null));
+    }
+
+    /**
+     * Stream like and view counts for a story as server-sent "counts"
+     * events, at most one per coalescing window (public). Responds 503
+     * when the server is at its subscriber limit.
+     */
+    @GetMapping(value = "/{id}/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamCounts(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok()
+                    // Stop nginx-style proxies from buffering the stream
+                    .header("X-Accel-Buffering", "no")
+                    .body(liveCounts.subscribe(id));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).build();
+        }
+    }
+
+    /**
+     * Estimated unique readers of a story, overall and per day (author only).
+     */
+    @GetMapping("/{id}/readers")
+    public ResponseEntity<?> getUniqueReaders(@PathVariable String id,
+            @RequestParam(defaultValue = "30") int days,
+            @CurrentUser User user) {
+        if (user == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+        if (!storyRepository.existsByIdAndUserId(id, user.getId())) {
+            return ResponseEntity.status(403).body(Map.of("error", "Not your story"));
+        }
+
+        Map<String, Object> result = new HashMap<>(
+                uniqueReaders.dailyReaders(id, Math.max(1, Math.min(days, MAX_READER_DAYS))));
+        result.put("uniqueReaders", uniqueReaders.uniqueReaders(id));
+        result.put("standardError", uniqueReaders.getError());
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Views and likes over time for charts (author only): the last
+     * {@code count} days, or hours while they are still kept hourly.
+     */
+    @GetMapping("/{id}/engagement")
+    public ResponseEntity<?> getEngagement(@PathVariable String id,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(defaultValue = "30") int count,
+            @CurrentUser User user) {
+        if (user == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+        if (!storyRepository.existsByIdAndUserId(id, user.getId())) {
+            return ResponseEntity.status(403).body(Map.of("error", "Not your story"));
+        }
+
+        int max;
+        if (EngagementBucket.DAY.equals(granularity)) {
+            max = MAX_ENGAGEMENT_DAYS;
+        } else if (EngagementBucket.HOUR.equals(granularity)) {
+            max = engagementRollups.getHourlyRetentionHours();
+        } else {
+            return ResponseEntity.badRequest().body(Map.of("error", "Granularity must be 'hour' or 'day'"));
+        }
+        int points = Math.max(1, Math.min(count, max));
+        return ResponseEntity.ok(Map.of(
+                "granularity", granularity,
+                "points", engagementRollups.series(id, granularity, points)));
     }
 }
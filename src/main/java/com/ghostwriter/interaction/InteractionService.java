@@ -0,0 +1,72 @@
+package com.ghostwriter.interaction;
+
+import com.ghostwriter.story.Story;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Like and view state for stories, read from the counters kept on each
+ * story rather than counted from the likes and views collections. Any
+ * number of stories costs at most two queries.
+ */
+@Service
+public class InteractionService {
+
+    private final MongoTemplate mongoTemplate;
+    private final LikeService likeService;
+    private final ViewCounterBuffer viewCounters;
+
+    public InteractionService(MongoTemplate mongoTemplate, LikeService likeService,
+            ViewCounterBuffer viewCounters) {
+        this.mongoTemplate = mongoTemplate;
+        this.likeService = likeService;
+        this.viewCounters = viewCounters;
+    }
+
+    /**
+     * likeCount, viewCount and userLiked for each existing story, keyed by
+     * story ID in request order. Unknown IDs are left out.
+     *
+     * @param userId the current user, or null when signed out
+     */
+    public Map<String, Map<String, Object>> getInteractions(Collection<String> storyIds, String userId) {
+        Set<String> ids = new LinkedHashSet<>(storyIds);
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Query query = Query.query(Criteria.where("_id").in(ids));
+        query.fields().include("likeCount", "viewCount");
+        Map<String, Story> stories = new HashMap<>();
+        for (Story story : mongoTemplate.find(query, Story.class)) {
+            stories.put(story.getId(), story);
+        }
+        Set<String> liked = userId != null && !stories.isEmpty()
+                ? likeService.likedAmong(userId, stories.keySet())
+                : Collections.emptySet();
+
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        for (String id : ids) {
+            Story story = stories.get(id);
+            if (story == null) {
+                continue;
+            }
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("likeCount", story.getLikeCount());
+            entry.put("viewCount", story.getViewCount() + viewCounters.pending(id));
+            entry.put("userLiked", liked.contains(id));
+            result.put(id, entry);
+        }
+        return result;
+    }
+}
@@ -1,11 +1,13 @@
 package com.ghostwriter.interaction;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 
 @Document(collection = "likes")
+@CompoundIndex(name = "storyId_userId", def = "{'storyId': 1, 'userId': 1}", unique = true)
 public class Like {
 
     @Id
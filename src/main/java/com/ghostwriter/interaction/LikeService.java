@@ -1,52 +1,170 @@
 package com.ghostwriter.interaction;
 
 import com.ghostwriter.story.Story;
-import com.ghostwriter.story.StoryRepository;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 @Service
 public class LikeService {
 
-    private final LikeRepository likeRepository;
-    private final StoryRepository storyRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher events;
+    private volatile boolean uniqueIndexReady;
 
-    public LikeService(LikeRepository likeRepository, StoryRepository storyRepository) {
-        this.likeRepository = likeRepository;
-        this.storyRepository = storyRepository;
+    public LikeService(MongoTemplate mongoTemplate, ApplicationEventPublisher events) {
+        this.mongoTemplate = mongoTemplate;
+        this.events = events;
     }
 
     /**
      * Toggle like: if already liked, unlike; otherwise, like.
-     * Returns true if liked, false if unliked.
+     * The like is inserted first and the unique (storyId, userId) index
+     * decides which way the toggle goes, so concurrent clicks cannot both
+     * count; the story's counter is then moved with a single $inc.
+     *
+     * @throws IllegalStateException if the unique index is missing and cannot be built
      */
-    public boolean toggleLike(String storyId, String userId) {
-        Optional<Like> existing = likeRepository.findByStoryIdAndUserId(storyId, userId);
-        Optional<Story> storyOpt = storyRepository.findById(storyId);
+    public LikeToggleResult toggleLike(String storyId, String userId) {
+        requireUniqueIndex();
+        if (!mongoTemplate.exists(Query.query(Criteria.where("_id").is(storyId)), Story.class)) {
+            throw new RuntimeException("Story not found");
+        }
+        try {
+            mongoTemplate.insert(new Like(storyId, userId));
+            int count = incrementLikeCount(storyId, 1);
+            events.publishEvent(EngagementEvent.like(storyId, 1));
+            return new LikeToggleResult(true, count);
+        } catch (DuplicateKeyException e) {
+            Query existing = Query.query(Criteria.where("storyId").is(storyId).and("userId").is(userId));
+            boolean removed = mongoTemplate.remove(existing, Like.class).getDeletedCount() > 0;
+            // A concurrent unlike got there first: report the count unchanged
+            int count = incrementLikeCount(storyId, removed ? -1 : 0);
+            if (removed) {
+                events.publishEvent(EngagementEvent.like(storyId, -1));
+            }
+            return new LikeToggleResult(false, count);
+        }
+    }
+
+    /**
+     * Make sure the unique (storyId, userId) index exists before any toggle
+     * relies on it, removing duplicate likes that would keep it from being
+     * built. Runs at startup, and again on a toggle if that attempt failed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onApplicationReady() {
+        try {
+            requireUniqueIndex();
+        } catch (IllegalStateException e) {
+            System.err.println("[Likes] " + e.getMessage());
+        }
+    }
+
+    private void requireUniqueIndex() {
+        if (uniqueIndexReady) {
+            return;
+        }
+        synchronized (this) {
+            if (uniqueIndexReady) {
+                return;
+            }
+            try {
+                IndexOperations ops = mongoTemplate.indexOps(Like.class);
+                if (!hasUniqueIndex(ops)) {
+                    int removed = removeDuplicates();
+                    ops.ensureIndex(new Index().on("storyId", Sort.Direction.ASC).on("userId", Sort.Direction.ASC)
+                            .unique().named("storyId_userId"));
+                    System.out.println("[Likes] Built the unique like index"
+                            + (removed > 0 ? " after removing " + removed + " duplicate like(s)" : ""));
+                }
+                uniqueIndexReady = true;
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Likes are unavailable: the unique like index could not be built ("
+                        + e.getMessage() + ")", e);
+            }
+        }
+    }
+
+    private static boolean hasUniqueIndex(IndexOperations ops) {
+        for (IndexInfo info : ops.getIndexInfo()) {
+            List<String> keys = info.getIndexFields().stream().map(IndexField::getKey).toList();
+            if (info.isUnique() && keys.equals(List.of("storyId", "userId"))) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        if (existing.isPresent()) {
-            likeRepository.delete(existing.get());
-            storyOpt.ifPresent(story -> {
-                story.setLikeCount(Math.max(0, story.getLikeCount() - 1));
-                storyRepository.save(story);
-            });
-            return false;
-        } else {
-            likeRepository.save(new Like(storyId, userId));
-            storyOpt.ifPresent(story -> {
-                story.setLikeCount(story.getLikeCount() + 1);
-                storyRepository.save(story);
-            });
-            return true;
+    // Keep the oldest like of each (storyId, userId) pair and recount the
+    // stories that had duplicates
+    private int removeDuplicates() {
+        Aggregation duplicates = Aggregation.newAggregation(
+                Aggregation.sort(Sort.by("_id")),
+                Aggregation.group("storyId", "userId").push("_id").as("ids").count().as("count"),
+                Aggregation.match(Criteria.where("count").gt(1)));
+        int removed = 0;
+        Set<String> stories = new HashSet<>();
+        for (Document group : mongoTemplate.aggregate(duplicates, Like.class, Document.class)) {
+            List<?> ids = group.getList("ids", Object.class);
+            removed += mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids.subList(1, ids.size()))),
+                    Like.class).getDeletedCount();
+            stories.add(group.get("_id", Document.class).getString("storyId"));
         }
+        for (String storyId : stories) {
+            long count = mongoTemplate.count(Query.query(Criteria.where("storyId").is(storyId)), Like.class);
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(storyId)),
+                    new Update().set("likeCount", count), Story.class);
+        }
+        return removed;
     }
 
-    public long getLikeCount(String storyId) {
-        return likeRepository.countByStoryId(storyId);
+    // Adjust the stored count and return it, never taking it below zero
+    private int incrementLikeCount(String storyId, int delta) {
+        Criteria criteria = Criteria.where("_id").is(storyId);
+        if (delta < 0) {
+            criteria = criteria.and("likeCount").gt(0);
+        }
+        Query query = Query.query(criteria);
+        query.fields().include("likeCount");
+        Story story = mongoTemplate.findAndModify(query, new Update().inc("likeCount", delta),
+                FindAndModifyOptions.options().returnNew(true), Story.class);
+        return story != null ? story.getLikeCount() : 0;
     }
 
-    public boolean hasUserLiked(String storyId, String userId) {
-        return likeRepository.existsByStoryIdAndUserId(storyId, userId);
+    /**
+     * Which of the given stories the user has liked, in one $in query over
+     * the (storyId, userId) index.
+     */
+    public Set<String> likedAmong(String userId, Collection<String> storyIds) {
+        Query query = Query.query(Criteria.where("userId").is(userId).and("storyId").in(storyIds));
+        query.fields().include("storyId").exclude("_id");
+        Set<String> liked = new HashSet<>();
+        for (Like like : mongoTemplate.find(query, Like.class)) {
+            liked.add(like.getStoryId());
+        }
+        return liked;
     }
 }
@@ -0,0 +1,24 @@
+package com.ghostwriter.interaction;
+
+/**
+ * Outcome of a like toggle: whether the story is now liked by the user and
+ * its like count after the change.
+ */
+public class LikeToggleResult {
+
+    private final boolean liked;
+    private final int likeCount;
+
+    public LikeToggleResult(boolean liked, int likeCount) {
+        this.liked = liked;
+        this.likeCount = likeCount;
+    }
+
+    public boolean isLiked() {
+        return liked;
+    }
+
+    public int getLikeCount() {
+        return likeCount;
+    }
+}
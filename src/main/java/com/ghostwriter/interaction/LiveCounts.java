@@ -0,0 +1,199 @@
+package com.ghostwriter.interaction;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pushes like and view counts to readers of a story over server-sent
+ * events. Subscriptions are async servlet responses, so an idle reader holds
+ * a connection but no thread. Changes are coalesced: a story that changed
+ * any number of times within one window gets a single message with its
+ * current counts, read for all changed stories in one query. Messages are
+ * written by a small pool of their own, never by the scheduler thread; a
+ * stream still busy with its previous message skips the next, and one whose
+ * write hangs past the send timeout is dropped.
+ */
+@Component
+public class LiveCounts {
+
+    private final InteractionService interactionService;
+    private final long timeoutMs;
+    private final int maxSubscribers;
+    private final long heartbeatMs;
+    private final long sendTimeoutMs;
+    private final ThreadPoolExecutor senders;
+
+    private final Map<String, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final Set<String> changed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    // Streams with a write in progress, and when it started
+    private final Map<SseEmitter, Long> sending = new ConcurrentHashMap<>();
+    private volatile long lastHeartbeat = System.currentTimeMillis();
+
+    public LiveCounts(InteractionService interactionService,
+            @Value("${live.timeout-ms:1800000}") long timeoutMs,
+            @Value("${live.max-subscribers:10000}") int maxSubscribers,
+            @Value("${live.heartbeat-ms:25000}") long heartbeatMs,
+            @Value("${live.send-threads:4}") int sendThreads,
+            @Value("${live.send-queue:10000}") int sendQueue,
+            @Value("${live.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.interactionService = interactionService;
+        this.timeoutMs = timeoutMs;
+        this.maxSubscribers = maxSubscribers;
+        this.heartbeatMs = heartbeatMs;
+        this.sendTimeoutMs = sendTimeoutMs;
+        AtomicInteger count = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(sendThreads, sendThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(sendQueue), r -> {
+                    Thread thread = new Thread(r, "live-send-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Open a count stream for a story. The browser reconnects on its own
+     * when the stream times out.
+     *
+     * @throws IllegalStateException if the subscriber limit is reached
+     */
+    public SseEmitter subscribe(String storyId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new IllegalStateException("Too many live subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        subscribers.compute(storyId, (k, emitters) -> {
+            Set<SseEmitter> target = emitters != null ? emitters : new CopyOnWriteArraySet<>();
+            target.add(emitter);
+            return target;
+        });
+        Runnable remove = () -> unsubscribe(storyId, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        return emitter;
+    }
+
+    @EventListener
+    public void onEngagement(EngagementEvent event) {
+        markChanged(event.getViews().keySet());
+        markChanged(event.getLikes().keySet());
+    }
+
+    /**
+     * Send one message per changed story, and a comment line to every
+     * stream now and then so proxies do not close idle connections.
+     */
+    @Scheduled(fixedDelayString = "${live.coalesce-ms:1000}")
+    public void push() {
+        dropStalled();
+
+        if (!changed.isEmpty()) {
+            List<String> storyIds = new ArrayList<>(changed);
+            changed.removeAll(storyIds);
+            try {
+                Map<String, Map<String, Object>> counts = interactionService.getInteractions(storyIds, null);
+                counts.forEach((storyId, entry) -> {
+                    entry.remove("userLiked");
+                    send(storyId, () -> SseEmitter.event().name("counts").data(entry));
+                });
+            } catch (RuntimeException e) {
+                System.err.println("[Live] Could not read counts: " + e.getMessage());
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lastHeartbeat >= heartbeatMs) {
+            lastHeartbeat = now;
+            for (String storyId : subscribers.keySet()) {
+                send(storyId, () -> SseEmitter.event().comment("keep-alive"));
+            }
+        }
+    }
+
+    private void markChanged(Set<String> storyIds) {
+        for (String storyId : storyIds) {
+            if (subscribers.containsKey(storyId)) {
+                changed.add(storyId);
+            }
+        }
+    }
+
+    // Builders are single-use, so each emitter gets its own
+    private void send(String storyId, Supplier<SseEmitter.SseEventBuilder> event) {
+        Set<SseEmitter> emitters = subscribers.get(storyId);
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            if (sending.putIfAbsent(emitter, System.currentTimeMillis()) != null) {
+                // Still writing the previous message
+                continue;
+            }
+            try {
+                senders.execute(() -> {
+                    try {
+                        emitter.send(event.get());
+                    } catch (IOException | IllegalStateException e) {
+                        // Gone away; completing triggers the cleanup callback
+                        emitter.completeWithError(e);
+                        unsubscribe(storyId, emitter);
+                    } finally {
+                        sending.remove(emitter);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Senders are backed up; counts are resent on the next change
+                sending.remove(emitter);
+            }
+        }
+    }
+
+    private void dropStalled() {
+        long cutoff = System.currentTimeMillis() - sendTimeoutMs;
+        sending.forEach((emitter, started) -> {
+            if (started < cutoff && sending.remove(emitter, started)) {
+                emitter.completeWithError(new TimeoutException("Send timed out"));
+                subscribers.forEach((storyId, emitters) -> {
+                    if (emitters.contains(emitter)) {
+                        unsubscribe(storyId, emitter);
+                    }
+                });
+            }
+        });
+    }
+
+    private void unsubscribe(String storyId, SseEmitter emitter) {
+        subscribers.computeIfPresent(storyId, (k, emitters) -> {
+            if (emitters.remove(emitter)) {
+                subscriberCount.decrementAndGet();
+            }
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+}
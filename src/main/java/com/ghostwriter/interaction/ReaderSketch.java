@@ -0,0 +1,86 @@
+package com.ghostwriter.interaction;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * A persisted {@link HyperLogLog} of the readers of one story, either for a
+ * single UTC day or, with no day, for all time. The id is
+ * {@code <storyId>:<day or "all">}.
+ */
+@Document(collection = "reader_sketches")
+@CompoundIndex(name = "storyId_day", def = "{'storyId': 1, 'day': 1}")
+public class ReaderSketch {
+
+    @Id
+    private String id;
+    private String storyId;
+    // ISO date (yyyy-MM-dd), or null for the all-time sketch
+    private String day;
+    private byte[] registers;
+    private long version;
+    private Instant updatedAt;
+
+    public ReaderSketch() {
+    }
+
+    public ReaderSketch(String id, String storyId, String day, byte[] registers) {
+        this.id = id;
+        this.storyId = storyId;
+        this.day = day;
+        this.registers = registers;
+        this.version = 1;
+        this.updatedAt = Instant.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getStoryId() {
+        return storyId;
+    }
+
+    public void setStoryId(String storyId) {
+        this.storyId = storyId;
+    }
+
+    public String getDay() {
+        return day;
+    }
+
+    public void setDay(String day) {
+        this.day = day;
+    }
+
+    public byte[] getRegisters() {
+        return registers;
+    }
+
+    public void setRegisters(byte[] registers) {
+        this.registers = registers;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -1,11 +1,17 @@
 package com.ghostwriter.interaction;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 
 @Document(collection = "views")
+// Legacy anonymous views have no userId and are left out of the index
+@CompoundIndex(name = "storyId_userId", def = "{'storyId': 1, 'userId': 1}", unique = true,
+        partialFilter = "{'userId': {'$type': 'string'}}")
+// The partial index cannot serve per-story counts and deletes, which match legacy views too
+@CompoundIndex(name = "storyId", def = "{'storyId': 1}")
 public class StoryView {
 
     @Id
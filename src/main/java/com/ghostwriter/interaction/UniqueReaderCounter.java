@@ -0,0 +1,234 @@
+package com.ghostwriter.interaction;
+
+import com.mongodb.client.result.UpdateResult;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Approximate unique-reader counts per story, overall and per UTC day, kept
+ * as {@link HyperLogLog} sketches. Readers are added to in-memory sketches
+ * that are merged into the stored ones periodically, so a story costs the
+ * same few kilobytes however many people read it. Daily sketches older than
+ * the retention window are dropped; the all-time sketch is kept.
+ */
+@Component
+public class UniqueReaderCounter {
+
+    private static final String ALL_TIME = "all";
+    private static final int MAX_MERGE_ATTEMPTS = 5;
+
+    private final MongoTemplate mongoTemplate;
+    private final int precision;
+    private final int retentionDays;
+    // Readers added since the last persist, keyed by sketch id
+    private final ConcurrentHashMap<String, HyperLogLog> pending = new ConcurrentHashMap<>();
+
+    public UniqueReaderCounter(MongoTemplate mongoTemplate,
+            @Value("${readers.error:0.02}") double error,
+            @Value("${readers.retention-days:90}") int retentionDays) {
+        this.mongoTemplate = mongoTemplate;
+        this.precision = HyperLogLog.precisionFor(error);
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * Count a reader of a story. The key identifies the reader (a user ID,
+     * or a fingerprint for anonymous readers); it is hashed, never stored.
+     */
+    public void offer(String storyId, String readerKey) {
+        long hash = HyperLogLog.hash64(readerKey);
+        add(sketchId(storyId, ALL_TIME), hash);
+        add(sketchId(storyId, today().toString()), hash);
+    }
+
+    /**
+     * The standard error of the estimates.
+     */
+    public double getError() {
+        return HyperLogLog.errorOf(precision);
+    }
+
+    /**
+     * Estimated unique readers of a story over all time.
+     */
+    public long uniqueReaders(String storyId) {
+        String id = sketchId(storyId, ALL_TIME);
+        HyperLogLog sketch = withPending(id, mongoTemplate.findById(id, ReaderSketch.class));
+        return sketch != null ? sketch.estimate() : 0;
+    }
+
+    /**
+     * Estimated unique readers of a story for each of the last {@code days}
+     * UTC days, oldest first, and for the whole range (a reader on several
+     * days counts once).
+     */
+    public Map<String, Object> dailyReaders(String storyId, int days) {
+        LocalDate to = today();
+        LocalDate from = to.minusDays(days - 1L);
+        Query query = Query.query(Criteria.where("storyId").is(storyId).and("day").gte(from.toString()));
+        Map<String, ReaderSketch> stored = new HashMap<>();
+        for (ReaderSketch sketch : mongoTemplate.find(query, ReaderSketch.class)) {
+            stored.put(sketch.getDay(), sketch);
+        }
+
+        List<Map<String, Object>> series = new ArrayList<>();
+        HyperLogLog range = new HyperLogLog(precision);
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            HyperLogLog sketch = withPending(sketchId(storyId, day.toString()), stored.get(day.toString()));
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("day", day.toString());
+            point.put("uniqueReaders", sketch != null ? sketch.estimate() : 0);
+            series.add(point);
+            if (sketch != null && sketch.getPrecision() == precision) {
+                range.merge(sketch);
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("days", series);
+        result.put("rangeUniqueReaders", range.estimate());
+        return result;
+    }
+
+    /**
+     * Merge the in-memory sketches into the stored ones and drop expired
+     * daily sketches.
+     */
+    @Scheduled(initialDelayString = "${readers.persist-ms:60000}", fixedDelayString = "${readers.persist-ms:60000}")
+    public synchronized void persist() {
+        int failed = 0;
+        for (String id : new ArrayList<>(pending.keySet())) {
+            HyperLogLog sketch = pending.remove(id);
+            if (sketch == null) {
+                continue;
+            }
+            try {
+                mergeIntoStored(id, sketch);
+            } catch (RuntimeException e) {
+                // Keep it for the next round
+                pending.merge(id, sketch, (current, retry) -> {
+                    current.merge(retry);
+                    return current;
+                });
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            System.err.println("[Readers] " + failed + " sketch(es) could not be saved, retrying next round");
+        }
+
+        try {
+            String cutoff = today().minusDays(retentionDays).toString();
+            mongoTemplate.remove(Query.query(Criteria.where("day").lt(cutoff)), ReaderSketch.class);
+        } catch (RuntimeException e) {
+            System.err.println("[Readers] Pruning FAILED: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void onShutdown() {
+        persist();
+    }
+
+    public void deleteStory(String storyId) {
+        pending.keySet().removeIf(id -> id.startsWith(storyId + ":"));
+        mongoTemplate.remove(Query.query(Criteria.where("storyId").is(storyId)), ReaderSketch.class);
+    }
+
+    // compute() locks the entry, so an add never lands in a sketch that
+    // persist() has already taken out
+    private void add(String id, long hash) {
+        pending.compute(id, (key, sketch) -> {
+            HyperLogLog target = sketch != null ? sketch : new HyperLogLog(precision);
+            target.addHash(hash);
+            return target;
+        });
+    }
+
+    private HyperLogLog withPending(String id, ReaderSketch stored) {
+        HyperLogLog result = stored != null ? decode(stored) : null;
+        HyperLogLog[] unsaved = new HyperLogLog[1];
+        pending.computeIfPresent(id, (key, sketch) -> {
+            unsaved[0] = sketch.copy();
+            return sketch;
+        });
+        if (unsaved[0] == null) {
+            return result;
+        }
+        if (result == null || result.getPrecision() != precision) {
+            return unsaved[0];
+        }
+        result.merge(unsaved[0]);
+        return result;
+    }
+
+    /**
+     * Read-merge-write with an optimistic version check, so concurrent
+     * writers (or other instances) never overwrite each other's readers.
+     */
+    private void mergeIntoStored(String id, HyperLogLog sketch) {
+        for (int attempt = 0; attempt < MAX_MERGE_ATTEMPTS; attempt++) {
+            ReaderSketch stored = mongoTemplate.findById(id, ReaderSketch.class);
+            HyperLogLog merged = sketch.copy();
+            if (stored == null) {
+                String storyId = id.substring(0, id.lastIndexOf(':'));
+                String bucket = id.substring(id.lastIndexOf(':') + 1);
+                try {
+                    mongoTemplate.insert(new ReaderSketch(id, storyId, ALL_TIME.equals(bucket) ? null : bucket,
+                            merged.toBytes()));
+                    return;
+                } catch (DuplicateKeyException e) {
+                    continue;
+                }
+            }
+
+            HyperLogLog existing = decode(stored);
+            if (existing != null && existing.getPrecision() == precision) {
+                merged.merge(existing);
+            } else if (existing != null) {
+                System.out.println("[Readers] Restarting sketch " + id + " at precision " + precision);
+            }
+            UpdateResult result = mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(id).and("version").is(stored.getVersion())),
+                    new Update().set("registers", merged.toBytes()).set("updatedAt", Instant.now()).inc("version", 1),
+                    ReaderSketch.class);
+            if (result.getModifiedCount() > 0) {
+                return;
+            }
+        }
+        throw new IllegalStateException("Sketch " + id + " kept changing underneath");
+    }
+
+    private static HyperLogLog decode(ReaderSketch stored) {
+        try {
+            return HyperLogLog.fromBytes(stored.getRegisters());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String sketchId(String storyId, String bucket) {
+        return storyId + ":" + bucket;
+    }
+
+    private static LocalDate today() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,119 @@
+package com.ghostwriter.interaction;
+
+import com.ghostwriter.story.Story;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind buffer for story view counts. Views are added to an in-memory
+ * counter per story and written out periodically as one bulk of {@code $inc}
+ * updates, so a popular story costs one small update per flush rather than
+ * one document write per reader. Pending views are flushed on shutdown; a
+ * crash loses at most one interval's worth.
+ */
+@Component
+public class ViewCounterBuffer {
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher events;
+    private final ConcurrentHashMap<String, LongAdder> pending = new ConcurrentHashMap<>();
+    // Deltas taken out of the counters but not yet written, still counted by pending()
+    private volatile Map<String, Long> inFlight = Collections.emptyMap();
+
+    public ViewCounterBuffer(MongoTemplate mongoTemplate, ApplicationEventPublisher events) {
+        this.mongoTemplate = mongoTemplate;
+        this.events = events;
+    }
+
+    public void increment(String storyId) {
+        pending.computeIfAbsent(storyId, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Views recorded for a story but not yet in its stored viewCount.
+     */
+    public long pending(String storyId) {
+        LongAdder adder = pending.get(storyId);
+        return (adder != null ? adder.sum() : 0) + inFlight.getOrDefault(storyId, 0L);
+    }
+
+    @Scheduled(initialDelayString = "${views.flush-ms:5000}", fixedDelayString = "${views.flush-ms:5000}")
+    public synchronized void flush() {
+        Map<String, Long> deltas = new ConcurrentHashMap<>();
+        for (Map.Entry<String, LongAdder> entry : pending.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta != 0) {
+                deltas.put(entry.getKey(), delta);
+            } else if (pending.remove(entry.getKey(), entry.getValue())) {
+                // Idle since the last flush; keep anything that raced the removal
+                long late = entry.getValue().sumThenReset();
+                if (late != 0) {
+                    add(entry.getKey(), late);
+                }
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        inFlight = deltas;
+        List<String> storyIds = new ArrayList<>(deltas.keySet());
+        Map<String, Long> applied = new HashMap<>(deltas);
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Story.class);
+            for (String storyId : storyIds) {
+                bulk.updateOne(Query.query(Criteria.where("_id").is(storyId)),
+                        new Update().inc("viewCount", deltas.get(storyId)));
+            }
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            // Only the failed updates are retried; the rest were applied
+            e.getErrors().forEach(error -> {
+                String storyId = storyIds.get(error.getIndex());
+                add(storyId, deltas.get(storyId));
+                applied.remove(storyId);
+            });
+            System.err.println("[Views] Flush: " + e.getErrors().size() + " of " + storyIds.size()
+                    + " updates failed, retrying next flush");
+        } catch (RuntimeException e) {
+            deltas.forEach(this::add);
+            applied.clear();
+            System.err.println("[Views] Flush FAILED: " + e.getClass().getSimpleName() + " — " + e.getMessage());
+        } finally {
+            inFlight = Collections.emptyMap();
+        }
+        if (!applied.isEmpty()) {
+            try {
+                events.publishEvent(EngagementEvent.views(applied));
+            } catch (RuntimeException e) {
+                // Listeners may already be gone during the shutdown flush
+                System.err.println("[Views] Could not publish flushed views: " + e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void onShutdown() {
+        flush();
+    }
+
+    private void add(String storyId, long delta) {
+        pending.computeIfAbsent(storyId, k -> new LongAdder()).add(delta);
+    }
+}
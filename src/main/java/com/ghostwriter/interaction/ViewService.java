@@ -1,44 +1,105 @@
 package com.ghostwriter.interaction;
 
 import com.ghostwriter.story.Story;
-import com.ghostwriter.story.StoryRepository;
+import com.mongodb.client.result.UpdateResult;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
+import java.time.Instant;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class ViewService {
 
-    private final StoryViewRepository viewRepository;
-    private final StoryRepository storyRepository;
+    private static final long SHUTDOWN_WAIT_SECONDS = 10;
 
-    public ViewService(StoryViewRepository viewRepository, StoryRepository storyRepository) {
-        this.viewRepository = viewRepository;
-        this.storyRepository = storyRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ViewCounterBuffer viewCounters;
+    private final UniqueReaderCounter uniqueReaders;
+    private final ThreadPoolExecutor recorders;
+
+    public ViewService(MongoTemplate mongoTemplate, ViewCounterBuffer viewCounters,
+            UniqueReaderCounter uniqueReaders,
+            @Value("${views.record-threads:2}") int threads,
+            @Value("${views.record-queue:10000}") int queueSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.viewCounters = viewCounters;
+        this.uniqueReaders = uniqueReaders;
+        AtomicInteger count = new AtomicInteger();
+        // When the queue is full the request thread records its own view,
+        // which slows a flood down instead of growing the queue without bound
+        this.recorders = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), r -> {
+                    Thread thread = new Thread(r, "view-recorder-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
     }
 
     /**
-     * Record a view. Only one view per user per story.
+     * Record a view. Only one view per user per story; anonymous views are
+     * only counted. Runs in the background, so the reader never waits on
+     * the per-user check, and the story's counter is updated in batches by
+     * {@link ViewCounterBuffer}. Every view, anonymous or not, is offered to
+     * the unique-reader sketches under {@code readerKey}.
      */
-    public void recordView(String storyId, String userId) {
-        if (userId != null && !userId.isBlank()) {
-            if (viewRepository.existsByStoryIdAndUserId(storyId, userId)) {
-                return; // Already viewed
+    public void recordView(String storyId, String userId, String readerKey) {
+        recorders.execute(() -> record(storyId, userId, readerKey));
+    }
+
+    private void record(String storyId, String userId, String readerKey) {
+        try {
+            uniqueReaders.offer(storyId, readerKey);
+            if (userId != null && !userId.isBlank()) {
+                Query query = Query.query(Criteria.where("storyId").is(storyId).and("userId").is(userId));
+                UpdateResult result = mongoTemplate.upsert(query,
+                        new Update().setOnInsert("viewedAt", Instant.now()), StoryView.class);
+                if (result.getUpsertedId() == null) {
+                    return; // Already viewed
+                }
             }
-            viewRepository.save(new StoryView(storyId, userId));
-        } else {
-            // Anonymous view — record with null userId
-            viewRepository.save(new StoryView(storyId, null));
+            viewCounters.increment(storyId);
+        } catch (DuplicateKeyException e) {
+            // A concurrent first view by the same user inserted first
+        } catch (RuntimeException e) {
+            System.err.println("[Views] Could not record view of " + storyId + ": " + e.getMessage());
         }
-
-        Optional<Story> storyOpt = storyRepository.findById(storyId);
-        storyOpt.ifPresent(story -> {
-            story.setViewCount(story.getViewCount() + 1);
-            storyRepository.save(story);
-        });
     }
 
+    /**
+     * The stored view count plus views not yet flushed.
+     */
     public long getViewCount(String storyId) {
-        return viewRepository.countByStoryId(storyId);
+        Query query = Query.query(Criteria.where("_id").is(storyId));
+        query.fields().include("viewCount");
+        Story story = mongoTemplate.findOne(query, Story.class);
+        return (story != null ? story.getViewCount() : 0) + viewCounters.pending(storyId);
+    }
+
+    /**
+     * Record the views still queued before shutting down. This bean depends
+     * on {@link ViewCounterBuffer}, so it is destroyed first and the buffer's
+     * final flush sees these views too.
+     */
+    @PreDestroy
+    public void shutdown() {
+        recorders.shutdown();
+        try {
+            if (!recorders.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                System.err.println("[Views] " + recorders.getQueue().size()
+                        + " views still queued at shutdown were dropped");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 }
@@ -0,0 +1,82 @@
+package com.ghostwriter.media;
+
+import com.ghostwriter.user.CurrentUser;
+import com.ghostwriter.user.User;
+import org.springframework.core.io.Resource;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+public class CoverController {
+
+    private final CoverService coverService;
+    private final CoverStore coverStore;
+
+    public CoverController(CoverService coverService, CoverStore coverStore) {
+        this.coverService = coverService;
+        this.coverStore = coverStore;
+    }
+
+    /**
+     * Upload a cover image for a story.
+     */
+    @PostMapping("/api/stories/{id}/cover")
+    public ResponseEntity<?> uploadCover(@PathVariable String id,
+            @RequestParam("file") MultipartFile file,
+            @CurrentUser User user) {
+        if (user == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Please upload an image"));
+        }
+
+        try {
+            String reference = coverService.uploadCover(id, user.getId(), file.getBytes());
+            String hash = CoverStore.hashOf(reference);
+            return ResponseEntity.ok(Map.of(
+                    "coverImage", reference,
+                    "coverUrl", CoverStore.url(hash, CoverStore.FEED),
+                    "coverDetailUrl", CoverStore.url(hash, CoverStore.DETAIL)));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Could not read upload"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Serve a stored cover variant (public). The bytes behind a URL never
+     * change, so responses are cacheable forever; a variant that is still
+     * being generated is stood in for by the original, briefly cached.
+     */
+    @GetMapping("/media/covers/{hash}/{variant}")
+    public ResponseEntity<Resource> getCover(@PathVariable String hash, @PathVariable String variant) {
+        Optional<GridFsResource> file = coverStore.find(hash, variant);
+        CacheControl cache = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+        if (file.isEmpty()) {
+            file = coverStore.find(hash, CoverStore.ORIGINAL);
+            cache = CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic();
+        }
+        if (file.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        GridFsResource resource = file.get();
+        MediaType type = MediaType.parseMediaType(resource.getContentType());
+        // Resource bodies get Range request support from Spring MVC
+        return ResponseEntity.ok()
+                .contentType(type)
+                .cacheControl(cache)
+                .body(resource);
+    }
+}
@@ -0,0 +1,131 @@
+package com.ghostwriter.media;
+
+import com.ghostwriter.story.Story;
+import com.ghostwriter.story.StoryCard;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Moves inline data-URL covers out of story documents and into the cover
+ * store, leaving a short reference behind. A story's inline copy is only
+ * replaced once the stored original can be read back. Covers that earlier
+ * versions kept on the local disk are copied into the store as well. Runs
+ * once in the background after startup; stories keep their updatedAt so
+ * feed order is unaffected.
+ */
+@Component
+public class CoverMigrationJob {
+
+    private final MongoTemplate mongoTemplate;
+    private final CoverService coverService;
+    private final CoverStore coverStore;
+
+    @Value("${media.covers.migrate:true}")
+    private boolean enabled;
+
+    @Value("${media.covers.legacy-dir:./data/covers}")
+    private String legacyDir;
+
+    public CoverMigrationJob(MongoTemplate mongoTemplate, CoverService coverService, CoverStore coverStore) {
+        this.mongoTemplate = mongoTemplate;
+        this.coverService = coverService;
+        this.coverStore = coverStore;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        run();
+    }
+
+    public void run() {
+        importLegacyFiles();
+
+        Query inline = Query.query(Criteria.where("coverImage").regex("^data:"));
+        inline.fields().include("coverImage");
+
+        int moved = 0;
+        int failed = 0;
+        try (Stream<Story> stream = mongoTemplate.stream(inline, Story.class)) {
+            Iterator<Story> stories = stream.iterator();
+            while (stories.hasNext()) {
+                Story story = stories.next();
+                try {
+                    String reference = coverService.importCover(story.getCoverImage());
+                    if (coverStore.find(CoverStore.hashOf(reference), CoverStore.ORIGINAL).isEmpty()) {
+                        failed++;
+                        continue;
+                    }
+                    mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(story.getId())),
+                            new Update()
+                                    .set("coverImage", reference)
+                                    .set("coverUrl", StoryCard.coverUrlOf(story.getId(), reference)),
+                            Story.class);
+                    moved++;
+                } catch (RuntimeException e) {
+                    // Unreadable images stay inline and keep being served by the legacy endpoint
+                    failed++;
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("[Covers] Migration FAILED: " + e.getClass().getSimpleName() + " — " + e.getMessage());
+        }
+
+        if (moved > 0 || failed > 0) {
+            System.out.println("[Covers] Moved " + moved + " inline covers to the store, " + failed + " left inline");
+        }
+    }
+
+    // Originals under <legacyDir>/<hash>/original.<ext>; variants are regenerated
+    private void importLegacyFiles() {
+        Path root = Paths.get(legacyDir).toAbsolutePath().normalize();
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        int imported = 0;
+        try (Stream<Path> dirs = Files.list(root)) {
+            Iterator<Path> it = dirs.iterator();
+            while (it.hasNext()) {
+                Path dir = it.next();
+                String hash = dir.getFileName().toString();
+                if (!CoverStore.isHash(hash) || coverStore.find(hash, CoverStore.ORIGINAL).isPresent()) {
+                    continue;
+                }
+                try (Stream<Path> files = Files.list(dir)) {
+                    Optional<Path> original = files
+                            .filter(f -> f.getFileName().toString().startsWith(CoverStore.ORIGINAL + "."))
+                            .findFirst();
+                    if (original.isPresent()) {
+                        coverService.store(Files.readAllBytes(original.get()));
+                        imported++;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("[Covers] Could not import " + dir + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[Covers] Could not list " + root + ": " + e.getMessage());
+        }
+        if (imported > 0) {
+            System.out.println("[Covers] Imported " + imported + " covers from " + root);
+        }
+    }
+}
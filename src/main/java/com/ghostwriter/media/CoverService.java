@@ -0,0 +1,75 @@
+package com.ghostwriter.media;
+
+import com.ghostwriter.story.Story;
+import com.ghostwriter.story.StoryCard;
+import com.ghostwriter.story.StoryChangedEvent;
+import com.ghostwriter.story.StoryRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+@Service
+public class CoverService {
+
+    private final CoverStore coverStore;
+    private final CoverVariants coverVariants;
+    private final StoryRepository storyRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher events;
+
+    public CoverService(CoverStore coverStore, CoverVariants coverVariants, StoryRepository storyRepository,
+            MongoTemplate mongoTemplate, ApplicationEventPublisher events) {
+        this.coverStore = coverStore;
+        this.coverVariants = coverVariants;
+        this.storyRepository = storyRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.events = events;
+    }
+
+    /**
+     * Store an uploaded image as a story's cover. Returns the story's new
+     * {@code coverImage} reference.
+     */
+    public String uploadCover(String storyId, String userId, byte[] bytes) {
+        if (!storyRepository.existsByIdAndUserId(storyId, userId)) {
+            throw new RuntimeException("Not authorized to edit this story");
+        }
+        String reference = store(bytes);
+        setCover(storyId, reference);
+        events.publishEvent(new StoryChangedEvent(storyId));
+        return reference;
+    }
+
+    /**
+     * Move an inline data-URL cover into the store and return its
+     * reference; any other value is returned unchanged.
+     *
+     * @throws IllegalArgumentException if the data URL is not a readable image
+     */
+    public String importCover(String coverImage) {
+        if (coverImage == null || !coverImage.startsWith("data:")) {
+            return coverImage;
+        }
+        return store(CoverStore.decodeDataUrl(coverImage));
+    }
+
+    void setCover(String storyId, String reference) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(storyId)),
+                new Update()
+                        .set("coverImage", reference)
+                        .set("coverUrl", StoryCard.coverUrlOf(storyId, reference))
+                        .set("updatedAt", Instant.now()),
+                Story.class);
+    }
+
+    String store(byte[] bytes) {
+        String hash = coverStore.store(bytes);
+        coverVariants.generate(hash);
+        return CoverStore.reference(hash);
+    }
+}
@@ -0,0 +1,185 @@
+package com.ghostwriter.media;
+
+import com.mongodb.client.gridfs.model.GridFSFile;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Content-addressed store for cover images, kept in MongoDB GridFS so every
+ * instance sees the same files and they survive a redeploy. Each image is
+ * stored under the SHA-256 of its bytes, next to its resized variants, so a
+ * given URL always serves the same bytes and the same upload is only ever
+ * stored once. Stories refer to a cover with a short {@code cover:<hash>}
+ * reference.
+ */
+@Component
+public class CoverStore {
+
+    public static final String ORIGINAL = "original";
+    public static final String FEED = "feed";
+    public static final String DETAIL = "detail";
+    // Largest image accepted, in pixels; decoding costs four bytes per pixel
+    static final long MAX_PIXELS = 25_000_000L;
+
+    private static final String REFERENCE_PREFIX = "cover:";
+    private static final Set<String> VARIANTS = Set.of(ORIGINAL, FEED, DETAIL);
+
+    private final GridFsTemplate gridFsTemplate;
+
+    public CoverStore(GridFsTemplate gridFsTemplate) {
+        this.gridFsTemplate = gridFsTemplate;
+    }
+
+    /**
+     * Store an uploaded image and return its hash. Variants are generated
+     * separately, see {@link CoverVariants}.
+     *
+     * @throws IllegalArgumentException if the bytes are not an image ImageIO can read
+     */
+    public String store(byte[] bytes) {
+        String format = formatOf(bytes);
+        String hash = sha256(bytes);
+        if (find(hash, ORIGINAL).isEmpty()) {
+            write(hash, ORIGINAL, "image/" + format, bytes);
+        }
+        return hash;
+    }
+
+    /**
+     * A variant of a stored cover, if it exists yet.
+     */
+    public Optional<GridFsResource> find(String hash, String variant) {
+        if (!isHash(hash) || !VARIANTS.contains(variant)) {
+            return Optional.empty();
+        }
+        // Two instances storing the same upload at once may both write it;
+        // the copies are identical, so any one will do
+        GridFSFile file = gridFsTemplate.findOne(Query.query(Criteria.where("filename").is(filename(hash, variant))));
+        return file != null ? Optional.of(gridFsTemplate.getResource(file)) : Optional.empty();
+    }
+
+    /**
+     * Store a variant's bytes next to the original.
+     */
+    void writeVariant(String hash, String variant, String contentType, byte[] bytes) {
+        write(hash, variant, contentType, bytes);
+    }
+
+    private void write(String hash, String variant, String contentType, byte[] bytes) {
+        Document metadata = new Document("hash", hash).append("variant", variant);
+        gridFsTemplate.store(new ByteArrayInputStream(bytes), filename(hash, variant), contentType, metadata);
+    }
+
+    private static String filename(String hash, String variant) {
+        return "covers/" + hash + "/" + variant;
+    }
+
+    public static String reference(String hash) {
+        return REFERENCE_PREFIX + hash;
+    }
+
+    /**
+     * The hash inside a {@code cover:} reference, or null if the value is
+     * something else (an external URL, a data URL, nothing).
+     */
+    public static String hashOf(String coverImage) {
+        if (coverImage == null || !coverImage.startsWith(REFERENCE_PREFIX)) {
+            return null;
+        }
+        String hash = coverImage.substring(REFERENCE_PREFIX.length());
+        return isHash(hash) ? hash : null;
+    }
+
+    public static String url(String hash, String variant) {
+        return "/media/covers/" + hash + "/" + variant;
+    }
+
+    /**
+     * Decode the payload of a {@code data:} URL.
+     *
+     * @throws IllegalArgumentException if the value is not a well-formed data URL
+     */
+    public static byte[] decodeDataUrl(String dataUrl) {
+        int comma = dataUrl != null && dataUrl.startsWith("data:") ? dataUrl.indexOf(',') : -1;
+        if (comma < 0) {
+            throw new IllegalArgumentException("Not a data URL");
+        }
+        String meta = dataUrl.substring(5, comma);
+        String payload = dataUrl.substring(comma + 1);
+        return meta.endsWith(";base64")
+                ? Base64.getMimeDecoder().decode(payload)
+                : URLDecoder.decode(payload, StandardCharsets.UTF_8).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The ImageIO format name of an image, lower-cased ("png", "jpeg", ...).
+     * Only the header is read, which is enough to check the dimensions.
+     *
+     * @throws IllegalArgumentException if ImageIO cannot read it, or it has
+     *         more than {@link #MAX_PIXELS} pixels
+     */
+    static String formatOf(byte[] bytes) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            ImageReader reader = readerFor(in);
+            try {
+                return reader.getFormatName().toLowerCase();
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unreadable image", e);
+        }
+    }
+
+    /**
+     * A reader positioned on the image in {@code in}, after checking its
+     * declared size against {@link #MAX_PIXELS}. The caller disposes of it.
+     *
+     * @throws IllegalArgumentException if no reader fits or the image is too large
+     */
+    static ImageReader readerFor(ImageInputStream in) throws IOException {
+        Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+        if (readers == null || !readers.hasNext()) {
+            throw new IllegalArgumentException("Unsupported image format");
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(in, true, true);
+        long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+        if (pixels > MAX_PIXELS) {
+            reader.dispose();
+            throw new IllegalArgumentException("Image is too large");
+        }
+        return reader;
+    }
+
+    static boolean isHash(String hash) {
+        return hash != null && hash.length() == 64 && hash.chars().allMatch(c -> (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'));
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.ghostwriter.media;
+
+import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Produces the resized JPEG variants of a stored cover: a small one for feed
+ * cards and a larger one for the story page. Runs in the background after an
+ * upload; until a variant exists the original is served in its place.
+ */
+@Component
+public class CoverVariants {
+
+    private static final int FEED_WIDTH = 480;
+    private static final int DETAIL_WIDTH = 1280;
+
+    private final CoverStore coverStore;
+
+    public CoverVariants(CoverStore coverStore) {
+        this.coverStore = coverStore;
+    }
+
+    @Async
+    public void generate(String hash) {
+        try {
+            Optional<GridFsResource> original = coverStore.find(hash, CoverStore.ORIGINAL);
+            if (original.isEmpty()) {
+                return;
+            }
+            BufferedImage image = read(original.get());
+            if (coverStore.find(hash, CoverStore.FEED).isEmpty()) {
+                coverStore.writeVariant(hash, CoverStore.FEED, "image/jpeg", jpeg(image, FEED_WIDTH));
+            }
+            if (coverStore.find(hash, CoverStore.DETAIL).isEmpty()) {
+                coverStore.writeVariant(hash, CoverStore.DETAIL, "image/jpeg", jpeg(image, DETAIL_WIDTH));
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[Covers] Variants for " + hash + " failed: " + e.getMessage());
+        }
+    }
+
+    // The size is checked before any pixels are allocated, and large images
+    // are subsampled while decoding since only scaled-down copies are made
+    private static BufferedImage read(GridFsResource file) throws IOException {
+        try (InputStream stream = file.getInputStream();
+             ImageInputStream in = ImageIO.createImageInputStream(stream)) {
+            ImageReader reader = CoverStore.readerFor(in);
+            try {
+                int step = Math.max(1, reader.getWidth(0) / (2 * DETAIL_WIDTH));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Scale down to maxWidth (never up) onto an opaque background and encode as JPEG
+    private static byte[] jpeg(BufferedImage source, int maxWidth) throws IOException {
+        int width = Math.min(maxWidth, source.getWidth());
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(scaled, "jpg", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,51 @@
+package com.ghostwriter.model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * ETag and Last-Modified for one representation, worked out from a small
+ * projection so that a matching conditional request can be answered with
+ * 304 before the full document is loaded.
+ */
+public class CacheValidator {
+
+    private final String etag;
+    private final Instant lastModified;
+
+    public CacheValidator(String etag, Instant lastModified) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * A strong validator whose ETag is a digest of the given parts; any
+     * part changing changes the tag.
+     */
+    public static CacheValidator of(Instant lastModified, Object... parts) {
+        StringBuilder key = new StringBuilder();
+        for (Object part : parts) {
+            key.append(part).append('|');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.toString().getBytes(StandardCharsets.UTF_8));
+            return new CacheValidator("\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"", lastModified);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * Last-Modified in epoch milliseconds, or -1 if unknown.
+     */
+    public long getLastModifiedMillis() {
+        return lastModified != null ? lastModified.toEpochMilli() : -1;
+    }
+}
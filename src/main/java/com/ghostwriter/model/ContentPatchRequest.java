@@ -0,0 +1,97 @@
+package com.ghostwriter.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A set of text edits against a known version of a document. Deltas are
+ * applied in order, each offset referring to the text as left by the
+ * previous delta, so a client can replay its edit log as-is.
+ */
+public class ContentPatchRequest {
+
+    private long version;
+    private List<Delta> deltas = new ArrayList<>();
+
+    public ContentPatchRequest() {
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public List<Delta> getDeltas() {
+        return deltas;
+    }
+
+    public void setDeltas(List<Delta> deltas) {
+        this.deltas = deltas;
+    }
+
+    /**
+     * Apply all deltas to the given text.
+     *
+     * @throws IllegalArgumentException if a delta falls outside the text
+     */
+    public String applyTo(String text) {
+        StringBuilder sb = new StringBuilder(text != null ? text : "");
+        if (deltas == null) {
+            return sb.toString();
+        }
+        for (Delta delta : deltas) {
+            int offset = delta.getOffset();
+            int deleteLength = delta.getDeleteLength();
+            if (offset < 0 || deleteLength < 0 || offset > sb.length() - deleteLength) {
+                throw new IllegalArgumentException("Delta out of range: offset " + offset
+                        + ", delete " + deleteLength + ", length " + sb.length());
+            }
+            String insert = delta.getInsert() != null ? delta.getInsert() : "";
+            sb.replace(offset, offset + deleteLength, insert);
+        }
+        return sb.toString();
+    }
+
+    // ─── Delta inner class ───
+    public static class Delta {
+        private int offset;
+        private int deleteLength;
+        private String insert;
+
+        public Delta() {
+        }
+
+        public Delta(int offset, int deleteLength, String insert) {
+            this.offset = offset;
+            this.deleteLength = deleteLength;
+            this.insert = insert;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        public void setOffset(int offset) {
+            this.offset = offset;
+        }
+
+        public int getDeleteLength() {
+            return deleteLength;
+        }
+
+        public void setDeleteLength(int deleteLength) {
+            this.deleteLength = deleteLength;
+        }
+
+        public String getInsert() {
+            return insert;
+        }
+
+        public void setInsert(String insert) {
+            this.insert = insert;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.ghostwriter.model;
+
+import java.util.List;
+
+/**
+ * One page of a list read in keyset order. {@code nextCursor} is passed back
+ * to fetch the following page and is null on the last page.
+ */
+public class CursorPage<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
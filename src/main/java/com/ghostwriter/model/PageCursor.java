@@ -0,0 +1,50 @@
+package com.ghostwriter.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position in a list sorted by {@code updatedAt} then id, both descending.
+ * Clients only ever see the opaque encoded form.
+ */
+public final class PageCursor {
+
+    private final Instant updatedAt;
+    private final String id;
+
+    public PageCursor(Instant updatedAt, String id) {
+        this.updatedAt = updatedAt;
+        this.id = id;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = updatedAt.toEpochMilli() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode()}
+     */
+    public static PageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int colon = raw.indexOf(':');
+            if (colon <= 0 || colon == raw.length() - 1) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+            Instant updatedAt = Instant.ofEpochMilli(Long.parseLong(raw.substring(0, colon)));
+            return new PageCursor(updatedAt, raw.substring(colon + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+}
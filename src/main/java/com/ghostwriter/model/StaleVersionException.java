@@ -0,0 +1,19 @@
+package com.ghostwriter.model;
+
+/**
+ * Thrown when a write was made against a document version that is no longer
+ * current. Carries the version the client should re-sync from.
+ */
+public class StaleVersionException extends RuntimeException {
+
+    private final long currentVersion;
+
+    public StaleVersionException(long currentVersion) {
+        super("Document has changed (current version " + currentVersion + ")");
+        this.currentVersion = currentVersion;
+    }
+
+    public long getCurrentVersion() {
+        return currentVersion;
+    }
+}
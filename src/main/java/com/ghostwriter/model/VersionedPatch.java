@@ -0,0 +1,61 @@
+package com.ghostwriter.model;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * The version check and conditional write shared by content patches. The
+ * caller loads the document (and checks who may edit it); the write then
+ * only lands if nobody else wrote in between.
+ */
+public final class VersionedPatch {
+
+    private VersionedPatch() {
+    }
+
+    /**
+     * Write the update, bumping the version, to the document with the given
+     * id provided it is still at the version the patch was made against.
+     * Returns the updated document without its content.
+     *
+     * @param currentVersion the version of the document as loaded
+     * @throws StaleVersionException if the patch was made against another
+     *                               version, or another write got in first
+     */
+    public static <T> T apply(MongoTemplate mongoTemplate, Class<T> type, String id,
+                              long currentVersion, ContentPatchRequest patch, Update update) {
+        if (currentVersion != patch.getVersion()) {
+            throw new StaleVersionException(currentVersion);
+        }
+        Query query = Query.query(Criteria.where("_id").is(id)
+                .andOperator(versionIs(patch.getVersion())));
+        query.fields().exclude("content");
+
+        T updated = mongoTemplate.findAndModify(query, update.inc("version", 1),
+                FindAndModifyOptions.options().returnNew(true), type);
+        if (updated == null) {
+            // Someone else wrote in between the read and the update
+            Query current = Query.query(Criteria.where("_id").is(id));
+            current.fields().include("version");
+            Document latest = mongoTemplate.findOne(current, Document.class,
+                    mongoTemplate.getCollectionName(type));
+            throw new StaleVersionException(latest != null && latest.get("version") instanceof Number
+                    ? ((Number) latest.get("version")).longValue() : 0);
+        }
+        return updated;
+    }
+
+    // Documents written before versioning have no version field; treat them as 0
+    private static Criteria versionIs(long version) {
+        if (version == 0) {
+            return new Criteria().orOperator(
+                    Criteria.where("version").is(0L),
+                    Criteria.where("version").exists(false));
+        }
+        return Criteria.where("version").is(version);
+    }
+}
@@ -0,0 +1,359 @@
+package com.ghostwriter.moderation;
+
+import com.ghostwriter.chapter.Chapter;
+import com.ghostwriter.chapter.ContentHash;
+import com.ghostwriter.story.Story;
+import com.ghostwriter.story.StoryChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Finds published stories that share substantial passages with a story
+ * being submitted. Every published story's {@link Winnowing} fingerprints
+ * are kept in an in-memory {@link PostingIndex}, so a check costs one
+ * lookup per fingerprint of the submitted story, however large the
+ * catalog. Stories are re-fingerprinted shortly after they change, reusing
+ * the stored fingerprints of unchanged chapters; each instance keeps its
+ * index current by reading {@code story_fingerprints} entries changed since
+ * its last sync.
+ */
+@Service
+public class DuplicateDetector {
+
+    // Re-read a little before the last sync, in case another instance's clock lags
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final MongoTemplate mongoTemplate;
+    private final int k;
+    private final int window;
+    private final int minShared;
+    private final double minOverlap;
+    private final int batchSize;
+    private final String params;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final PostingIndex index = new PostingIndex();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<IndexedStory> stories = new ArrayList<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private Instant lastSync = Instant.EPOCH;
+
+    public DuplicateDetector(MongoTemplate mongoTemplate,
+            @Value("${fingerprints.k:6}") int k,
+            @Value("${fingerprints.window:5}") int window,
+            @Value("${fingerprints.min-shared:20}") int minShared,
+            @Value("${fingerprints.min-overlap:0.25}") double minOverlap,
+            @Value("${fingerprints.batch-size:50}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.k = k;
+        this.window = window;
+        this.minShared = minShared;
+        this.minOverlap = minOverlap;
+        this.batchSize = batchSize;
+        this.params = k + ":" + window;
+    }
+
+    /**
+     * Reject the story if another author's published story shares at least
+     * {@code min-shared} fingerprints with it, making up at least
+     * {@code min-overlap} of the smaller of the two.
+     */
+    public ModerationResult check(Story story) {
+        // Drafts are fingerprinted in memory; only published text is stored
+        long[] fingerprints = fingerprint(story.getId(), story.getContent(), false);
+        if (fingerprints.length == 0) {
+            return new ModerationResult(true, null);
+        }
+
+        Map<Integer, Integer> shared = new HashMap<>();
+        IndexedStory match = null;
+        int matchShared = 0;
+        lock.readLock().lock();
+        try {
+            for (long fingerprint : fingerprints) {
+                index.forEach(fingerprint, ordinal -> shared.merge(ordinal, 1, Integer::sum));
+            }
+            for (Map.Entry<Integer, Integer> entry : shared.entrySet()) {
+                IndexedStory other = stories.get(entry.getKey());
+                if (other.id.equals(story.getId()) || other.userId.equals(story.getUserId())) {
+                    continue;
+                }
+                int count = entry.getValue();
+                int smaller = Math.min(fingerprints.length, other.hashes.length);
+                if (count >= minShared && count >= minOverlap * smaller && count > matchShared) {
+                    match = other;
+                    matchShared = count;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (match == null) {
+            return new ModerationResult(true, null);
+        }
+        return new ModerationResult(false, "Content closely matches the published story \""
+                + match.title + "\"");
+    }
+
+    @EventListener
+    public void onStoryChanged(StoryChangedEvent event) {
+        // Remote changes are indexed by their own instance and arrive through sync()
+        if (!event.isRemote()) {
+            dirty.add(event.getStoryId());
+        }
+    }
+
+    /**
+     * Load the index, and queue published stories that have no
+     * fingerprints yet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            // Entries stored before they expired have no usedAt; start their clock now
+            mongoTemplate.updateMulti(Query.query(Criteria.where("usedAt").exists(false)),
+                    new Update().set("usedAt", Instant.now()), TextFingerprints.class);
+            sync();
+            Query published = Query.query(Criteria.where("status").is("published"));
+            published.fields().include("_id");
+            int queued = 0;
+            try (Stream<Story> ids = mongoTemplate.stream(published, Story.class)) {
+                for (Story story : (Iterable<Story>) ids::iterator) {
+                    if (!isIndexed(story.getId())) {
+                        dirty.add(story.getId());
+                        queued++;
+                    }
+                }
+            }
+            System.out.println("[Fingerprints] Loaded " + stories.size() + " stories, " + index.size()
+                    + " fingerprints; " + queued + " queued for indexing");
+        } catch (RuntimeException e) {
+            System.err.println("[Fingerprints] Startup load FAILED: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Re-fingerprint up to {@code batch-size} stories that changed, then
+     * pull in changes made by any instance. A large backlog, such as the
+     * whole catalog on first deploy, is worked off over several ticks so
+     * other scheduled jobs keep running in between.
+     */
+    @Scheduled(initialDelayString = "${fingerprints.refresh-ms:10000}",
+            fixedDelayString = "${fingerprints.refresh-ms:10000}")
+    public synchronized void refresh() {
+        List<String> batch = dirty.stream().limit(batchSize).toList();
+        for (String storyId : batch) {
+            dirty.remove(storyId);
+            try {
+                reindex(storyId);
+            } catch (RuntimeException e) {
+                dirty.add(storyId);
+                System.err.println("[Fingerprints] Could not index story " + storyId + ": " + e.getMessage());
+            }
+        }
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            System.err.println("[Fingerprints] Sync FAILED: " + e.getMessage());
+        }
+    }
+
+    private void reindex(String storyId) {
+        Query query = Query.query(Criteria.where("_id").is(storyId));
+        query.fields().include("status", "userId", "title", "content");
+        Story story = mongoTemplate.findOne(query, Story.class);
+        if (story != null && "published".equals(story.getStatus())) {
+            Update update = new Update()
+                    .set("userId", story.getUserId())
+                    .set("title", story.getTitle())
+                    .set("params", params)
+                    .set("hashes", fingerprint(storyId, story.getContent(), true))
+                    .set("removed", false)
+                    .set("updatedAt", Instant.now());
+            mongoTemplate.upsert(query, update, StoryFingerprints.class);
+        } else {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(storyId).and("removed").ne(true)),
+                    new Update().set("removed", true).set("hashes", new long[0]).set("updatedAt", Instant.now()),
+                    StoryFingerprints.class);
+        }
+    }
+
+    private void sync() {
+        Instant since = lastSync.equals(Instant.EPOCH) ? lastSync : lastSync.minus(SYNC_OVERLAP);
+        Query query = Query.query(Criteria.where("updatedAt").gte(since)).with(Sort.by("updatedAt"));
+        try (Stream<StoryFingerprints> changed = mongoTemplate.stream(query, StoryFingerprints.class)) {
+            for (StoryFingerprints entry : (Iterable<StoryFingerprints>) changed::iterator) {
+                apply(entry);
+                if (entry.getUpdatedAt() != null && entry.getUpdatedAt().isAfter(lastSync)) {
+                    lastSync = entry.getUpdatedAt();
+                }
+            }
+        }
+    }
+
+    private void apply(StoryFingerprints entry) {
+        boolean current = !entry.isRemoved() && params.equals(entry.getParams()) && entry.getHashes() != null;
+        if (!entry.isRemoved() && !current) {
+            // Computed with other settings
+            dirty.add(entry.getId());
+        }
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(entry.getId());
+            if (ordinal == null) {
+                if (!current) {
+                    return;
+                }
+                ordinal = stories.size();
+                ordinals.put(entry.getId(), ordinal);
+                stories.add(new IndexedStory(entry.getId()));
+            }
+            IndexedStory story = stories.get(ordinal);
+            for (long hash : story.hashes) {
+                index.remove(hash, ordinal);
+            }
+            story.userId = entry.getUserId() != null ? entry.getUserId() : "";
+            story.title = entry.getTitle();
+            story.hashes = current ? entry.getHashes() : new long[0];
+            for (long hash : story.hashes) {
+                index.add(hash, ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean isIndexed(String storyId) {
+        lock.readLock().lock();
+        try {
+            return ordinals.containsKey(storyId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The fingerprints of a story's content and all its chapters, sorted
+     * and distinct. Only texts with no stored fingerprints are read and
+     * fingerprinted, and their fingerprints are stored if {@code persist}.
+     */
+    private long[] fingerprint(String storyId, String content, boolean persist) {
+        Query outline = Query.query(Criteria.where("storyId").is(storyId));
+        outline.fields().include("contentHash");
+        String contentHash = ContentHash.of(content);
+        Set<String> hashes = new LinkedHashSet<>();
+        hashes.add(contentHash);
+        boolean unhashedChapters = false;
+        for (Chapter chapter : mongoTemplate.find(outline, Chapter.class)) {
+            if (chapter.getContentHash() != null) {
+                hashes.add(chapter.getContentHash());
+            } else {
+                unhashedChapters = true;
+            }
+        }
+
+        Map<String, long[]> known = new HashMap<>();
+        List<String> ids = hashes.stream().map(this::textId).toList();
+        for (TextFingerprints text : mongoTemplate.find(Query.query(Criteria.where("_id").in(ids)),
+                TextFingerprints.class)) {
+            known.put(text.getId().substring(params.length() + 1), text.getHashes());
+        }
+        if (persist && !known.isEmpty()) {
+            // Entries expire unless a published story keeps using them
+            mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(ids)),
+                    new Update().set("usedAt", Instant.now()), TextFingerprints.class);
+        }
+
+        List<long[]> parts = new ArrayList<>();
+        if (!known.containsKey(contentHash)) {
+            known.put(contentHash, compute(contentHash, content, persist));
+        }
+        List<String> missing = hashes.stream().filter(hash -> !known.containsKey(hash)).toList();
+        if (!missing.isEmpty() || unhashedChapters) {
+            Criteria unread = new Criteria().orOperator(Criteria.where("contentHash").in(missing),
+                    Criteria.where("contentHash").is(null));
+            Query query = Query.query(Criteria.where("storyId").is(storyId).andOperator(unread));
+            query.fields().include("content", "contentHash");
+            try (Stream<Chapter> chapters = mongoTemplate.stream(query, Chapter.class)) {
+                for (Chapter chapter : (Iterable<Chapter>) chapters::iterator) {
+                    String hash = chapter.getContentHash() != null ? chapter.getContentHash()
+                            : ContentHash.of(chapter.getContent());
+                    if (!known.containsKey(hash)) {
+                        known.put(hash, compute(hash, chapter.getContent(), persist));
+                    }
+                    parts.add(known.get(hash));
+                }
+            }
+        }
+        for (String hash : hashes) {
+            if (known.containsKey(hash) && !missing.contains(hash)) {
+                parts.add(known.get(hash));
+            }
+        }
+        return union(parts);
+    }
+
+    private long[] compute(String contentHash, String text, boolean persist) {
+        long[] fingerprints = Winnowing.fingerprints(text, k, window);
+        if (persist) {
+            mongoTemplate.save(new TextFingerprints(textId(contentHash), fingerprints, Instant.now()));
+        }
+        return fingerprints;
+    }
+
+    private String textId(String contentHash) {
+        return params + ":" + contentHash;
+    }
+
+    private static long[] union(List<long[]> parts) {
+        long[] all = new long[parts.stream().mapToInt(part -> part.length).sum()];
+        int offset = 0;
+        for (long[] part : parts) {
+            System.arraycopy(part, 0, all, offset, part.length);
+            offset += part.length;
+        }
+        Arrays.sort(all);
+        int distinct = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (i == 0 || all[i] != all[i - 1]) {
+                all[distinct++] = all[i];
+            }
+        }
+        return Arrays.copyOf(all, distinct);
+    }
+
+    private static final class IndexedStory {
+
+        final String id;
+        String userId = "";
+        String title;
+        long[] hashes = new long[0];
+
+        IndexedStory(String id) {
+            this.id = id;
+        }
+    }
+}
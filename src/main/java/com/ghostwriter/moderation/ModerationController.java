@@ -1,11 +1,9 @@
 package com.ghostwriter.moderation;
 
 import com.ghostwriter.story.Story;
+import com.ghostwriter.user.CurrentUser;
 import com.ghostwriter.user.User;
-import com.ghostwriter.user.UserRepository;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -15,36 +13,45 @@ import java.util.Map;
 public class ModerationController {
 
     private final PublishingService publishingService;
-    private final UserRepository userRepository;
 
-    public ModerationController(PublishingService publishingService, UserRepository userRepository) {
+    public ModerationController(PublishingService publishingService) {
         this.publishingService = publishingService;
-        this.userRepository = userRepository;
     }
 
     /**
-     * Submit a story for publishing (goes through moderation).
+     * Submit a story for publishing. Moderation runs in the background; the
+     * story comes back as pending_review and the verdict is polled from
+     * /status/{storyId}.
      */
     @PostMapping("/publish/{storyId}")
     public ResponseEntity<?> publishStory(@PathVariable String storyId,
-            @AuthenticationPrincipal OAuth2User principal) {
-        User user = resolveUser(principal);
+            @CurrentUser User user) {
         if (user == null) {
             return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
         }
 
         try {
             Story story = publishingService.submitForPublishing(storyId, user.getId());
-            return ResponseEntity.ok(story);
+            return ResponseEntity.accepted().body(story);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
-    private User resolveUser(OAuth2User principal) {
-        if (principal == null)
-            return null;
-        String githubId = String.valueOf(principal.getAttributes().get("id"));
-        return userRepository.findByGithubId(githubId).orElse(null);
+    /**
+     * Moderation progress of one of the user's stories.
+     */
+    @GetMapping("/status/{storyId}")
+    public ResponseEntity<?> moderationStatus(@PathVariable String storyId,
+            @CurrentUser User user) {
+        if (user == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+
+        try {
+            return ResponseEntity.ok(publishingService.getModerationStatus(storyId, user.getId()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 }
@@ -0,0 +1,150 @@
+package com.ghostwriter.moderation;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * The moderation request for one story; the id is the story id, so a story
+ * is never queued twice. Resubmitting replaces the ticket, and a worker
+ * still busy with the old ticket can no longer finish the job.
+ */
+@Document(collection = "moderation_jobs")
+@CompoundIndex(name = "state_priority_enqueuedAt", def = "{'state': 1, 'priority': -1, 'enqueuedAt': 1}")
+public class ModerationJob {
+
+    public static final String QUEUED = "queued";
+    public static final String RUNNING = "running";
+    public static final String DONE = "done";
+    public static final String FAILED = "failed";
+    // The story changed or was withdrawn while it was scanned
+    public static final String DISCARDED = "discarded";
+
+    // Lanes, highest first
+    public static final int PRIORITY_RECHECK = 1;
+    public static final int PRIORITY_NORMAL = 0;
+
+    @Id
+    private String id;
+    private String userId;
+    private String state;
+    private int priority;
+    private String ticket;
+    private int attempts;
+    private Instant enqueuedAt;
+    private Instant startedAt;
+    private Instant leaseUntil;
+    private Instant finishedAt;
+    private Boolean approved;
+    private String reason;
+    private long processingMs;
+
+    public ModerationJob() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    public String getTicket() {
+        return ticket;
+    }
+
+    public void setTicket(String ticket) {
+        this.ticket = ticket;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getEnqueuedAt() {
+        return enqueuedAt;
+    }
+
+    public void setEnqueuedAt(Instant enqueuedAt) {
+        this.enqueuedAt = enqueuedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(Instant leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public Boolean getApproved() {
+        return approved;
+    }
+
+    public void setApproved(Boolean approved) {
+        this.approved = approved;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public long getProcessingMs() {
+        return processingMs;
+    }
+
+    public void setProcessingMs(long processingMs) {
+        this.processingMs = processingMs;
+    }
+}
@@ -0,0 +1,211 @@
+package com.ghostwriter.moderation;
+
+import com.ghostwriter.chapter.Chapter;
+import com.ghostwriter.chapter.ContentHash;
+import com.ghostwriter.story.Story;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Moderates a whole story: its title, content and summary, then every
+ * chapter. Text whose verdict under the current rules is already stored is
+ * not scanned again, so republishing after an edit costs about as much as
+ * the edit. The remaining chapters are streamed from the database and
+ * scanned in parallel, with only a few in memory at a time, and the first
+ * blocking verdict stops the rest. A story that passes is finally checked
+ * against other authors' published stories for copied passages.
+ */
+@Service
+public class ModerationPipeline {
+
+    private final ModerationService moderationService;
+    private final ModerationVerdictCache verdictCache;
+    private final DuplicateDetector duplicateDetector;
+    private final MongoTemplate mongoTemplate;
+    private final ExecutorService workers;
+    private final int maxInFlight;
+
+    public ModerationPipeline(ModerationService moderationService, ModerationVerdictCache verdictCache,
+            DuplicateDetector duplicateDetector, MongoTemplate mongoTemplate, @Value("${moderation.threads:0}") int threads) {
+        this.moderationService = moderationService;
+        this.verdictCache = verdictCache;
+        this.duplicateDetector = duplicateDetector;
+        this.mongoTemplate = mongoTemplate;
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger count = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(size, r -> {
+            Thread thread = new Thread(r, "moderation-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxInFlight = size * 2;
+    }
+
+    public ModerationResult moderate(Story story) {
+        // Title, content and summary go through one scanner, so limits such
+        // as the URL count apply to the three together; their verdict is
+        // stored under a hash of all three, computed here rather than trusted
+        String storyHash = ContentHash.of(story.getTitle() + "\u0000" + story.getContent() + "\u0000"
+                + story.getSummary());
+        ModerationResult verdict = verdictCache.find(Set.of(storyHash)).get(storyHash);
+        if (verdict == null) {
+            verdict = scan(storyHash, () -> false, story.getTitle(), story.getContent(), story.getSummary());
+        }
+        if (!verdict.isApproved()) {
+            return verdict;
+        }
+        verdict = moderateChapters(story.getId());
+        if (!verdict.isApproved()) {
+            return verdict;
+        }
+        return duplicateDetector.check(story);
+    }
+
+    private ModerationResult moderateChapters(String storyId) {
+        // Titles and hashes first; content is loaded only where it must be scanned
+        Query outline = Query.query(Criteria.where("storyId").is(storyId)).with(Sort.by("rank", "chapterNumber"));
+        outline.fields().include("title", "contentHash");
+        List<Chapter> chapters = mongoTemplate.find(outline, Chapter.class);
+
+        // A chapter's title and content are scanned together, so its verdict
+        // is keyed on both
+        Set<String> keys = new LinkedHashSet<>();
+        chapters.forEach(chapter -> {
+            if (chapter.getContentHash() != null) {
+                keys.add(chapterKey(chapter.getTitle(), chapter.getContentHash()));
+            }
+        });
+        Map<String, ModerationResult> known = verdictCache.find(keys);
+
+        Map<String, Chapter> outlines = new HashMap<>();
+        Map<String, Integer> numbers = new HashMap<>();
+        List<String> unscanned = new ArrayList<>();
+        for (int i = 0; i < chapters.size(); i++) {
+            Chapter chapter = chapters.get(i);
+            ModerationResult verdict = chapter.getContentHash() != null
+                    ? known.get(chapterKey(chapter.getTitle(), chapter.getContentHash())) : null;
+            if (verdict == null) {
+                outlines.put(chapter.getId(), chapter);
+                numbers.put(chapter.getId(), i + 1);
+                unscanned.add(chapter.getId());
+            } else if (!verdict.isApproved()) {
+                return inChapter(i + 1, verdict);
+            }
+        }
+        if (unscanned.isEmpty()) {
+            return new ModerationResult(true, null);
+        }
+
+        AtomicReference<ModerationResult> blocked = new AtomicReference<>();
+        Semaphore slots = new Semaphore(maxInFlight);
+        List<Future<?>> scans = new ArrayList<>();
+        Query query = Query.query(Criteria.where("_id").in(unscanned));
+        query.fields().include("content", "contentHash");
+        try (Stream<Chapter> contents = mongoTemplate.stream(query, Chapter.class)) {
+            for (Chapter chapter : (Iterable<Chapter>) contents::iterator) {
+                slots.acquire();
+                if (blocked.get() != null) {
+                    slots.release();
+                    break;
+                }
+                scans.add(workers.submit(() -> {
+                    try {
+                        if (blocked.get() != null) {
+                            return;
+                        }
+                        String text = chapter.getContent() != null ? chapter.getContent() : "";
+                        String hash = chapter.getContentHash() != null ? chapter.getContentHash() : ContentHash.of(text);
+                        String title = outlines.get(chapter.getId()).getTitle();
+                        ModerationResult result = scan(chapterKey(title, hash), () -> blocked.get() != null,
+                                title, text);
+                        if (!result.isApproved()) {
+                            blocked.compareAndSet(null, inChapter(numbers.get(chapter.getId()), result));
+                        }
+                    } finally {
+                        slots.release();
+                    }
+                }));
+            }
+            for (Future<?> scan : scans) {
+                scan.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Moderation was interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Moderation failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            scans.forEach(scan -> scan.cancel(false));
+        }
+
+        ModerationResult result = blocked.get();
+        return result != null ? result : new ModerationResult(true, null);
+    }
+
+    /**
+     * Identifies the chapters as moderation reads them: their order, titles
+     * and content hashes. It changes whenever a chapter is added, edited,
+     * moved or deleted.
+     */
+    String chapterDigest(String storyId) {
+        Query outline = Query.query(Criteria.where("storyId").is(storyId)).with(Sort.by("rank", "chapterNumber"));
+        outline.fields().include("title", "contentHash");
+        StringBuilder digest = new StringBuilder();
+        for (Chapter chapter : mongoTemplate.find(outline, Chapter.class)) {
+            digest.append(chapter.getId()).append('\u0000')
+                    .append(chapter.getTitle()).append('\u0000')
+                    .append(chapter.getContentHash()).append('\n');
+        }
+        return ContentHash.of(digest.toString());
+    }
+
+    // Scan texts as one and store their verdict, unless the scan was cut short
+    private ModerationResult scan(String contentHash, BooleanSupplier stop, String... texts) {
+        ModerationScanner scanner = moderationService.newScanner();
+        scanner.setStopSignal(stop);
+        for (String text : texts) {
+            if (!scanner.feed(text)) {
+                break;
+            }
+        }
+        ModerationResult result = scanner.result();
+        if (!scanner.isStopped()) {
+            verdictCache.put(contentHash, result);
+        }
+        return result;
+    }
+
+    private static String chapterKey(String title, String contentHash) {
+        return ContentHash.of(title + "\u0000" + contentHash);
+    }
+
+    private static ModerationResult inChapter(int number, ModerationResult result) {
+        return new ModerationResult(false, "Chapter " + number + ": " + result.getReason());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,349 @@
+package com.ghostwriter.moderation;
+
+import com.ghostwriter.story.Story;
+import com.ghostwriter.story.StoryChangedEvent;
+import com.ghostwriter.story.StoryRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background moderation. Submissions are queued in {@code moderation_jobs}
+ * and picked up by a small worker pool, so publishing returns at once and
+ * heavy scans never hold a request thread. Admin re-checks go in a lane
+ * that is always served first. Jobs are claimed with a lease; if an
+ * instance dies mid-scan the lease runs out and the job is queued again.
+ */
+@Service
+public class ModerationQueue {
+
+    private static final int MAX_ATTEMPTS = 3;
+    // Processing times kept for the percentiles in stats()
+    private static final int RECENT_SAMPLES = 512;
+
+    private final MongoTemplate mongoTemplate;
+    private final StoryRepository storyRepository;
+    private final ModerationPipeline moderationPipeline;
+    private final ApplicationEventPublisher events;
+    private final Duration lease;
+    private final int workerCount;
+    private final ExecutorService workers;
+    private final AtomicInteger busy = new AtomicInteger();
+
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong totalProcessingMs = new AtomicLong();
+    private final AtomicLong totalWaitMs = new AtomicLong();
+    private final long[] recentProcessingMs = new long[RECENT_SAMPLES];
+    private int recentNext;
+    private int recentSize;
+
+    public ModerationQueue(MongoTemplate mongoTemplate, StoryRepository storyRepository,
+            ModerationPipeline moderationPipeline, ApplicationEventPublisher events,
+            @Value("${moderation.queue.workers:2}") int workerCount,
+            @Value("${moderation.queue.lease:5m}") Duration lease) {
+        this.mongoTemplate = mongoTemplate;
+        this.storyRepository = storyRepository;
+        this.moderationPipeline = moderationPipeline;
+        this.events = events;
+        this.lease = lease;
+        this.workerCount = workerCount;
+        AtomicInteger count = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread thread = new Thread(r, "moderation-queue-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queue a story, replacing any earlier request for it.
+     */
+    public void enqueue(String storyId, String userId, int priority) {
+        Update update = new Update()
+                .set("userId", userId)
+                .set("state", ModerationJob.QUEUED)
+                .set("priority", priority)
+                .set("ticket", UUID.randomUUID().toString())
+                .set("attempts", 0)
+                .set("enqueuedAt", Instant.now())
+                .unset("startedAt").unset("leaseUntil").unset("finishedAt")
+                .unset("approved").unset("reason").unset("processingMs");
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(storyId)), update, ModerationJob.class);
+    }
+
+    public Optional<ModerationJob> getJob(String storyId) {
+        return Optional.ofNullable(mongoTemplate.findById(storyId, ModerationJob.class));
+    }
+
+    /**
+     * Jobs that will be claimed before this queued one.
+     */
+    public long positionOf(ModerationJob job) {
+        Criteria ahead = new Criteria().orOperator(
+                Criteria.where("priority").gt(job.getPriority()),
+                Criteria.where("priority").is(job.getPriority()).and("enqueuedAt").lt(job.getEnqueuedAt()));
+        return mongoTemplate.count(Query.query(Criteria.where("state").is(ModerationJob.QUEUED).andOperator(ahead)),
+                ModerationJob.class);
+    }
+
+    public void forget(String storyId) {
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(storyId)), ModerationJob.class);
+    }
+
+    /**
+     * Requeue jobs whose lease ran out, then hand queued jobs to idle
+     * workers, re-checks first.
+     */
+    @Scheduled(initialDelayString = "${moderation.queue.poll-ms:500}", fixedDelayString = "${moderation.queue.poll-ms:500}")
+    public void dispatch() {
+        try {
+            mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("state").is(ModerationJob.RUNNING).and("leaseUntil").lt(Instant.now())),
+                    new Update().set("state", ModerationJob.QUEUED).unset("leaseUntil"), ModerationJob.class);
+
+            while (busy.get() < workerCount) {
+                ModerationJob job = claim();
+                if (job == null) {
+                    return;
+                }
+                busy.incrementAndGet();
+                workers.execute(() -> {
+                    try {
+                        process(job);
+                    } finally {
+                        busy.decrementAndGet();
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            System.err.println("[ModerationQueue] Dispatch FAILED: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Queue depth per lane, jobs in progress and processing times.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queuedRecheck", countQueued(ModerationJob.PRIORITY_RECHECK));
+        stats.put("queuedNormal", countQueued(ModerationJob.PRIORITY_NORMAL));
+        stats.put("running", mongoTemplate.count(Query.query(Criteria.where("state").is(ModerationJob.RUNNING)),
+                ModerationJob.class));
+        stats.put("workers", workerCount);
+        stats.put("busyWorkers", busy.get());
+
+        // Since this instance started
+        long done = processed.get();
+        stats.put("processed", done);
+        stats.put("failed", failed.get());
+        stats.put("meanProcessingMs", done > 0 ? totalProcessingMs.get() / done : 0);
+        stats.put("meanWaitMs", done > 0 ? totalWaitMs.get() / done : 0);
+        long[] recent;
+        synchronized (recentProcessingMs) {
+            recent = Arrays.copyOf(recentProcessingMs, recentSize);
+        }
+        Arrays.sort(recent);
+        stats.put("p50ProcessingMs", percentile(recent, 0.50));
+        stats.put("p95ProcessingMs", percentile(recent, 0.95));
+        stats.put("maxProcessingMs", recent.length > 0 ? recent[recent.length - 1] : 0);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Unfinished jobs are picked up again once their lease runs out
+        workers.shutdownNow();
+    }
+
+    private ModerationJob claim() {
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("state").is(ModerationJob.QUEUED))
+                .with(Sort.by(Sort.Order.desc("priority"), Sort.Order.asc("enqueuedAt")));
+        Update update = new Update()
+                .set("state", ModerationJob.RUNNING)
+                .set("startedAt", now)
+                .set("leaseUntil", now.plus(lease))
+                .inc("attempts", 1);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                ModerationJob.class);
+    }
+
+    private void process(ModerationJob job) {
+        long start = System.currentTimeMillis();
+        // Attempts past the limit are jobs whose scans keep dying with their instance
+        if (job.getAttempts() > MAX_ATTEMPTS) {
+            fail(job, "Moderation did not finish after " + MAX_ATTEMPTS + " attempts");
+            return;
+        }
+        try {
+            Story story = storyRepository.findById(job.getId()).orElse(null);
+            if (story == null) {
+                forget(job.getId());
+                return;
+            }
+            String chapters = moderationPipeline.chapterDigest(job.getId());
+            ModerationResult result = moderationPipeline.moderate(story);
+            if (!applyVerdict(job, story, chapters, result)) {
+                discard(job);
+                return;
+            }
+            long processingMs = System.currentTimeMillis() - start;
+            finish(job, result, processingMs);
+            record(job, processingMs);
+        } catch (RuntimeException e) {
+            System.err.println("[ModerationQueue] Story " + job.getId() + " attempt " + job.getAttempts()
+                    + " FAILED: " + e.getMessage());
+            try {
+                if (job.getAttempts() < MAX_ATTEMPTS) {
+                    requeue(job);
+                } else {
+                    fail(job, e.getMessage());
+                }
+            } catch (RuntimeException again) {
+                // The lease runs out and the job is queued again
+                System.err.println("[ModerationQueue] Story " + job.getId() + " could not be requeued: "
+                        + again.getMessage());
+            }
+        }
+    }
+
+    private void requeue(ModerationJob job) {
+        mongoTemplate.updateFirst(ticketed(job),
+                new Update().set("state", ModerationJob.QUEUED).unset("leaseUntil"), ModerationJob.class);
+    }
+
+    private void finish(ModerationJob job, ModerationResult result, long processingMs) {
+        Update update = new Update()
+                .set("state", ModerationJob.DONE)
+                .set("approved", result.isApproved())
+                .set("reason", result.getReason())
+                .set("finishedAt", Instant.now())
+                .set("processingMs", processingMs)
+                .unset("leaseUntil");
+        mongoTemplate.updateFirst(ticketed(job), update, ModerationJob.class);
+    }
+
+    /**
+     * Give up on a job that keeps failing. The story is left waiting for a
+     * verdict, since the failure says nothing about its content; an admin
+     * re-check or a resubmission queues it again.
+     */
+    private void fail(ModerationJob job, String reason) {
+        failed.incrementAndGet();
+        System.err.println("[ModerationQueue] Story " + job.getId() + " left pending: " + reason);
+        mongoTemplate.updateFirst(ticketed(job),
+                new Update()
+                        .set("state", ModerationJob.FAILED)
+                        .set("reason", reason)
+                        .set("finishedAt", Instant.now())
+                        .unset("leaseUntil"),
+                ModerationJob.class);
+    }
+
+    private Query ticketed(ModerationJob job) {
+        return Query.query(Criteria.where("_id").is(job.getId()).and("ticket").is(job.getTicket())
+                .and("state").is(ModerationJob.RUNNING));
+    }
+
+    /**
+     * Write the verdict to the story, provided it still holds what was
+     * scanned: the status the job started from, and the same content,
+     * title, summary and chapters. Returns false if it did not.
+     */
+    private boolean applyVerdict(ModerationJob job, Story scanned, String chapters, ModerationResult result) {
+        if (!awaitsVerdict(job, scanned.getStatus())
+                || !chapters.equals(moderationPipeline.chapterDigest(job.getId()))) {
+            return false;
+        }
+        // Stories written before versioning have no version field
+        Criteria version = scanned.getVersion() == 0
+                ? new Criteria().orOperator(Criteria.where("version").is(0L), Criteria.where("version").exists(false))
+                : Criteria.where("version").is(scanned.getVersion());
+        Criteria criteria = Criteria.where("_id").is(job.getId())
+                .and("status").is(scanned.getStatus())
+                .and("contentHash").is(scanned.getContentHash())
+                .and("title").is(scanned.getTitle())
+                .and("summary").is(scanned.getSummary())
+                .andOperator(version);
+        Update update = new Update()
+                .set("status", result.isApproved() ? "published" : "rejected")
+                .set("rejectionReason", result.getReason())
+                .set("updatedAt", Instant.now());
+        if (mongoTemplate.updateFirst(Query.query(criteria), update, Story.class).getModifiedCount() == 0) {
+            return false;
+        }
+        events.publishEvent(new StoryChangedEvent(job.getId()));
+        return true;
+    }
+
+    // Submissions wait in pending_review; re-checks apply to any submitted story
+    private static boolean awaitsVerdict(ModerationJob job, String status) {
+        if (job.getPriority() == ModerationJob.PRIORITY_RECHECK) {
+            return status != null && !"draft".equals(status);
+        }
+        return "pending_review".equals(status);
+    }
+
+    /**
+     * The story changed while it was being scanned. If it is still waiting
+     * for a verdict it is scanned again; otherwise, say it was withdrawn,
+     * the verdict is dropped.
+     */
+    private void discard(ModerationJob job) {
+        Query query = Query.query(Criteria.where("_id").is(job.getId()));
+        query.fields().include("status");
+        Story current = mongoTemplate.findOne(query, Story.class);
+        if (current != null && awaitsVerdict(job, current.getStatus())) {
+            enqueue(job.getId(), job.getUserId(), job.getPriority());
+            return;
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(job.getId()).and("ticket").is(job.getTicket())),
+                new Update().set("state", ModerationJob.DISCARDED), ModerationJob.class);
+    }
+
+    private void record(ModerationJob job, long processingMs) {
+        processed.incrementAndGet();
+        totalProcessingMs.addAndGet(processingMs);
+        if (job.getEnqueuedAt() != null && job.getStartedAt() != null) {
+            totalWaitMs.addAndGet(Duration.between(job.getEnqueuedAt(), job.getStartedAt()).toMillis());
+        }
+        synchronized (recentProcessingMs) {
+            recentProcessingMs[recentNext] = processingMs;
+            recentNext = (recentNext + 1) % RECENT_SAMPLES;
+            recentSize = Math.min(recentSize + 1, RECENT_SAMPLES);
+        }
+    }
+
+    private long countQueued(int priority) {
+        return mongoTemplate.count(Query.query(Criteria.where("state").is(ModerationJob.QUEUED)
+                .and("priority").is(priority)), ModerationJob.class);
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,166 @@
+package com.ghostwriter.moderation;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * One pass of moderation over one or more texts belonging together (a
+ * story's own fields, or one chapter). Each character goes once through the
+ * phrase automaton, the URL counter and the caps counter; repetition is
+ * checked per line as each line ends. Scanning stops at the first blocking
+ * finding. Obtained from {@link ModerationService#newScanner()}; not
+ * thread-safe.
+ */
+public class ModerationScanner {
+
+    /**
+     * What a phrase in the automaton stands for.
+     */
+    public enum Kind {
+        COPYRIGHT, INAPPROPRIATE, URL_START
+    }
+
+    // How many characters are scanned between checks of the stop signal
+    private static final int STOP_CHECK_INTERVAL = 8192;
+
+    private final PhraseMatcher<Kind> matcher;
+    private final int maxUrls;
+    private final int minCapsRun;
+    private final int minRepeatUnit;
+    private final int minRepeatCopies;
+    private BooleanSupplier stopSignal = () -> false;
+
+    private int urls;
+    private ModerationResult blocked;
+    private boolean stopped;
+
+    ModerationScanner(PhraseMatcher<Kind> matcher, int maxUrls, int minCapsRun, int minRepeatUnit,
+            int minRepeatCopies) {
+        this.matcher = matcher;
+        this.maxUrls = maxUrls;
+        this.minCapsRun = minCapsRun;
+        this.minRepeatUnit = minRepeatUnit;
+        this.minRepeatCopies = minRepeatCopies;
+    }
+
+    /**
+     * Give up early once this returns true, e.g. because another scan
+     * already blocked the story.
+     */
+    public void setStopSignal(BooleanSupplier stopSignal) {
+        this.stopSignal = stopSignal;
+    }
+
+    /**
+     * Scan one text. Phrases, caps runs and lines do not continue from one
+     * text into the next; the URL count does.
+     *
+     * @return false once a blocking finding was made or the scan was stopped
+     */
+    public boolean feed(CharSequence text) {
+        if (blocked != null || stopped) {
+            return false;
+        }
+        if (text == null) {
+            return true;
+        }
+
+        int state = matcher.start();
+        int caps = 0;
+        int lineStart = 0;
+        // A URL prefix was just read; it counts if a non-space follows
+        boolean urlPrefix = false;
+        // Inside a counted URL, which runs to the next whitespace
+        boolean inUrl = false;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            if (i % STOP_CHECK_INTERVAL == STOP_CHECK_INTERVAL - 1 && stopSignal.getAsBoolean()) {
+                stopped = true;
+                return false;
+            }
+            char c = text.charAt(i);
+            boolean space = isWhitespace(c);
+
+            if (urlPrefix && !space && !inUrl) {
+                inUrl = true;
+                if (++urls > maxUrls) {
+                    return block("Content flagged as spam: too many URLs (" + urls + " found)");
+                }
+            }
+            urlPrefix = false;
+            if (space) {
+                inUrl = false;
+            }
+
+            state = matcher.step(state, c);
+            int phrase = matcher.matchAt(state);
+            if (phrase >= 0) {
+                switch (matcher.value(phrase)) {
+                    case COPYRIGHT:
+                        return block("Content may contain copyrighted material: \"" + matcher.phrase(phrase) + "\"");
+                    case INAPPROPRIATE:
+                        return block("Content flagged for inappropriate material: \"" + matcher.phrase(phrase) + "\"");
+                    case URL_START:
+                        urlPrefix = true;
+                        break;
+                }
+            }
+
+            if (SpamDetectors.isCapsOrSpace(c)) {
+                if (++caps >= minCapsRun) {
+                    return block("Content flagged as spam: excessive use of capital letters");
+                }
+            } else {
+                caps = 0;
+            }
+
+            if (isLineTerminator(c)) {
+                if (repetitive(text, lineStart, i)) {
+                    return repetitionFound();
+                }
+                lineStart = i + 1;
+            }
+        }
+        if (repetitive(text, lineStart, length)) {
+            return repetitionFound();
+        }
+        return true;
+    }
+
+    /**
+     * The verdict for everything fed so far.
+     */
+    public ModerationResult result() {
+        return blocked != null ? blocked : new ModerationResult(true, null);
+    }
+
+    /**
+     * Whether the stop signal cut the scan short, leaving the verdict
+     * incomplete.
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    private boolean repetitive(CharSequence text, int from, int to) {
+        return to - from >= minRepeatUnit * minRepeatCopies
+                && SpamDetectors.hasRepetition(text.subSequence(from, to).toString(), minRepeatUnit, minRepeatCopies);
+    }
+
+    private boolean repetitionFound() {
+        return block("Content flagged as spam: repetitive text patterns detected");
+    }
+
+    private boolean block(String reason) {
+        blocked = new ModerationResult(false, reason);
+        return false;
+    }
+
+    // Java's \s
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == 0x85 || c == 0x2028 || c == 0x2029;
+    }
+}
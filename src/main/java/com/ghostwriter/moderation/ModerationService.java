@@ -1,10 +1,12 @@
 package com.ghostwriter.moderation;
 
+import com.ghostwriter.chapter.ContentHash;
 import org.springframework.stereotype.Service;
 
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Map;
 
 @Service
 public class ModerationService {
@@ -20,10 +22,41 @@ public class ModerationService {
             "hate speech", "racial slur", "explicit violence",
             "graphic content", "extremist", "terrorist propaganda");
 
-    // Spam patterns
-    private static final Pattern URL_PATTERN = Pattern.compile("https?://\\S+", Pattern.CASE_INSENSITIVE);
-    private static final Pattern ALL_CAPS_PATTERN = Pattern.compile("[A-Z\\s]{50,}");
-    private static final Pattern REPETITIVE_PATTERN = Pattern.compile("(.{3,})\\1{4,}");
+    // Spam thresholds
+    private static final List<String> URL_PREFIXES = Arrays.asList("http://", "https://");
+    private static final int MAX_URLS = 5;
+    private static final int MIN_CAPS_RUN = 50;
+    // A unit of three or more characters five times in a row
+    private static final int MIN_REPEAT_UNIT = 3;
+    private static final int MIN_REPEAT_COPIES = 5;
+    // Bump when the scanning logic itself changes verdicts
+    private static final int SCANNER_REVISION = 2;
+
+    private final PhraseMatcher<ModerationScanner.Kind> matcher;
+    private final String rulesVersion;
+
+    public ModerationService() {
+        Map<String, ModerationScanner.Kind> phrases = new LinkedHashMap<>();
+        COPYRIGHTED_PHRASES.forEach(phrase -> phrases.put(phrase, ModerationScanner.Kind.COPYRIGHT));
+        INAPPROPRIATE_WORDS.forEach(word -> phrases.put(word, ModerationScanner.Kind.INAPPROPRIATE));
+        URL_PREFIXES.forEach(prefix -> phrases.put(prefix, ModerationScanner.Kind.URL_START));
+        this.matcher = new PhraseMatcher<>(phrases);
+        // Changes whenever a phrase or threshold does, so stored verdicts
+        // from other rules are never reused
+        this.rulesVersion = ContentHash.of(SCANNER_REVISION + "|" + phrases + "|" + MAX_URLS + "|" + MIN_CAPS_RUN + "|"
+                + MIN_REPEAT_UNIT + "|" + MIN_REPEAT_COPIES).substring(0, 16);
+    }
+
+    public String getRulesVersion() {
+        return rulesVersion;
+    }
+
+    /**
+     * A scanner for one story's fields or one chapter.
+     */
+    public ModerationScanner newScanner() {
+        return new ModerationScanner(matcher, MAX_URLS, MIN_CAPS_RUN, MIN_REPEAT_UNIT, MIN_REPEAT_COPIES);
+    }
 
     /**
      * Check content for moderation issues.
@@ -32,44 +65,8 @@ public class ModerationService {
         if (content == null || content.isBlank()) {
             return new ModerationResult(true, null);
         }
-
-        String lowerContent = content.toLowerCase();
-
-        // Check for copyrighted content
-        for (String phrase : COPYRIGHTED_PHRASES) {
-            if (lowerContent.contains(phrase)) {
-                return new ModerationResult(false,
-                        "Content may contain copyrighted material: \"" + phrase + "\"");
-            }
-        }
-
-        // Check for inappropriate content
-        for (String word : INAPPROPRIATE_WORDS) {
-            if (lowerContent.contains(word)) {
-                return new ModerationResult(false,
-                        "Content flagged for inappropriate material: \"" + word + "\"");
-            }
-        }
-
-        // Check for spam: excessive URLs
-        long urlCount = URL_PATTERN.matcher(content).results().count();
-        if (urlCount > 5) {
-            return new ModerationResult(false,
-                    "Content flagged as spam: too many URLs (" + urlCount + " found)");
-        }
-
-        // Check for spam: ALL CAPS blocks
-        if (ALL_CAPS_PATTERN.matcher(content).find()) {
-            return new ModerationResult(false,
-                    "Content flagged as spam: excessive use of capital letters");
-        }
-
-        // Check for spam: repetitive patterns
-        if (REPETITIVE_PATTERN.matcher(content).find()) {
-            return new ModerationResult(false,
-                    "Content flagged as spam: repetitive text patterns detected");
-        }
-
-        return new ModerationResult(true, null);
+        ModerationScanner scanner = newScanner();
+        scanner.feed(content);
+        return scanner.result();
     }
 }
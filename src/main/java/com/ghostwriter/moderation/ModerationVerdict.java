@@ -0,0 +1,87 @@
+package com.ghostwriter.moderation;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * The moderation verdict for one scanned unit (a story's own fields, or a
+ * chapter's title and content) under one version of the rules. The id is
+ * {@code <rulesVersion>:<contentHash>}, where the hash covers everything
+ * scanned together, so an identical chapter in any story shares a verdict.
+ */
+@Document(collection = "moderation_verdicts")
+public class ModerationVerdict {
+
+    @Id
+    private String id;
+    private String rulesVersion;
+    private boolean approved;
+    private String reason;
+    private Instant createdAt;
+    // Last time a scan reused this verdict, to the day
+    @Indexed(name = "usedAt_ttl", expireAfter = "30d")
+    private Instant usedAt;
+
+    public ModerationVerdict() {
+    }
+
+    public ModerationVerdict(String id, String rulesVersion, boolean approved, String reason) {
+        this.id = id;
+        this.rulesVersion = rulesVersion;
+        this.approved = approved;
+        this.reason = reason;
+        this.createdAt = Instant.now();
+        this.usedAt = createdAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getRulesVersion() {
+        return rulesVersion;
+    }
+
+    public void setRulesVersion(String rulesVersion) {
+        this.rulesVersion = rulesVersion;
+    }
+
+    public boolean isApproved() {
+        return approved;
+    }
+
+    public void setApproved(boolean approved) {
+        this.approved = approved;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getUsedAt() {
+        return usedAt;
+    }
+
+    public void setUsedAt(Instant usedAt) {
+        this.usedAt = usedAt;
+    }
+}
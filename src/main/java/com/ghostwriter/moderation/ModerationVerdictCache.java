@@ -0,0 +1,98 @@
+package com.ghostwriter.moderation;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stored verdicts by content hash for the current rules, so republishing
+ * re-scans only text that changed. A change to the rules changes their
+ * version, which misses every old entry. Entries expire once unused for 30
+ * days, which clears out both old versions of edited text and verdicts
+ * under earlier rules, without instances on different rules (during a
+ * rolling deploy) deleting each other's entries.
+ */
+@Component
+public class ModerationVerdictCache {
+
+    private static final Duration TOUCH_INTERVAL = Duration.ofDays(1);
+
+    private final MongoTemplate mongoTemplate;
+    private final String rulesVersion;
+
+    public ModerationVerdictCache(MongoTemplate mongoTemplate, ModerationService moderationService) {
+        this.mongoTemplate = mongoTemplate;
+        this.rulesVersion = moderationService.getRulesVersion();
+    }
+
+    /**
+     * Stored verdicts for the given content hashes; hashes with none are
+     * left out.
+     */
+    public Map<String, ModerationResult> find(Collection<String> contentHashes) {
+        Map<String, ModerationResult> verdicts = new HashMap<>();
+        if (contentHashes.isEmpty()) {
+            return verdicts;
+        }
+        List<String> ids = contentHashes.stream().map(this::idOf).toList();
+        for (ModerationVerdict verdict : mongoTemplate.find(Query.query(Criteria.where("_id").in(ids)),
+                ModerationVerdict.class)) {
+            String hash = verdict.getId().substring(rulesVersion.length() + 1);
+            verdicts.put(hash, new ModerationResult(verdict.isApproved(), verdict.getReason()));
+        }
+        if (!verdicts.isEmpty()) {
+            touch(ids);
+        }
+        return verdicts;
+    }
+
+    public void put(String contentHash, ModerationResult result) {
+        try {
+            mongoTemplate.insert(new ModerationVerdict(idOf(contentHash), rulesVersion, result.isApproved(),
+                    result.getReason()));
+        } catch (DuplicateKeyException e) {
+            // Same text scanned concurrently; the verdict is the same
+        }
+    }
+
+    /**
+     * Give verdicts stored before they expired a last-used date, so they
+     * expire too.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void stampUndated() {
+        try {
+            mongoTemplate.updateMulti(Query.query(Criteria.where("usedAt").exists(false)),
+                    new Update().set("usedAt", Instant.now()), ModerationVerdict.class);
+        } catch (RuntimeException e) {
+            System.err.println("[Moderation] Could not date stored verdicts: " + e.getMessage());
+        }
+    }
+
+    // Move the expiry of reused verdicts forward, at most once a day each
+    private void touch(List<String> ids) {
+        Instant now = Instant.now();
+        try {
+            Query stale = Query.query(Criteria.where("_id").in(ids).and("usedAt").lt(now.minus(TOUCH_INTERVAL)));
+            mongoTemplate.updateMulti(stale, new Update().set("usedAt", now), ModerationVerdict.class);
+        } catch (RuntimeException e) {
+            System.err.println("[Moderation] Could not touch stored verdicts: " + e.getMessage());
+        }
+    }
+
+    private String idOf(String contentHash) {
+        return rulesVersion + ":" + contentHash;
+    }
+}
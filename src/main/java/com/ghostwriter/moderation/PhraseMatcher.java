@@ -0,0 +1,121 @@
+package com.ghostwriter.moderation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton over a fixed set of lowercase ASCII phrases, each
+ * carrying a value. Text is fed one character at a time, case-insensitively,
+ * and every phrase is found in a single pass whatever the number of
+ * phrases. Immutable, so one instance is shared by all scans.
+ */
+public class PhraseMatcher<T> {
+
+    private static final int ALPHABET = 128;
+    private static final int ROOT = 0;
+
+    private final List<String> phrases;
+    private final List<T> values;
+    // Full transition table, failure links already folded in
+    private final int[][] next;
+    // Index of the earliest-listed phrase ending at each state, or -1
+    private final int[] match;
+
+    /**
+     * @param phrases phrases in priority order, mapped to their values
+     * @throws IllegalArgumentException if a phrase is empty or not lowercase ASCII
+     */
+    public PhraseMatcher(Map<String, T> phrases) {
+        this.phrases = new ArrayList<>(phrases.keySet());
+        this.values = new ArrayList<>(phrases.values());
+
+        List<int[]> trie = new ArrayList<>();
+        List<Integer> ends = new ArrayList<>();
+        trie.add(emptyRow());
+        ends.add(-1);
+        for (int p = 0; p < this.phrases.size(); p++) {
+            String phrase = this.phrases.get(p);
+            if (phrase.isEmpty() || !phrase.chars().allMatch(c -> c < ALPHABET && c == Character.toLowerCase(c))) {
+                throw new IllegalArgumentException("Phrases must be non-empty lowercase ASCII: \"" + phrase + "\"");
+            }
+            int state = ROOT;
+            for (char c : phrase.toCharArray()) {
+                if (trie.get(state)[c] < 0) {
+                    trie.get(state)[c] = trie.size();
+                    trie.add(emptyRow());
+                    ends.add(-1);
+                }
+                state = trie.get(state)[c];
+            }
+            if (ends.get(state) < 0) {
+                ends.set(state, p);
+            }
+        }
+
+        next = trie.toArray(new int[0][]);
+        match = ends.stream().mapToInt(Integer::intValue).toArray();
+        int[] fail = new int[next.length];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            if (next[ROOT][c] < 0) {
+                next[ROOT][c] = ROOT;
+            } else {
+                queue.add(next[ROOT][c]);
+            }
+        }
+        // Breadth-first, so a state's failure target is complete before it is used
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            if (match[state] < 0 || (match[fail[state]] >= 0 && match[fail[state]] < match[state])) {
+                match[state] = match[fail[state]];
+            }
+            for (int c = 0; c < ALPHABET; c++) {
+                int child = next[state][c];
+                if (child < 0) {
+                    next[state][c] = next[fail[state]][c];
+                } else {
+                    fail[child] = next[fail[state]][c];
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    public int start() {
+        return ROOT;
+    }
+
+    /**
+     * The state after reading {@code c}. Characters with no ASCII lowercase
+     * form match no phrase.
+     */
+    public int step(int state, char c) {
+        char lower = c < ALPHABET ? (c >= 'A' && c <= 'Z' ? (char) (c + 32) : c) : Character.toLowerCase(c);
+        return lower < ALPHABET ? next[state][lower] : ROOT;
+    }
+
+    /**
+     * The phrase that ends at this state, as an index, or -1.
+     */
+    public int matchAt(int state) {
+        return match[state];
+    }
+
+    public String phrase(int index) {
+        return phrases.get(index);
+    }
+
+    public T value(int index) {
+        return values.get(index);
+    }
+
+    private static int[] emptyRow() {
+        int[] row = new int[ALPHABET];
+        Arrays.fill(row, -1);
+        return row;
+    }
+}
@@ -0,0 +1,162 @@
+package com.ghostwriter.moderation;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Inverted index from fingerprint to the stories containing it, as small
+ * integer ids. Open addressing over primitive arrays: most fingerprints
+ * occur in a single story, so each costs one slot of a long and an int,
+ * with a side array only for those shared by several stories. Not
+ * thread-safe.
+ */
+class PostingIndex {
+
+    private static final int EMPTY = -1;
+    private static final double MAX_LOAD = 0.6;
+
+    private long[] keys;
+    private int[] first;
+    private int[][] more;
+    private int mask;
+    private int bits;
+    private int size;
+
+    PostingIndex() {
+        allocate(10);
+    }
+
+    int size() {
+        return size;
+    }
+
+    void add(long key, int story) {
+        int slot = find(key);
+        if (first[slot] == EMPTY) {
+            keys[slot] = key;
+            first[slot] = story;
+            if (++size > MAX_LOAD * keys.length) {
+                grow();
+            }
+            return;
+        }
+        if (first[slot] == story) {
+            return;
+        }
+        int[] rest = more[slot];
+        if (rest == null) {
+            more[slot] = new int[] { story };
+            return;
+        }
+        for (int value : rest) {
+            if (value == story) {
+                return;
+            }
+        }
+        rest = Arrays.copyOf(rest, rest.length + 1);
+        rest[rest.length - 1] = story;
+        more[slot] = rest;
+    }
+
+    void remove(long key, int story) {
+        int slot = find(key);
+        if (first[slot] == EMPTY) {
+            return;
+        }
+        int[] rest = more[slot];
+        if (first[slot] == story) {
+            if (rest == null) {
+                delete(slot);
+                size--;
+                return;
+            }
+            first[slot] = rest[rest.length - 1];
+            more[slot] = rest.length == 1 ? null : Arrays.copyOf(rest, rest.length - 1);
+            return;
+        }
+        if (rest == null) {
+            return;
+        }
+        for (int i = 0; i < rest.length; i++) {
+            if (rest[i] == story) {
+                rest[i] = rest[rest.length - 1];
+                more[slot] = rest.length == 1 ? null : Arrays.copyOf(rest, rest.length - 1);
+                return;
+            }
+        }
+    }
+
+    void forEach(long key, IntConsumer action) {
+        int slot = find(key);
+        if (first[slot] == EMPTY) {
+            return;
+        }
+        action.accept(first[slot]);
+        if (more[slot] != null) {
+            for (int story : more[slot]) {
+                action.accept(story);
+            }
+        }
+    }
+
+    // The key's slot, or the empty slot where it would go
+    private int find(long key) {
+        int slot = home(key);
+        while (first[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int home(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - bits));
+    }
+
+    // Backward-shift deletion, so lookups never need tombstones
+    private void delete(int slot) {
+        int hole = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (first[next] == EMPTY) {
+                break;
+            }
+            int home = home(keys[next]);
+            boolean stays = hole <= next ? (hole < home && home <= next) : (hole < home || home <= next);
+            if (stays) {
+                continue;
+            }
+            keys[hole] = keys[next];
+            first[hole] = first[next];
+            more[hole] = more[next];
+            hole = next;
+        }
+        first[hole] = EMPTY;
+        more[hole] = null;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldFirst = first;
+        int[][] oldMore = more;
+        allocate(bits + 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldFirst[i] != EMPTY) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                first[slot] = oldFirst[i];
+                more[slot] = oldMore[i];
+            }
+        }
+    }
+
+    private void allocate(int bits) {
+        this.bits = bits;
+        int capacity = 1 << bits;
+        keys = new long[capacity];
+        first = new int[capacity];
+        more = new int[capacity][];
+        Arrays.fill(first, EMPTY);
+        mask = capacity - 1;
+    }
+}
@@ -2,25 +2,31 @@ package com.ghostwriter.moderation;
 
 import com.ghostwriter.story.Story;
 import com.ghostwriter.story.StoryRepository;
+import com.ghostwriter.story.StoryService;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class PublishingService {
 
     private final StoryRepository storyRepository;
-    private final ModerationService moderationService;
+    private final StoryService storyService;
+    private final ModerationQueue moderationQueue;
 
-    public PublishingService(StoryRepository storyRepository, ModerationService moderationService) {
+    public PublishingService(StoryRepository storyRepository, StoryService storyService,
+            ModerationQueue moderationQueue) {
         this.storyRepository = storyRepository;
-        this.moderationService = moderationService;
+        this.storyService = storyService;
+        this.moderationQueue = moderationQueue;
     }
 
     /**
      * Submit a story for publishing.
-     * Sets status to pending_review, runs moderation, then approves or rejects.
+     * Sets status to pending_review and queues it for moderation, which
+     * approves or rejects it in the background.
      */
     public Story submitForPublishing(String storyId, String userId) {
         Optional<Story> opt = storyRepository.findById(storyId);
@@ -33,25 +39,47 @@ public class PublishingService {
         }
 
         // Set to pending review
-        story.setStatus("pending_review");
-        story.setRejectionReason(null);
-        story.setUpdatedAt(Instant.now());
-        storyRepository.save(story);
-
-        // Run moderation check
-        String contentToCheck = (story.getTitle() != null ? story.getTitle() : "")
-                + " " + (story.getContent() != null ? story.getContent() : "")
-                + " " + (story.getSummary() != null ? story.getSummary() : "");
-
-        ModerationResult result = moderationService.moderate(contentToCheck);
-
-        if (result.isApproved()) {
-            story.setStatus("published");
-        } else {
-            story.setStatus("rejected");
-            story.setRejectionReason(result.getReason());
+        Story saved = storyService.setStatus(storyId, "pending_review", null);
+
+        moderationQueue.enqueue(storyId, userId, ModerationJob.PRIORITY_NORMAL);
+        return saved;
+    }
+
+    /**
+     * Run moderation again on a submitted story, ahead of new submissions.
+     * The story keeps its status until the verdict arrives.
+     */
+    public void submitForRecheck(String storyId) {
+        Story story = storyRepository.findById(storyId)
+                .orElseThrow(() -> new RuntimeException("Story not found"));
+        if ("draft".equals(story.getStatus())) {
+            throw new RuntimeException("Only submitted stories can be re-checked");
+        }
+        moderationQueue.enqueue(storyId, story.getUserId(), ModerationJob.PRIORITY_RECHECK);
+    }
+
+    /**
+     * The story's status and where its moderation stands.
+     */
+    public Map<String, Object> getModerationStatus(String storyId, String userId) {
+        Story story = storyRepository.findById(storyId)
+                .orElseThrow(() -> new RuntimeException("Story not found"));
+        if (!story.getUserId().equals(userId)) {
+            throw new RuntimeException("Not authorized to view this story");
         }
-        story.setUpdatedAt(Instant.now());
-        return storyRepository.save(story);
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("storyId", storyId);
+        status.put("status", story.getStatus());
+        status.put("rejectionReason", story.getRejectionReason());
+        moderationQueue.getJob(storyId).ifPresent(job -> {
+            status.put("moderation", job.getState());
+            if (ModerationJob.QUEUED.equals(job.getState())) {
+                status.put("queuePosition", moderationQueue.positionOf(job) + 1);
+            }
+            status.put("enqueuedAt", job.getEnqueuedAt());
+            status.put("finishedAt", job.getFinishedAt());
+        });
+        return status;
     }
 }
@@ -0,0 +1,185 @@
+package com.ghostwriter.moderation;
+
+import java.security.SecureRandom;
+import java.util.function.IntPredicate;
+
+/**
+ * Linear-scan replacements for the spam regexes. Both give the same answer
+ * as the patterns they replace, but neither backtracks, so their cost is
+ * bounded by the length of the text whatever it contains.
+ */
+public final class SpamDetectors {
+
+    private static final long MOD = (1L << 61) - 1;
+    // Random per process, so nobody can craft text whose hashes collide
+    private static final long BASE = 1_000_003L + new SecureRandom().nextInt(1 << 30);
+
+    private SpamDetectors() {
+    }
+
+    /**
+     * Whether the text has {@code minRun} or more consecutive ASCII capitals
+     * or whitespace; same as finding {@code [A-Z\s]{minRun,}}.
+     */
+    public static boolean hasCapsRun(CharSequence text, int minRun) {
+        int run = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (isCapsOrSpace(text.charAt(i))) {
+                if (++run >= minRun) {
+                    return true;
+                }
+            } else {
+                run = 0;
+            }
+        }
+        return false;
+    }
+
+    static boolean isCapsOrSpace(char c) {
+        return (c >= 'A' && c <= 'Z') || c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Whether some unit of at least {@code minUnit} characters appears
+     * {@code copies} or more times back to back within one line; same as
+     * finding {@code (.{minUnit,})\1{copies-1,}}.
+     *
+     * <p>Such a repeat is a stretch of {@code (copies - 1) * p} positions
+     * where each character equals the one {@code p} further on. For each
+     * period {@code p} only every {@code (copies - 1) * p}-th position needs
+     * checking, since any such stretch covers one; at a checkpoint whose
+     * character matches, the stretch is measured in both directions with
+     * hashed comparisons. Checkpoints total O(n log n) over all periods and
+     * nearly all are rejected by a single comparison.
+     */
+    public static boolean hasRepetition(String text, int minUnit, int copies) {
+        int[] codePoints = text.codePoints().toArray();
+        int start = 0;
+        for (int i = 0; i <= codePoints.length; i++) {
+            if (i == codePoints.length || isLineTerminator(codePoints[i])) {
+                if (i - start >= minUnit * copies && lineHasRepetition(codePoints, start, i, minUnit, copies)) {
+                    return true;
+                }
+                start = i + 1;
+            }
+        }
+        return false;
+    }
+
+    // The characters '.' does not match
+    private static boolean isLineTerminator(int c) {
+        return c == '\n' || c == '\r' || c == 0x85 || c == 0x2028 || c == 0x2029;
+    }
+
+    private static boolean lineHasRepetition(int[] text, int from, int to, int minUnit, int copies) {
+        Hashes hashes = new Hashes(text, from, to);
+        int length = to - from;
+        for (int period = minUnit; (long) period * copies <= length; period++) {
+            int span = (copies - 1) * period;
+            for (int c = from; c + period < to; c += span) {
+                if (text[c] != text[c + period]) {
+                    continue;
+                }
+                int forward = hashes.matchForward(c, c + period, Math.min(span, to - c - period));
+                int backward = forward >= span ? 0
+                        : hashes.matchBackward(c, c + period, Math.min(span - forward, c - from));
+                if (forward + backward >= span && confirm(text, c - backward, period, span)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Rules out a hash collision before giving a verdict
+    private static boolean confirm(int[] text, int start, int period, int span) {
+        for (int i = start; i < start + span; i++) {
+            if (text[i] != text[i + period]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Polynomial prefix hashes of one line modulo 2^61 - 1, for comparing
+     * any two of its substrings in constant time.
+     */
+    private static final class Hashes {
+
+        private final int from;
+        private final long[] prefix;
+        private final long[] powers;
+
+        Hashes(int[] text, int from, int to) {
+            this.from = from;
+            int length = to - from;
+            prefix = new long[length + 1];
+            powers = new long[length + 1];
+            powers[0] = 1;
+            for (int i = 0; i < length; i++) {
+                prefix[i + 1] = addMod(mulMod(prefix[i], BASE), text[from + i]);
+                powers[i + 1] = mulMod(powers[i], BASE);
+            }
+        }
+
+        /**
+         * How many characters from {@code a} and {@code b} onwards match,
+         * up to {@code limit}.
+         */
+        int matchForward(int a, int b, int limit) {
+            return longest(limit, n -> hash(a, n) == hash(b, n));
+        }
+
+        /**
+         * How many characters before {@code a} and {@code b} match, going
+         * backwards, up to {@code limit}.
+         */
+        int matchBackward(int a, int b, int limit) {
+            return longest(limit, n -> hash(a - n, n) == hash(b - n, n));
+        }
+
+        // Galloping then binary search for the longest n <= limit that matches
+        private static int longest(int limit, IntPredicate matches) {
+            int good = 0;
+            int step = 1;
+            while (good < limit) {
+                int next = Math.min(limit, good + step);
+                if (!matches.test(next)) {
+                    int bad = next;
+                    while (bad - good > 1) {
+                        int mid = (good + bad) >>> 1;
+                        if (matches.test(mid)) {
+                            good = mid;
+                        } else {
+                            bad = mid;
+                        }
+                    }
+                    return good;
+                }
+                good = next;
+                step <<= 1;
+            }
+            return good;
+        }
+
+        private long hash(int start, int length) {
+            int i = start - from;
+            return addMod(prefix[i + length], MOD - mulMod(prefix[i], powers[length]));
+        }
+    }
+
+    private static long addMod(long a, long b) {
+        long sum = a + b;
+        return sum >= MOD ? sum - MOD : sum;
+    }
+
+    private static long mulMod(long a, long b) {
+        long low = a * b;
+        long high = Math.multiplyHigh(a, b);
+        // 2^61 is 1 modulo 2^61 - 1, so fold the 122-bit product in 61-bit pieces
+        long folded = (low & MOD) + (low >>> 61) + (high << 3);
+        folded = (folded & MOD) + (folded >>> 61);
+        return folded >= MOD ? folded - MOD : folded;
+    }
+}
@@ -0,0 +1,86 @@
+package com.ghostwriter.moderation;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * The fingerprints of a published story: its content and all its chapters.
+ * A story that stops being published keeps its entry, marked removed and
+ * emptied, so every instance's in-memory index sees the removal.
+ */
+@Document(collection = "story_fingerprints")
+public class StoryFingerprints {
+
+    @Id
+    private String id;
+    private String userId;
+    private String title;
+    // k and window the hashes were computed with
+    private String params;
+    private long[] hashes;
+    private boolean removed;
+    @Indexed(name = "updatedAt")
+    private Instant updatedAt;
+
+    public StoryFingerprints() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getParams() {
+        return params;
+    }
+
+    public void setParams(String params) {
+        this.params = params;
+    }
+
+    public long[] getHashes() {
+        return hashes;
+    }
+
+    public void setHashes(long[] hashes) {
+        this.hashes = hashes;
+    }
+
+    public boolean isRemoved() {
+        return removed;
+    }
+
+    public void setRemoved(boolean removed) {
+        this.removed = removed;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
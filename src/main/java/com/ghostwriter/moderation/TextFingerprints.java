@@ -0,0 +1,57 @@
+package com.ghostwriter.moderation;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Winnowing fingerprints of one published text. The id is
+ * {@code <k>:<window>:<contentHash>}, so a chapter is fingerprinted once per
+ * version of its content, and identical text in any story shares an entry.
+ * Entries are a cache: one not used by a re-fingerprinted story for 30 days
+ * expires, and is computed again should it be needed.
+ */
+@Document(collection = "text_fingerprints")
+public class TextFingerprints {
+
+    @Id
+    private String id;
+    private long[] hashes;
+    @Indexed(name = "usedAt_ttl", expireAfter = "30d")
+    private Instant usedAt;
+
+    public TextFingerprints() {
+    }
+
+    public TextFingerprints(String id, long[] hashes, Instant usedAt) {
+        this.id = id;
+        this.hashes = hashes;
+        this.usedAt = usedAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long[] getHashes() {
+        return hashes;
+    }
+
+    public void setHashes(long[] hashes) {
+        this.hashes = hashes;
+    }
+
+    public Instant getUsedAt() {
+        return usedAt;
+    }
+
+    public void setUsedAt(Instant usedAt) {
+        this.usedAt = usedAt;
+    }
+}
@@ -0,0 +1,121 @@
+package com.ghostwriter.moderation;
+
+import java.util.Arrays;
+
+/**
+ * Winnowing fingerprints (Schleimer, Wilkerson and Aiken). Text is reduced
+ * to lowercase words, every run of {@code k} words is hashed, and from each
+ * window of {@code window} consecutive hashes the smallest is kept. Two
+ * texts sharing a passage of at least {@code k + window - 1} words are then
+ * guaranteed to share a fingerprint, while shared runs shorter than
+ * {@code k} words are ignored. About 2 / (window + 1) of the k-grams are
+ * kept.
+ */
+public final class Winnowing {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long GRAM_BASE = 0x9E3779B97F4A7C15L;
+
+    private Winnowing() {
+    }
+
+    /**
+     * The distinct fingerprints of a text, sorted.
+     */
+    public static long[] fingerprints(String text, int k, int window) {
+        long[] words = words(text);
+        int grams = words.length - k + 1;
+        if (grams <= 0) {
+            return new long[0];
+        }
+
+        // Polynomial rolling hash over word hashes, then mixed so that the
+        // window minimum is not biased by the text
+        long[] hashes = new long[grams];
+        long power = 1;
+        for (int i = 1; i < k; i++) {
+            power *= GRAM_BASE;
+        }
+        long rolling = 0;
+        for (int i = 0; i < words.length; i++) {
+            if (i >= k) {
+                rolling -= words[i - k] * power;
+            }
+            rolling = rolling * GRAM_BASE + words[i];
+            if (i >= k - 1) {
+                hashes[i - k + 1] = mix(rolling);
+            }
+        }
+        return winnow(hashes, window);
+    }
+
+    // Rightmost minimum of each window, via a deque of candidate positions
+    private static long[] winnow(long[] hashes, int window) {
+        int w = Math.min(window, hashes.length);
+        int[] deque = new int[hashes.length];
+        int head = 0;
+        int tail = 0;
+        long[] picked = new long[hashes.length];
+        int count = 0;
+        int lastPicked = -1;
+        for (int i = 0; i < hashes.length; i++) {
+            while (tail > head && hashes[deque[tail - 1]] >= hashes[i]) {
+                tail--;
+            }
+            deque[tail++] = i;
+            if (deque[head] <= i - w) {
+                head++;
+            }
+            if (i >= w - 1 && deque[head] != lastPicked) {
+                lastPicked = deque[head];
+                picked[count++] = hashes[lastPicked];
+            }
+        }
+        long[] fingerprints = Arrays.copyOf(picked, count);
+        Arrays.sort(fingerprints);
+        int distinct = 0;
+        for (int i = 0; i < fingerprints.length; i++) {
+            if (i == 0 || fingerprints[i] != fingerprints[i - 1]) {
+                fingerprints[distinct++] = fingerprints[i];
+            }
+        }
+        return Arrays.copyOf(fingerprints, distinct);
+    }
+
+    // FNV-1a hash of each run of letters and digits, lowercased
+    private static long[] words(String text) {
+        if (text == null) {
+            return new long[0];
+        }
+        long[] words = new long[64];
+        int count = 0;
+        long hash = FNV_OFFSET;
+        boolean inWord = false;
+        for (int i = 0; i <= text.length(); ) {
+            int c = i < text.length() ? text.codePointAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                hash = (hash ^ Character.toLowerCase(c)) * FNV_PRIME;
+                inWord = true;
+            } else if (inWord) {
+                if (count == words.length) {
+                    words = Arrays.copyOf(words, count * 2);
+                }
+                words[count++] = hash;
+                hash = FNV_OFFSET;
+                inWord = false;
+            }
+            i += i < text.length() ? Character.charCount(c) : 1;
+        }
+        return Arrays.copyOf(words, count);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,33 @@
+package com.ghostwriter.session;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.MapSessionRepository;
+import org.springframework.session.Session;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sessions kept in this instance's memory, for tests and single-instance
+ * development. Sessions are lost on restart and not shared between nodes.
+ */
+public class InMemorySessionRepository extends MapSessionRepository {
+
+    private final Map<String, Session> sessions;
+
+    public InMemorySessionRepository(Duration maxInactiveInterval) {
+        this(new ConcurrentHashMap<>(), maxInactiveInterval);
+    }
+
+    private InMemorySessionRepository(Map<String, Session> sessions, Duration maxInactiveInterval) {
+        super(sessions);
+        this.sessions = sessions;
+        setDefaultMaxInactiveInterval(maxInactiveInterval);
+    }
+
+    @Scheduled(initialDelayString = "${sessions.cleanup-ms:300000}", fixedDelayString = "${sessions.cleanup-ms:300000}")
+    public void purgeExpired() {
+        sessions.values().removeIf(Session::isExpired);
+    }
+}
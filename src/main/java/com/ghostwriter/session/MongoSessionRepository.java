@@ -0,0 +1,247 @@
+package com.ghostwriter.session;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sessions kept in the {@code sessions} collection, so any instance can
+ * serve any request and a restart logs nobody out. Writes are deferred: a
+ * request that only reads its session writes nothing, attributes are
+ * rewritten only when one was set or removed, and the last-access time is
+ * written at most once per touch interval. The stored expiry carries that
+ * interval as slack, so a session can outlive its timeout by at most one
+ * interval but never expires early.
+ */
+public class MongoSessionRepository implements SessionRepository<MongoSessionRepository.MongoSession> {
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration maxInactiveInterval;
+    private final Duration touchInterval;
+    private final ClassLoader classLoader = MongoSessionRepository.class.getClassLoader();
+
+    public MongoSessionRepository(MongoTemplate mongoTemplate, Duration maxInactiveInterval, Duration touchInterval) {
+        this.mongoTemplate = mongoTemplate;
+        this.maxInactiveInterval = maxInactiveInterval;
+        this.touchInterval = touchInterval;
+    }
+
+    @Override
+    public MongoSession createSession() {
+        MapSession session = new MapSession();
+        session.setMaxInactiveInterval(maxInactiveInterval);
+        return new MongoSession(session, null);
+    }
+
+    @Override
+    public void save(MongoSession session) {
+        if (session.storedId == null || !session.storedId.equals(session.getId())) {
+            // New, or its id was changed at login: write it whole under the new id
+            mongoTemplate.save(toStored(session));
+            if (session.storedId != null) {
+                deleteById(session.storedId);
+            }
+        } else {
+            Update update = new Update();
+            if (session.attributesChanged) {
+                update.set("attributes", SessionAttributeCodec.encode(attributesOf(session.delegate)));
+            }
+            boolean touched = Duration.between(session.storedLastAccessed, session.getLastAccessedTime())
+                    .compareTo(touchInterval) >= 0;
+            if (touched || session.maxInactiveChanged) {
+                update.set("lastAccessedAt", session.getLastAccessedTime())
+                        .set("maxInactiveSeconds", session.getMaxInactiveInterval().getSeconds())
+                        .set("expiresAt", expiresAt(session));
+            }
+            if (update.getUpdateObject().isEmpty()) {
+                return;
+            }
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(session.getId())), update,
+                    StoredSession.class);
+        }
+        session.markSaved();
+    }
+
+    @Override
+    public MongoSession findById(String id) {
+        StoredSession stored = mongoTemplate.findById(id, StoredSession.class);
+        if (stored == null) {
+            return null;
+        }
+        if (stored.getExpiresAt() != null && stored.getExpiresAt().isBefore(Instant.now())) {
+            deleteById(id);
+            return null;
+        }
+
+        MapSession session = new MapSession(id);
+        session.setCreationTime(stored.getCreatedAt());
+        session.setLastAccessedTime(stored.getLastAccessedAt());
+        session.setMaxInactiveInterval(Duration.ofSeconds(stored.getMaxInactiveSeconds()));
+        try {
+            SessionAttributeCodec.decode(stored.getAttributes(), classLoader).forEach(session::setAttribute);
+        } catch (IllegalStateException e) {
+            // Typically a class changed between deploys; the user signs in again
+            System.err.println("[Sessions] Discarding unreadable session: " + e.getMessage());
+            deleteById(id);
+            return null;
+        }
+        return new MongoSession(session, id);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(id)), StoredSession.class);
+    }
+
+    /**
+     * Remove sessions whose expiry has passed. Reads already ignore them;
+     * this keeps abandoned ones from piling up.
+     */
+    @Scheduled(initialDelayString = "${sessions.cleanup-ms:300000}", fixedDelayString = "${sessions.cleanup-ms:300000}")
+    public void purgeExpired() {
+        try {
+            long removed = mongoTemplate.remove(Query.query(Criteria.where("expiresAt").lt(Instant.now())),
+                    StoredSession.class).getDeletedCount();
+            if (removed > 0) {
+                System.out.println("[Sessions] Removed " + removed + " expired session(s)");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("[Sessions] Cleanup FAILED: " + e.getMessage());
+        }
+    }
+
+    private StoredSession toStored(MongoSession session) {
+        StoredSession stored = new StoredSession();
+        stored.setId(session.getId());
+        stored.setAttributes(SessionAttributeCodec.encode(attributesOf(session.delegate)));
+        stored.setCreatedAt(session.getCreationTime());
+        stored.setLastAccessedAt(session.getLastAccessedTime());
+        stored.setMaxInactiveSeconds(session.getMaxInactiveInterval().getSeconds());
+        stored.setExpiresAt(expiresAt(session));
+        return stored;
+    }
+
+    private Instant expiresAt(MongoSession session) {
+        // A negative interval means the session never times out
+        if (session.getMaxInactiveInterval().isNegative()) {
+            return null;
+        }
+        return session.getLastAccessedTime().plus(session.getMaxInactiveInterval()).plus(touchInterval);
+    }
+
+    private static Map<String, Object> attributesOf(MapSession session) {
+        Map<String, Object> attributes = new HashMap<>();
+        for (String name : session.getAttributeNames()) {
+            attributes.put(name, session.getAttribute(name));
+        }
+        return attributes;
+    }
+
+    /**
+     * A session that remembers what changed since it was loaded or saved.
+     */
+    public static final class MongoSession implements Session {
+
+        private final MapSession delegate;
+        // Id it is stored under, or null if it has never been saved
+        private String storedId;
+        private Instant storedLastAccessed;
+        private boolean attributesChanged;
+        private boolean maxInactiveChanged;
+
+        MongoSession(MapSession delegate, String storedId) {
+            this.delegate = delegate;
+            this.storedId = storedId;
+            this.storedLastAccessed = delegate.getLastAccessedTime();
+        }
+
+        void markSaved() {
+            storedId = delegate.getId();
+            storedLastAccessed = delegate.getLastAccessedTime();
+            attributesChanged = false;
+            maxInactiveChanged = false;
+        }
+
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            return delegate.changeSessionId();
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return delegate.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return delegate.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            if (attributeValue == null) {
+                removeAttribute(attributeName);
+                return;
+            }
+            delegate.setAttribute(attributeName, attributeValue);
+            attributesChanged = true;
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            if (delegate.getAttribute(attributeName) != null) {
+                delegate.removeAttribute(attributeName);
+                attributesChanged = true;
+            }
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return delegate.getCreationTime();
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            delegate.setLastAccessedTime(lastAccessedTime);
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            if (!interval.equals(delegate.getMaxInactiveInterval())) {
+                delegate.setMaxInactiveInterval(interval);
+                maxInactiveChanged = true;
+            }
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return delegate.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return delegate.isExpired();
+        }
+    }
+}
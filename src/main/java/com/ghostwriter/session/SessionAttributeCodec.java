@@ -0,0 +1,85 @@
+package com.ghostwriter.session;
+
+import org.springframework.core.ConfigurableObjectInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Packs session attributes into one deflated byte array: a format byte,
+ * then the Java-serialized attribute count, names and values. The security
+ * context of a signed-in writer shrinks to a few hundred bytes this way.
+ */
+public final class SessionAttributeCodec {
+
+    private static final byte FORMAT = 1;
+
+    private SessionAttributeCodec() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if an attribute is not serializable
+     */
+    public static byte[] encode(Map<String, Object> attributes) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        bytes.write(FORMAT);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (ObjectOutputStream out = new ObjectOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+            out.writeInt(attributes.size());
+            for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+                out.writeUTF(entry.getKey());
+                try {
+                    out.writeObject(entry.getValue());
+                } catch (NotSerializableException e) {
+                    throw new IllegalArgumentException("Session attribute '" + entry.getKey()
+                            + "' is not serializable: " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode session attributes", e);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Classes are resolved through the given loader, so sessions still read
+     * under the DevTools restart class loader.
+     *
+     * @throws IllegalStateException if the bytes cannot be read, e.g. after a
+     *                               class changed incompatibly
+     */
+    public static Map<String, Object> decode(byte[] data, ClassLoader classLoader) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        if (data == null || data.length == 0) {
+            return attributes;
+        }
+        if (data[0] != FORMAT) {
+            throw new IllegalStateException("Unknown session format " + data[0]);
+        }
+        Inflater inflater = new Inflater();
+        try (ObjectInputStream in = new ConfigurableObjectInputStream(
+                new InflaterInputStream(new ByteArrayInputStream(data, 1, data.length - 1), inflater), classLoader)) {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                attributes.put(in.readUTF(), in.readObject());
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Could not decode session attributes: " + e, e);
+        } finally {
+            inflater.end();
+        }
+        return attributes;
+    }
+}
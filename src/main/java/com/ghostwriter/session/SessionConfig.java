@@ -0,0 +1,40 @@
+package com.ghostwriter.session;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+
+import java.time.Duration;
+
+/**
+ * Replaces the servlet container's sessions with a shared store chosen by
+ * {@code sessions.store}: {@code mongo} (the default) so instances can be
+ * added or restarted freely, or {@code memory} for tests. The session
+ * cookie keeps the container's name, {@code JSESSIONID}. In-memory caches
+ * of stories and counts are kept in step across instances by
+ * {@link com.ghostwriter.cluster.ClusterFeed}.
+ */
+@Configuration
+@EnableSpringHttpSession
+public class SessionConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "sessions.store", havingValue = "mongo", matchIfMissing = true)
+    public MongoSessionRepository mongoSessionRepository(MongoTemplate mongoTemplate,
+            @Value("${server.servlet.session.timeout:30m}") Duration timeout,
+            @Value("${sessions.touch-interval:1m}") Duration touchInterval) {
+        System.out.println("[Sessions] Storing sessions in Mongo");
+        return new MongoSessionRepository(mongoTemplate, timeout, touchInterval);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "sessions.store", havingValue = "memory")
+    public InMemorySessionRepository inMemorySessionRepository(
+            @Value("${server.servlet.session.timeout:30m}") Duration timeout) {
+        System.out.println("[Sessions] Storing sessions in memory; they are not shared between instances");
+        return new InMemorySessionRepository(timeout);
+    }
+}
@@ -0,0 +1,75 @@
+package com.ghostwriter.session;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * An HTTP session as kept in Mongo. Attributes are one compressed blob
+ * written by {@link SessionAttributeCodec}.
+ */
+@Document(collection = "sessions")
+public class StoredSession {
+
+    @Id
+    private String id;
+    private byte[] attributes;
+    private Instant createdAt;
+    private Instant lastAccessedAt;
+    private long maxInactiveSeconds;
+    @Indexed(name = "expiresAt")
+    private Instant expiresAt;
+
+    public StoredSession() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public byte[] getAttributes() {
+        return attributes;
+    }
+
+    public void setAttributes(byte[] attributes) {
+        this.attributes = attributes;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getLastAccessedAt() {
+        return lastAccessedAt;
+    }
+
+    public void setLastAccessedAt(Instant lastAccessedAt) {
+        this.lastAccessedAt = lastAccessedAt;
+    }
+
+    public long getMaxInactiveSeconds() {
+        return maxInactiveSeconds;
+    }
+
+    public void setMaxInactiveSeconds(long maxInactiveSeconds) {
+        this.maxInactiveSeconds = maxInactiveSeconds;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,167 @@
+package com.ghostwriter.story;
+
+import com.ghostwriter.model.CursorPage;
+import com.ghostwriter.model.PageCursor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory copy of the published story cards, newest first. Readers page
+ * through an immutable snapshot without locks or database round trips;
+ * writers build a new snapshot and swap it in whole. A story change patches
+ * that one card into a copy of the list, and a periodic full rebuild picks
+ * up anything that changed without an event, such as like and view counts.
+ */
+@Component
+public class PublishedCatalog {
+
+    private static final Comparator<StoryCard> NEWEST_FIRST = Comparator
+            .comparing(StoryCard::getUpdatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(StoryCard::getId, Comparator.reverseOrder());
+
+    private final MongoTemplate mongoTemplate;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    // Generations restart with the process, so tags also carry the start time
+    private final long startedAt = System.currentTimeMillis();
+
+    public PublishedCatalog(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Whether a snapshot has been loaded yet.
+     */
+    public boolean isReady() {
+        return snapshot.get() != null;
+    }
+
+    /**
+     * Changes every time a new snapshot is swapped in.
+     */
+    public long getGeneration() {
+        Snapshot current = snapshot.get();
+        return current != null ? current.generation : 0;
+    }
+
+    /**
+     * Identifies the current snapshot across restarts, for use in ETags.
+     */
+    public String getSnapshotTag() {
+        return startedAt + "-" + getGeneration();
+    }
+
+    /**
+     * One page of cards after {@code cursor}, in the same order and with the
+     * same cursors as {@link StoryPager}.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     * @throws IllegalStateException    if no snapshot has been loaded yet
+     */
+    public CursorPage<StoryCard> page(String cursor, int size) {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            throw new IllegalStateException("Published catalog not loaded");
+        }
+        List<StoryCard> cards = current.cards;
+
+        int start = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            PageCursor after = PageCursor.decode(cursor);
+            StoryCard probe = new StoryCard();
+            probe.setUpdatedAt(after.getUpdatedAt());
+            probe.setId(after.getId());
+            int index = Collections.binarySearch(cards, probe, NEWEST_FIRST);
+            start = index >= 0 ? index + 1 : -index - 1;
+        }
+
+        int end = Math.min(cards.size(), start + size);
+        List<StoryCard> items = cards.subList(start, end);
+        String next = null;
+        if (end < cards.size() && !items.isEmpty()) {
+            StoryCard last = items.get(items.size() - 1);
+            next = new PageCursor(last.getUpdatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(items, next);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    /**
+     * Patch one story's card into a new snapshot once it has been written.
+     */
+    @EventListener
+    public synchronized void onStoryChanged(StoryChangedEvent event) {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            return; // the initial load will see the change
+        }
+
+        StoryCard card;
+        try {
+            Query query = Query.query(Criteria.where("_id").is(event.getStoryId()).and("status").is("published"));
+            query.fields().include(StoryCard.FIELDS);
+            card = mongoTemplate.query(Story.class).as(StoryCard.class).matching(query).oneValue();
+        } catch (RuntimeException e) {
+            // Leave it to the periodic refresh rather than fail the caller's write
+            System.err.println("[Catalog] Could not reload story " + event.getStoryId() + ": " + e.getMessage());
+            return;
+        }
+
+        List<StoryCard> cards = new ArrayList<>(current.cards.size() + 1);
+        for (StoryCard existing : current.cards) {
+            if (!existing.getId().equals(event.getStoryId())) {
+                cards.add(existing);
+            }
+        }
+        if (card != null) {
+            int index = Collections.binarySearch(cards, card, NEWEST_FIRST);
+            cards.add(index >= 0 ? index : -index - 1, card);
+        }
+        snapshot.set(new Snapshot(cards, current.generation + 1));
+    }
+
+    /**
+     * Rebuild the whole snapshot from the database.
+     */
+    @Scheduled(initialDelayString = "${stories.catalog.refresh-ms:300000}",
+            fixedDelayString = "${stories.catalog.refresh-ms:300000}")
+    public synchronized void refresh() {
+        try {
+            Query query = Query.query(Criteria.where("status").is("published"))
+                    .with(Sort.by(Sort.Direction.DESC, "updatedAt", "_id"));
+            query.fields().include(StoryCard.FIELDS);
+            List<StoryCard> cards = mongoTemplate.query(Story.class).as(StoryCard.class).matching(query).all();
+
+            Snapshot current = snapshot.get();
+            snapshot.set(new Snapshot(cards, current != null ? current.generation + 1 : 1));
+        } catch (RuntimeException e) {
+            System.err.println("[Catalog] Refresh FAILED: " + e.getClass().getSimpleName() + " — " + e.getMessage());
+        }
+    }
+
+    private static final class Snapshot {
+
+        final List<StoryCard> cards;
+        final long generation;
+
+        Snapshot(List<StoryCard> cards, long generation) {
+            this.cards = Collections.unmodifiableList(cards);
+            this.generation = generation;
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package com.ghostwriter.story;
 
+import com.ghostwriter.chapter.ContentHash;
+import com.ghostwriter.chapter.TextStats;
+import com.ghostwriter.media.CoverStore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 
 @Document(collection = "stories")
+@CompoundIndex(name = "status_updatedAt_id", def = "{'status': 1, 'updatedAt': -1, '_id': -1}")
+@CompoundIndex(name = "userId_updatedAt_id", def = "{'userId': 1, 'updatedAt': -1, '_id': -1}")
+@CompoundIndex(name = "userId_status_updatedAt", def = "{'userId': 1, 'status': 1, 'updatedAt': -1}")
 public class Story {
 
     @Id
@@ -14,6 +21,8 @@ public class Story {
     private String authorName;
     private String title;
     private String content;
+    private String contentHash;
+    private long version;
     private String genre;
     private String tone;
     private String status; // "draft", "pending_review", "published", "rejected"
@@ -24,6 +33,19 @@ public class Story {
     private String rejectionReason;
     private int viewCount;
     private int likeCount;
+    private int chapterCount;
+    // Totals over the story's own content and its chapters, kept up from
+    // the two parts below them (see StoryTotals)
+    private long wordCount;
+    private long characterCount;
+    private int readingTimeMinutes;
+    private long contentWordCount;
+    private long contentCharacterCount;
+    private long chapterWordCount;
+    private long chapterCharacterCount;
+    // Card fields, derived from content, summary and coverImage on save
+    private String excerpt;
+    private String coverUrl;
 
     public Story() {
     }
@@ -34,6 +56,14 @@ public class Story {
         this.authorName = authorName;
         this.title = title;
         this.content = content;
+        this.contentHash = ContentHash.of(content);
+        this.excerpt = StoryCard.excerptOf(content, null);
+        TextStats stats = TextStats.of(content);
+        this.contentWordCount = stats.getWordCount();
+        this.contentCharacterCount = stats.getCharacterCount();
+        this.wordCount = contentWordCount;
+        this.characterCount = contentCharacterCount;
+        this.readingTimeMinutes = stats.getReadingTimeMinutes();
         this.genre = genre;
         this.tone = tone;
         this.status = status;
@@ -81,6 +111,22 @@ public class Story {
         this.content = content;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getGenre() {
         return genre;
     }
@@ -160,4 +206,101 @@ public class Story {
     public void setLikeCount(int likeCount) {
         this.likeCount = likeCount;
     }
+
+    public int getChapterCount() {
+        return chapterCount;
+    }
+
+    public void setChapterCount(int chapterCount) {
+        this.chapterCount = chapterCount;
+    }
+
+    public long getWordCount() {
+        return wordCount;
+    }
+
+    public void setWordCount(long wordCount) {
+        this.wordCount = wordCount;
+    }
+
+    public long getCharacterCount() {
+        return characterCount;
+    }
+
+    public void setCharacterCount(long characterCount) {
+        this.characterCount = characterCount;
+    }
+
+    public int getReadingTimeMinutes() {
+        return readingTimeMinutes;
+    }
+
+    public void setReadingTimeMinutes(int readingTimeMinutes) {
+        this.readingTimeMinutes = readingTimeMinutes;
+    }
+
+    public long getContentWordCount() {
+        return contentWordCount;
+    }
+
+    public void setContentWordCount(long contentWordCount) {
+        this.contentWordCount = contentWordCount;
+    }
+
+    public long getContentCharacterCount() {
+        return contentCharacterCount;
+    }
+
+    public void setContentCharacterCount(long contentCharacterCount) {
+        this.contentCharacterCount = contentCharacterCount;
+    }
+
+    public long getChapterWordCount() {
+        return chapterWordCount;
+    }
+
+    public void setChapterWordCount(long chapterWordCount) {
+        this.chapterWordCount = chapterWordCount;
+    }
+
+    public long getChapterCharacterCount() {
+        return chapterCharacterCount;
+    }
+
+    public void setChapterCharacterCount(long chapterCharacterCount) {
+        this.chapterCharacterCount = chapterCharacterCount;
+    }
+
+    public String getExcerpt() {
+        return excerpt;
+    }
+
+    public void setExcerpt(String excerpt) {
+        this.excerpt = excerpt;
+    }
+
+    public String getCoverUrl() {
+        return coverUrl;
+    }
+
+    public void setCoverUrl(String coverUrl) {
+        this.coverUrl = coverUrl;
+    }
+
+    /**
+     * Where the story page loads the cover from: the detail-sized variant of
+     * a stored cover, otherwise the cover value itself.
+     */
+    public String getCoverDetailUrl() {
+        String hash = CoverStore.hashOf(coverImage);
+        return hash != null ? CoverStore.url(hash, CoverStore.DETAIL) : coverImage;
+    }
+
+    /**
+     * Recompute the card fields after content, summary or cover changed.
+     */
+    public void refreshCardFields() {
+        this.excerpt = StoryCard.excerptOf(content, summary);
+        this.coverUrl = StoryCard.coverUrlOf(id, coverImage);
+    }
 }
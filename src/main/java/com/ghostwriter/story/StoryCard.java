@@ -0,0 +1,209 @@
+package com.ghostwriter.story;
+
+import com.ghostwriter.media.CoverStore;
+
+import java.time.Instant;
+
+/**
+ * What a feed or listing needs to draw one story card. Loaded through a
+ * projection, so story bodies and inline cover images never leave the
+ * database for a listing; the excerpt and cover URL are worked out when the
+ * story is saved.
+ */
+public class StoryCard {
+
+    /** Longest excerpt stored on a story, in characters. */
+    public static final int EXCERPT_LENGTH = 200;
+
+    /** The story fields a card is read from. */
+    static final String[] FIELDS = { "title", "authorName", "genre", "tone", "excerpt", "coverUrl",
+            "viewCount", "likeCount", "chapterCount", "wordCount", "readingTimeMinutes",
+            "createdAt", "updatedAt" };
+
+    private String id;
+    private String title;
+    private String authorName;
+    private String genre;
+    private String tone;
+    private String excerpt;
+    private String coverUrl;
+    private int viewCount;
+    private int likeCount;
+    private int chapterCount;
+    private long wordCount;
+    private int readingTimeMinutes;
+    private Instant createdAt;
+    private Instant updatedAt;
+
+    /**
+     * The opening of a story's content, or of its summary when it has no
+     * content of its own, with whitespace collapsed and cut at a word break.
+     */
+    public static String excerptOf(String content, String summary) {
+        String source = content != null && !content.isBlank() ? content : summary;
+        if (source == null) {
+            return "";
+        }
+        StringBuilder excerpt = new StringBuilder(EXCERPT_LENGTH + 1);
+        boolean space = false;
+        for (int i = 0; i < source.length() && excerpt.length() <= EXCERPT_LENGTH; i++) {
+            char c = source.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = excerpt.length() > 0;
+                continue;
+            }
+            if (space) {
+                excerpt.append(' ');
+                space = false;
+            }
+            excerpt.append(c);
+        }
+        if (excerpt.length() <= EXCERPT_LENGTH) {
+            return excerpt.toString();
+        }
+
+        int cut = excerpt.lastIndexOf(" ", EXCERPT_LENGTH);
+        if (cut <= 0) {
+            cut = EXCERPT_LENGTH;
+        }
+        if (Character.isHighSurrogate(excerpt.charAt(cut - 1))) {
+            cut--;
+        }
+        return excerpt.substring(0, cut) + "...";
+    }
+
+    /**
+     * Where a card loads its cover from: the feed-sized variant of a stored
+     * cover, or the cover itself when it is an external URL. Inline data-URL
+     * covers not yet moved into the store are served from the story's cover
+     * endpoint, versioned so browsers can cache them.
+     */
+    public static String coverUrlOf(String storyId, String coverImage) {
+        if (coverImage == null || coverImage.isBlank()) {
+            return null;
+        }
+        String hash = CoverStore.hashOf(coverImage);
+        if (hash != null) {
+            return CoverStore.url(hash, CoverStore.FEED);
+        }
+        if (!coverImage.startsWith("data:")) {
+            return coverImage;
+        }
+        if (storyId == null) {
+            return null;
+        }
+        return "/api/stories/" + storyId + "/cover?v=" + Integer.toHexString(coverImage.hashCode());
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getAuthorName() {
+        return authorName;
+    }
+
+    public void setAuthorName(String authorName) {
+        this.authorName = authorName;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public void setGenre(String genre) {
+        this.genre = genre;
+    }
+
+    public String getTone() {
+        return tone;
+    }
+
+    public void setTone(String tone) {
+        this.tone = tone;
+    }
+
+    public String getExcerpt() {
+        return excerpt;
+    }
+
+    public void setExcerpt(String excerpt) {
+        this.excerpt = excerpt;
+    }
+
+    public String getCoverUrl() {
+        return coverUrl;
+    }
+
+    public void setCoverUrl(String coverUrl) {
+        this.coverUrl = coverUrl;
+    }
+
+    public int getViewCount() {
+        return viewCount;
+    }
+
+    public void setViewCount(int viewCount) {
+        this.viewCount = viewCount;
+    }
+
+    public int getLikeCount() {
+        return likeCount;
+    }
+
+    public void setLikeCount(int likeCount) {
+        this.likeCount = likeCount;
+    }
+
+    public int getChapterCount() {
+        return chapterCount;
+    }
+
+    public void setChapterCount(int chapterCount) {
+        this.chapterCount = chapterCount;
+    }
+
+    public long getWordCount() {
+        return wordCount;
+    }
+
+    public void setWordCount(long wordCount) {
+        this.wordCount = wordCount;
+    }
+
+    public int getReadingTimeMinutes() {
+        return readingTimeMinutes;
+    }
+
+    public void setReadingTimeMinutes(int readingTimeMinutes) {
+        this.readingTimeMinutes = readingTimeMinutes;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
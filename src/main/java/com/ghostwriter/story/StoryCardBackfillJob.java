@@ -0,0 +1,81 @@
+package com.ghostwriter.story;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Fills in the card fields (excerpt and cover URL) of stories saved before
+ * they were stored. Runs once in the background after startup and only
+ * touches stories that lack an excerpt.
+ */
+@Component
+public class StoryCardBackfillJob {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${stories.cards.backfill.enabled:true}")
+    private boolean enabled;
+
+    public StoryCardBackfillJob(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        run();
+    }
+
+    public void run() {
+        try {
+            Query missing = Query.query(Criteria.where("excerpt").exists(false));
+            missing.fields().include("content", "summary", "coverImage");
+
+            int total = 0;
+            int pending = 0;
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Story.class);
+            try (Stream<Story> stream = mongoTemplate.stream(missing, Story.class)) {
+                Iterator<Story> stories = stream.iterator();
+                while (stories.hasNext()) {
+                    Story story = stories.next();
+                    story.refreshCardFields();
+                    bulk.updateOne(Query.query(Criteria.where("_id").is(story.getId())),
+                            new Update()
+                                    .set("excerpt", story.getExcerpt())
+                                    .set("coverUrl", story.getCoverUrl()));
+                    total++;
+                    if (++pending == BATCH_SIZE) {
+                        bulk.execute();
+                        bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Story.class);
+                        pending = 0;
+                    }
+                }
+            }
+            if (pending > 0) {
+                bulk.execute();
+            }
+
+            if (total > 0) {
+                System.out.println("[StoryCards] Filled in card fields for " + total + " stories");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("[StoryCards] Backfill FAILED: " + e.getClass().getSimpleName() + " — " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.ghostwriter.story;
+
+/**
+ * Published after a story was created, edited, moved between statuses or
+ * deleted, so that views derived from stories can catch up. Remote events
+ * relay a change made on another instance.
+ */
+public class StoryChangedEvent {
+
+    private final String storyId;
+    private final boolean remote;
+
+    public StoryChangedEvent(String storyId) {
+        this(storyId, false);
+    }
+
+    private StoryChangedEvent(String storyId, boolean remote) {
+        this.storyId = storyId;
+        this.remote = remote;
+    }
+
+    public static StoryChangedEvent remote(String storyId) {
+        return new StoryChangedEvent(storyId, true);
+    }
+
+    public String getStoryId() {
+        return storyId;
+    }
+
+    public boolean isRemote() {
+        return remote;
+    }
+}
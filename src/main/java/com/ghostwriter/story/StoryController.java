@@ -1,26 +1,32 @@
 package com.ghostwriter.story;
 
+import com.ghostwriter.media.CoverStore;
+import com.ghostwriter.model.CacheValidator;
+import com.ghostwriter.model.ContentPatchRequest;
+import com.ghostwriter.model.StaleVersionException;
+import com.ghostwriter.user.CurrentUser;
 import com.ghostwriter.user.User;
-import com.ghostwriter.user.UserRepository;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
+import java.net.URI;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/stories")
 public class StoryController {
 
     private final StoryService storyService;
-    private final UserRepository userRepository;
+    private final StoryPager storyPager;
 
-    public StoryController(StoryService storyService, UserRepository userRepository) {
+    public StoryController(StoryService storyService, StoryPager storyPager) {
         this.storyService = storyService;
-        this.userRepository = userRepository;
+        this.storyPager = storyPager;
     }
 
     /**
@@ -28,8 +34,7 @@ public class StoryController {
      */
     @PostMapping
     public ResponseEntity<?> createStory(@RequestBody Map<String, String> body,
-            @AuthenticationPrincipal OAuth2User principal) {
-        User user = resolveUser(principal);
+            @CurrentUser User user) {
         if (user == null) {
             return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
         }
@@ -51,15 +56,14 @@ public class StoryController {
     @PutMapping("/{id}")
     public ResponseEntity<?> updateStory(@PathVariable String id,
             @RequestBody Map<String, String> body,
-            @AuthenticationPrincipal OAuth2User principal) {
-        User user = resolveUser(principal);
+            @CurrentUser User user) {
         if (user == null) {
             return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
         }
 
         try {
             String title = body.getOrDefault("title", "Untitled");
-            String content = body.getOrDefault("content", "");
+            String content = body.get("content"); // absent: keep stored content
             String genre = body.getOrDefault("genre", "");
             String tone = body.getOrDefault("tone", "");
             String status = body.getOrDefault("status", "draft");
@@ -72,13 +76,35 @@ public class StoryController {
         }
     }
 
+    /**
+     * Apply text deltas to a story's content against a known version.
+     */
+    @PatchMapping("/{id}/content")
+    public ResponseEntity<?> patchStoryContent(@PathVariable String id,
+            @RequestBody ContentPatchRequest body,
+            @CurrentUser User user) {
+        if (user == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+
+        try {
+            Story story = storyService.patchContent(id, user.getId(), body);
+            return ResponseEntity.ok(story);
+        } catch (StaleVersionException e) {
+            return ResponseEntity.status(409).body(Map.of(
+                    "error", e.getMessage(),
+                    "version", e.getCurrentVersion()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Delete a story.
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteStory(@PathVariable String id,
-            @AuthenticationPrincipal OAuth2User principal) {
-        User user = resolveUser(principal);
+            @CurrentUser User user) {
         if (user == null) {
             return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
         }
@@ -95,41 +121,99 @@ public class StoryController {
      * Get current user's stories.
      */
     @GetMapping("/mine")
-    public ResponseEntity<?> myStories(@AuthenticationPrincipal OAuth2User principal) {
-        User user = resolveUser(principal);
+    public ResponseEntity<?> myStories(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @CurrentUser User user) {
         if (user == null) {
             return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
         }
-        List<Story> stories = storyService.getUserStories(user.getId());
-        return ResponseEntity.ok(stories);
+        try {
+            return ResponseEntity.ok(storyService.getUserStories(user.getId(), cursor, storyPager.pageSize(size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     /**
-     * Get all published stories (public).
+     * Get a page of published story cards (public).
      */
     @GetMapping("/published")
-    public ResponseEntity<List<Story>> publishedStories() {
-        return ResponseEntity.ok(storyService.getAllPublished());
+    public ResponseEntity<?> publishedStories(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size, WebRequest request) {
+        int pageSize = storyPager.pageSize(size);
+        Optional<CacheValidator> validator = storyService.getPublishedValidator(cursor, pageSize);
+        if (validator.isPresent() && request.checkNotModified(validator.get().getEtag())) {
+            return null;
+        }
+        try {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+            validator.ifPresent(v -> response.eTag(v.getEtag()));
+            return response.body(storyService.getPublishedCards(cursor, pageSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     /**
-     * Get a single story by ID (public for published).
+     * Serve a story's cover (public). Stored covers redirect to their
+     * immutable media URL; inline data-URL covers not yet moved into the
+     * store are decoded here. Card URLs carry a version parameter, so the
+     * response can be cached for good.
      */
-    @GetMapping("/{id}")
-    public ResponseEntity<?> getStory(@PathVariable String id) {
-        Optional<Story> opt = storyService.getStoryById(id);
-        if (opt.isEmpty()) {
+    @GetMapping("/{id}/cover")
+    public ResponseEntity<byte[]> getCover(@PathVariable String id) {
+        Optional<String> cover = storyService.getCoverImage(id);
+        String hash = cover.map(CoverStore::hashOf).orElse(null);
+        if (hash != null) {
+            return ResponseEntity.status(301)
+                    .location(URI.create(CoverStore.url(hash, CoverStore.DETAIL)))
+                    .build();
+        }
+        if (cover.isEmpty() || !cover.get().startsWith("data:")) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(opt.get());
-    }
 
-    // ─── Helper ───
+        String dataUrl = cover.get();
+        try {
+            byte[] bytes = CoverStore.decodeDataUrl(dataUrl);
+            String meta = dataUrl.substring(5, dataUrl.indexOf(','));
+            String type = meta.endsWith(";base64") ? meta.substring(0, meta.length() - 7) : meta;
+            int params = type.indexOf(';');
+            if (params >= 0) {
+                type = type.substring(0, params);
+            }
+            return ResponseEntity.ok()
+                    .contentType(type.isEmpty() ? MediaType.APPLICATION_OCTET_STREAM : MediaType.parseMediaType(type))
+                    .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic())
+                    .body(bytes);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
 
-    private User resolveUser(OAuth2User principal) {
-        if (principal == null)
+    /**
+     * Get a single story by ID (public for published). Answers conditional
+     * requests with 304 before the story body is loaded.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getStory(@PathVariable String id, WebRequest request) {
+        Optional<CacheValidator> validator = storyService.getValidator(id);
+        if (validator.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        CacheValidator v = validator.get();
+        if (request.checkNotModified(v.getEtag(), v.getLastModifiedMillis())) {
             return null;
-        String githubId = String.valueOf(principal.getAttributes().get("id"));
-        return userRepository.findByGithubId(githubId).orElse(null);
+        }
+
+        Optional<Story> opt = storyService.getStoryById(id);
+        if (opt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(v.getEtag())
+                .lastModified(v.getLastModifiedMillis())
+                .body(opt.get());
     }
 }
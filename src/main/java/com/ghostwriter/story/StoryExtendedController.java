@@ -1,13 +1,12 @@
 package com.ghostwriter.story;
 
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
+import com.ghostwriter.media.CoverService;
+import com.ghostwriter.user.CurrentUser;
 import com.ghostwriter.user.User;
-import com.ghostwriter.user.UserRepository;
 
-import java.time.Instant;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
@@ -20,11 +19,14 @@ import java.util.Optional;
 public class StoryExtendedController {
 
     private final StoryRepository storyRepository;
-    private final UserRepository userRepository;
+    private final StoryService storyService;
+    private final CoverService coverService;
 
-    public StoryExtendedController(StoryRepository storyRepository, UserRepository userRepository) {
+    public StoryExtendedController(StoryRepository storyRepository,
+            StoryService storyService, CoverService coverService) {
         this.storyRepository = storyRepository;
-        this.userRepository = userRepository;
+        this.storyService = storyService;
+        this.coverService = coverService;
     }
 
     /**
@@ -34,9 +36,7 @@ public class StoryExtendedController {
     public ResponseEntity<?> updateExtendedFields(
             @PathVariable String id,
             @RequestBody Map<String, String> body,
-            @AuthenticationPrincipal OAuth2User principal) {
-
-        User user = resolveUser(principal);
+            @CurrentUser User user) {
         if (user == null) {
             return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
         }
@@ -51,22 +51,19 @@ public class StoryExtendedController {
             return ResponseEntity.status(403).body(Map.of("error", "Not authorized"));
         }
 
+        Map<String, String> fields = new HashMap<>();
         if (body.containsKey("summary")) {
-            story.setSummary(body.get("summary"));
+            fields.put("summary", body.get("summary"));
         }
         if (body.containsKey("coverImage")) {
-            story.setCoverImage(body.get("coverImage"));
+            try {
+                // Inline images are moved into the cover store; only the reference is kept
+                fields.put("coverImage", coverService.importCover(body.get("coverImage")));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
         }
-        story.setUpdatedAt(Instant.now());
-        storyRepository.save(story);
-
-        return ResponseEntity.ok(story);
-    }
 
-    private User resolveUser(OAuth2User principal) {
-        if (principal == null)
-            return null;
-        String githubId = String.valueOf(principal.getAttributes().get("id"));
-        return userRepository.findByGithubId(githubId).orElse(null);
+        return ResponseEntity.ok(storyService.updateExtendedFields(story, fields));
     }
 }
@@ -0,0 +1,77 @@
+package com.ghostwriter.story;
+
+import com.ghostwriter.model.CursorPage;
+import com.ghostwriter.model.PageCursor;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Reads story lists a page at a time, newest first, resuming after the last
+ * story of the previous page instead of skipping over it. Each page is a
+ * bounded walk of the (…, updatedAt, _id) indexes declared on {@link Story},
+ * so the cost of a page does not depend on how deep into the list it is.
+ */
+@Component
+public class StoryPager {
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "updatedAt", "_id");
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${stories.page-size:24}")
+    private int defaultPageSize;
+
+    @Value("${stories.max-page-size:100}")
+    private int maxPageSize;
+
+    public StoryPager(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Clamp a requested page size, using the configured default when none
+     * was given.
+     */
+    public int pageSize(Integer requested) {
+        if (requested == null || requested < 1) {
+            return defaultPageSize;
+        }
+        return Math.min(requested, maxPageSize);
+    }
+
+    /**
+     * One page of stories matching {@code query}, read as {@code type}.
+     * The query carries the filter and any field projection.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public <T> CursorPage<T> page(Query query, String cursor, int size, Class<T> type,
+            Function<T, Instant> updatedAt, Function<T, String> id) {
+        if (cursor != null && !cursor.isBlank()) {
+            PageCursor after = PageCursor.decode(cursor);
+            Object afterId = ObjectId.isValid(after.getId()) ? new ObjectId(after.getId()) : after.getId();
+            query.addCriteria(new Criteria().orOperator(
+                    Criteria.where("updatedAt").lt(after.getUpdatedAt()),
+                    Criteria.where("updatedAt").is(after.getUpdatedAt()).and("_id").lt(afterId)));
+        }
+        query.with(NEWEST_FIRST).limit(size + 1);
+
+        List<T> items = mongoTemplate.query(Story.class).as(type).matching(query).all();
+        String next = null;
+        if (items.size() > size) {
+            items = items.subList(0, size);
+            T last = items.get(size - 1);
+            next = new PageCursor(updatedAt.apply(last), id.apply(last)).encode();
+        }
+        return new CursorPage<>(items, next);
+    }
+}
@@ -1,8 +1,10 @@
 package com.ghostwriter.story;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface StoryRepository extends MongoRepository<Story, String> {
 
@@ -11,4 +13,11 @@ public interface StoryRepository extends MongoRepository<Story, String> {
     List<Story> findByStatusOrderByUpdatedAtDesc(String status);
 
     List<Story> findByUserIdAndStatusOrderByUpdatedAtDesc(String userId, String status);
+
+    boolean existsByIdAndUserId(String id, String userId);
+
+    long countByStatus(String status);
+
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'coverImage': 1 }")
+    Optional<Story> findCoverById(String id);
 }
@@ -1,26 +1,55 @@
 package com.ghostwriter.story;
 
+import com.ghostwriter.chapter.ContentHash;
+import com.ghostwriter.chapter.TextStats;
+import com.ghostwriter.model.CacheValidator;
+import com.ghostwriter.model.ContentPatchRequest;
+import com.ghostwriter.model.CursorPage;
+import com.ghostwriter.model.VersionedPatch;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class StoryService {
 
     private final StoryRepository storyRepository;
+    private final MongoTemplate mongoTemplate;
+    private final StoryPager storyPager;
+    private final PublishedCatalog publishedCatalog;
+    private final ApplicationEventPublisher events;
 
-    public StoryService(StoryRepository storyRepository) {
+    public StoryService(StoryRepository storyRepository, MongoTemplate mongoTemplate, StoryPager storyPager,
+            PublishedCatalog publishedCatalog, ApplicationEventPublisher events) {
         this.storyRepository = storyRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.storyPager = storyPager;
+        this.publishedCatalog = publishedCatalog;
+        this.events = events;
     }
 
     public Story createStory(String userId, String authorName, String title,
             String content, String genre, String tone, String status) {
-        Story story = new Story(userId, authorName, title, content, genre, tone, status);
-        return storyRepository.save(story);
+        Story story = storyRepository.save(new Story(userId, authorName, title, content, genre, tone, status));
+        events.publishEvent(new StoryChangedEvent(story.getId()));
+        return story;
     }
 
+    /**
+     * Update story fields. A null {@code content} leaves the stored content
+     * untouched, for clients that send content through {@link #patchContent}.
+     * Only the edited fields are written, so counters kept up by other
+     * writers survive, and a content change bumps the version atomically.
+     */
     public Story updateStory(String storyId, String userId, String title,
             String content, String genre, String tone, String status) {
         Optional<Story> opt = storyRepository.findById(storyId);
@@ -31,13 +60,66 @@ public class StoryService {
         if (!story.getUserId().equals(userId)) {
             throw new RuntimeException("Not authorized to edit this story");
         }
-        story.setTitle(title);
-        story.setContent(content);
-        story.setGenre(genre);
-        story.setTone(tone);
-        story.setStatus(status);
-        story.setUpdatedAt(Instant.now());
-        return storyRepository.save(story);
+        Update update = new Update()
+                .set("title", title)
+                .set("genre", genre)
+                .set("tone", tone)
+                .set("status", status)
+                .set("updatedAt", Instant.now());
+        if (content == null) {
+            return modify(storyId, update);
+        }
+        contentUpdate(update, content, story.getSummary()).inc("version", 1);
+        Story saved = withTotals(write(storyId, update));
+        events.publishEvent(new StoryChangedEvent(storyId));
+        return saved;
+    }
+
+    /**
+     * Set a story's status and rejection reason, writing nothing else.
+     */
+    public Story setStatus(String storyId, String status, String rejectionReason) {
+        Update update = new Update()
+                .set("status", status)
+                .set("rejectionReason", rejectionReason)
+                .set("updatedAt", Instant.now());
+        return modify(storyId, update);
+    }
+
+    /**
+     * Set the summary and cover image of a story, as far as they are given
+     * in {@code fields}, along with the card fields derived from them.
+     */
+    public Story updateExtendedFields(Story story, Map<String, String> fields) {
+        String summary = fields.containsKey("summary") ? fields.get("summary") : story.getSummary();
+        String coverImage = fields.containsKey("coverImage") ? fields.get("coverImage") : story.getCoverImage();
+        Update update = new Update()
+                .set("excerpt", StoryCard.excerptOf(story.getContent(), summary))
+                .set("coverUrl", StoryCard.coverUrlOf(story.getId(), coverImage))
+                .set("updatedAt", Instant.now());
+        fields.forEach(update::set);
+        return modify(story.getId(), update);
+    }
+
+    /**
+     * Apply text deltas to a story's content, provided they were made against
+     * the current version. Returns the updated story without its content.
+     */
+    public Story patchContent(String storyId, String userId, ContentPatchRequest patch) {
+        Optional<Story> opt = storyRepository.findById(storyId);
+        if (opt.isEmpty()) {
+            throw new RuntimeException("Story not found");
+        }
+        Story story = opt.get();
+        if (!story.getUserId().equals(userId)) {
+            throw new RuntimeException("Not authorized to edit this story");
+        }
+        String content = patch.applyTo(story.getContent());
+        Update update = contentUpdate(new Update(), content, story.getSummary()).set("updatedAt", Instant.now());
+        Story updated = withTotals(
+                VersionedPatch.apply(mongoTemplate, Story.class, storyId, story.getVersion(), patch, update));
+        events.publishEvent(new StoryChangedEvent(storyId));
+        return updated;
     }
 
     public void deleteStory(String storyId, String userId) {
@@ -50,16 +132,56 @@ public class StoryService {
             throw new RuntimeException("Not authorized to delete this story");
         }
         storyRepository.delete(story);
+        events.publishEvent(new StoryChangedEvent(storyId));
     }
 
     public Optional<Story> getStoryById(String storyId) {
         return storyRepository.findById(storyId);
     }
 
+    /**
+     * Validator for a story's JSON, read without content or cover. Counts
+     * are part of the tag because they change without touching updatedAt.
+     */
+    public Optional<CacheValidator> getValidator(String storyId) {
+        Query query = Query.query(Criteria.where("_id").is(storyId));
+        query.fields().include("updatedAt", "version", "contentHash",
+                "likeCount", "viewCount", "chapterCount", "wordCount");
+        Story story = mongoTemplate.findOne(query, Story.class);
+        if (story == null) {
+            return Optional.empty();
+        }
+        return Optional.of(CacheValidator.of(story.getUpdatedAt(), story.getId(), story.getUpdatedAt(),
+                story.getVersion(), story.getContentHash(), story.getLikeCount(), story.getViewCount(),
+                story.getChapterCount(), story.getWordCount()));
+    }
+
+    /**
+     * Validator for a page of the published feed, if it is being served
+     * from the in-memory catalog: the page can only change when the
+     * catalog snapshot does.
+     */
+    public Optional<CacheValidator> getPublishedValidator(String cursor, int size) {
+        if (!publishedCatalog.isReady()) {
+            return Optional.empty();
+        }
+        return Optional.of(CacheValidator.of(null, publishedCatalog.getSnapshotTag(), cursor, size));
+    }
+
     public List<Story> getUserStories(String userId) {
         return storyRepository.findByUserIdOrderByUpdatedAtDesc(userId);
     }
 
+    /**
+     * A page of a user's stories, newest first, without content or inline
+     * cover images.
+     */
+    public CursorPage<Story> getUserStories(String userId, String cursor, int size) {
+        Query query = Query.query(Criteria.where("userId").is(userId));
+        query.fields().exclude("content", "coverImage");
+        return storyPager.page(query, cursor, size, Story.class, Story::getUpdatedAt, Story::getId);
+    }
+
     public List<Story> getUserDrafts(String userId) {
         return storyRepository.findByUserIdAndStatusOrderByUpdatedAtDesc(userId, "draft");
     }
@@ -68,7 +190,66 @@ public class StoryService {
         return storyRepository.findByUserIdAndStatusOrderByUpdatedAtDesc(userId, "published");
     }
 
-    public List<Story> getAllPublished() {
-        return storyRepository.findByStatusOrderByUpdatedAtDesc("published");
+    /**
+     * A page of published story cards, newest first. Served from the
+     * in-memory catalog once it has loaded.
+     */
+    public CursorPage<StoryCard> getPublishedCards(String cursor, int size) {
+        if (publishedCatalog.isReady()) {
+            return publishedCatalog.page(cursor, size);
+        }
+        Query query = Query.query(Criteria.where("status").is("published"));
+        query.fields().include(StoryCard.FIELDS);
+        return storyPager.page(query, cursor, size, StoryCard.class, StoryCard::getUpdatedAt, StoryCard::getId);
+    }
+
+    /**
+     * The inline cover image of a story, if it has one.
+     */
+    public Optional<String> getCoverImage(String storyId) {
+        return storyRepository.findCoverById(storyId).map(Story::getCoverImage);
+    }
+
+    // Content and the fields derived from it are always written together
+    private static Update contentUpdate(Update update, String content, String summary) {
+        TextStats stats = TextStats.of(content);
+        return update
+                .set("content", content)
+                .set("contentHash", ContentHash.of(content))
+                .set("excerpt", StoryCard.excerptOf(content, summary))
+                .set("contentWordCount", stats.getWordCount())
+                .set("contentCharacterCount", stats.getCharacterCount());
+    }
+
+    // Bring the totals in line with the content part just written, and
+    // return the story with them
+    private Story withTotals(Story story) {
+        Query query = Query.query(Criteria.where("_id").is(story.getId()));
+        query.fields().include("wordCount", "characterCount", "readingTimeMinutes");
+        Story totals = mongoTemplate.findAndModify(query, StoryTotals.refresh(),
+                FindAndModifyOptions.options().returnNew(true), Story.class);
+        if (totals != null) {
+            story.setWordCount(totals.getWordCount());
+            story.setCharacterCount(totals.getCharacterCount());
+            story.setReadingTimeMinutes(totals.getReadingTimeMinutes());
+        }
+        return story;
+    }
+
+    // Write only the given fields, so counters maintained with $inc elsewhere
+    // are never overwritten with a stale copy
+    private Story modify(String storyId, Update update) {
+        Story saved = write(storyId, update);
+        events.publishEvent(new StoryChangedEvent(storyId));
+        return saved;
+    }
+
+    private Story write(String storyId, Update update) {
+        Story saved = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(storyId)), update,
+                FindAndModifyOptions.options().returnNew(true), Story.class);
+        if (saved == null) {
+            throw new RuntimeException("Story not found");
+        }
+        return saved;
     }
 }
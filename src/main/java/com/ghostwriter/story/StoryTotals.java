@@ -0,0 +1,95 @@
+package com.ghostwriter.story;
+
+import com.ghostwriter.chapter.TextStats;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Updates for a story's word and character totals, which count its own
+ * content as well as its chapters. Each part is stored on the story and
+ * every update recomputes the totals from the stored parts, so chapter edits
+ * and edits of the story's own text never overwrite each other's figures.
+ */
+public final class StoryTotals {
+
+    private StoryTotals() {
+    }
+
+    /**
+     * Shift the chapter part by the given deltas.
+     */
+    public static AggregationUpdate shiftChapters(long words, long characters, int chapters) {
+        return withTotals(new Document()
+                .append("chapterWordCount", plus("$chapterWordCount", words))
+                .append("chapterCharacterCount", plus("$chapterCharacterCount", characters))
+                .append("chapterCount", plus(new Document("$ifNull", List.of("$chapterCount", 0)), chapters)));
+    }
+
+    /**
+     * Replace the chapter part with freshly counted figures.
+     */
+    public static AggregationUpdate setChapters(long words, long characters, int chapters) {
+        return withTotals(new Document()
+                .append("chapterWordCount", words)
+                .append("chapterCharacterCount", characters)
+                .append("chapterCount", chapters));
+    }
+
+    /**
+     * Set the part counted from the story's own content.
+     */
+    public static AggregationUpdate setContent(TextStats stats) {
+        return withTotals(new Document()
+                .append("contentWordCount", stats.getWordCount())
+                .append("contentCharacterCount", stats.getCharacterCount()));
+    }
+
+    /**
+     * Recompute the totals from the stored parts, e.g. after the content
+     * part was written along with the content itself.
+     */
+    public static AggregationUpdate refresh() {
+        return withTotals(null);
+    }
+
+    private static AggregationUpdate withTotals(Document parts) {
+        // Stories counted before the parts were stored have only chapter
+        // figures in their totals
+        Document legacy = new Document()
+                .append("chapterWordCount", chapterPart("chapterWordCount", "wordCount"))
+                .append("chapterCharacterCount", chapterPart("chapterCharacterCount", "characterCount"));
+        Document totals = new Document()
+                .append("wordCount", sum("$chapterWordCount", "$contentWordCount"))
+                .append("characterCount", sum("$chapterCharacterCount", "$contentCharacterCount"));
+        Document minutes = new Document("$toInt", new Document("$ceil",
+                new Document("$divide", List.of("$wordCount", TextStats.WORDS_PER_MINUTE))));
+
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.stage(new Document("$set", legacy)));
+        if (parts != null) {
+            stages.add(Aggregation.stage(new Document("$set", parts)));
+        }
+        stages.add(Aggregation.stage(new Document("$set", totals)));
+        stages.add(Aggregation.stage(new Document("$set", new Document("readingTimeMinutes", minutes))));
+        return AggregationUpdate.from(stages);
+    }
+
+    private static Document chapterPart(String field, String legacyTotal) {
+        return new Document("$ifNull", List.of("$" + field, new Document("$ifNull", List.of("$" + legacyTotal, 0L))));
+    }
+
+    private static Document plus(Object value, long delta) {
+        return new Document("$add", List.of(value, delta));
+    }
+
+    private static Document sum(String first, String second) {
+        return new Document("$add", List.of(
+                new Document("$ifNull", List.of(first, 0L)),
+                new Document("$ifNull", List.of(second, 0L))));
+    }
+}
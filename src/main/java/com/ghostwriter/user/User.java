@@ -1,6 +1,7 @@
 package com.ghostwriter.user;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
@@ -10,6 +11,7 @@ public class User {
 
     @Id
     private String id;
+    @Indexed(name = "githubId", unique = true)
     private String githubId;
     private String username;
     private String email;
@@ -0,0 +1,105 @@
+package com.ghostwriter.user;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded, time-limited cache of users by GitHub ID, so resolving the
+ * signed-in user does not cost a database round trip on every request.
+ * Entries are replaced whenever the user is saved at login, and dropped when
+ * another instance saves them; the TTL bounds how long a change can go
+ * unseen if that notice is lost. Callers always get their own copy, so
+ * changing a returned user never affects other requests.
+ */
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final long ttlMs;
+    private final Map<String, Entry> entries;
+
+    public UserCache(UserRepository userRepository,
+            @Value("${users.cache.ttl-ms:300000}") long ttlMs,
+            @Value("${users.cache.max-size:10000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.ttlMs = ttlMs;
+        // Access-ordered, so the least recently used user is evicted first
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * The user with this GitHub ID, from the cache or else the database.
+     * Unknown IDs are not cached, so a user created later is found at once.
+     */
+    public Optional<User> findByGithubId(String githubId) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry entry = entries.get(githubId);
+            if (entry != null && entry.expiresAt > now) {
+                return Optional.of(copyOf(entry.user));
+            }
+        }
+        Optional<User> user = userRepository.findByGithubId(githubId);
+        user.ifPresent(this::put);
+        return user.map(UserCache::copyOf);
+    }
+
+    /**
+     * Cache a user that was just saved, replacing any stale copy.
+     */
+    public void put(User user) {
+        if (user.getGithubId() == null) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(user.getGithubId(), new Entry(copyOf(user), System.currentTimeMillis() + ttlMs));
+        }
+    }
+
+    public void invalidate(String githubId) {
+        synchronized (entries) {
+            entries.remove(githubId);
+        }
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        // Local saves have already replaced the entry
+        if (event.isRemote()) {
+            invalidate(event.getGithubId());
+        }
+    }
+
+    private static User copyOf(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setGithubId(user.getGithubId());
+        copy.setUsername(user.getUsername());
+        copy.setEmail(user.getEmail());
+        copy.setAvatarUrl(user.getAvatarUrl());
+        copy.setProvider(user.getProvider());
+        copy.setCreatedAt(user.getCreatedAt());
+        return copy;
+    }
+
+    private static final class Entry {
+
+        final User user;
+        final long expiresAt;
+
+        Entry(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.ghostwriter.user;
+
+/**
+ * Published after a user was saved, so that cached copies can be dropped.
+ * Remote events relay a save made on another instance.
+ */
+public class UserChangedEvent {
+
+    private final String githubId;
+    private final boolean remote;
+
+    public UserChangedEvent(String githubId) {
+        this(githubId, false);
+    }
+
+    private UserChangedEvent(String githubId, boolean remote) {
+        this.githubId = githubId;
+        this.remote = remote;
+    }
+
+    public static UserChangedEvent remote(String githubId) {
+        return new UserChangedEvent(githubId, true);
+    }
+
+    public String getGithubId() {
+        return githubId;
+    }
+
+    public boolean isRemote() {
+        return remote;
+    }
+}
@@ -7,6 +7,4 @@ import java.util.Optional;
 public interface UserRepository extends MongoRepository<User, String> {
 
     Optional<User> findByGithubId(String githubId);
-
-    Optional<User> findByUsername(String username);
 }
@@ -5,6 +5,7 @@
     var pendingStories = [];
     var publishedStories = [];
     var rejectedStories = [];
+    var cursors = { pending: null, published: null, rejected: null };
     var rejectingStoryId = null;
 
     // ═══════════════════════════════════════
@@ -33,15 +34,20 @@
         Promise.all([
             fetch('/api/admin/stories/pending').then(function (r) { return r.json(); }),
             fetch('/api/admin/stories/published').then(function (r) { return r.json(); }),
-            fetch('/api/admin/stories/rejected').then(function (r) { return r.json(); })
+            fetch('/api/admin/stories/rejected').then(function (r) { return r.json(); }),
+            fetch('/api/admin/stories/counts').then(function (r) { return r.json(); })
         ]).then(function (results) {
-            pendingStories = Array.isArray(results[0]) ? results[0] : [];
-            publishedStories = Array.isArray(results[1]) ? results[1] : [];
-            rejectedStories = Array.isArray(results[2]) ? results[2] : [];
+            pendingStories = pageItems(results[0]);
+            publishedStories = pageItems(results[1]);
+            rejectedStories = pageItems(results[2]);
+            cursors.pending = results[0].nextCursor || null;
+            cursors.published = results[1].nextCursor || null;
+            cursors.rejected = results[2].nextCursor || null;
 
-            document.getElementById('pendingCount').textContent = pendingStories.length;
-            document.getElementById('publishedCount').textContent = publishedStories.length;
-            document.getElementById('rejectedCount').textContent = rejectedStories.length;
+            var counts = results[3] || {};
+            document.getElementById('pendingCount').textContent = counts.pending || 0;
+            document.getElementById('publishedCount').textContent = counts.published || 0;
+            document.getElementById('rejectedCount').textContent = counts.rejected || 0;
 
             renderStories();
         }).catch(function () {
@@ -49,6 +55,46 @@
         });
     }
 
+    // Fetch the next page of the current tab and append it
+    function loadMoreStories() {
+        var tab = currentTab;
+        if (!cursors[tab]) return;
+        fetch('/api/admin/stories/' + tab + '?cursor=' + encodeURIComponent(cursors[tab]))
+            .then(function (r) { return r.json(); })
+            .then(function (page) {
+                var items = pageItems(page);
+                if (tab === 'pending') pendingStories = pendingStories.concat(items);
+                else if (tab === 'published') publishedStories = publishedStories.concat(items);
+                else rejectedStories = rejectedStories.concat(items);
+                cursors[tab] = page.nextCursor || null;
+                renderStories();
+            })
+            .catch(function () {
+                showToast('Failed to load stories');
+            });
+    }
+
+    function pageItems(page) {
+        return page && Array.isArray(page.items) ? page.items : [];
+    }
+
+    // "Load more" sits after the list while the current tab has further pages
+    function updateMoreButton(container) {
+        var more = document.getElementById('adminStoriesMore');
+        if (!cursors[currentTab]) {
+            if (more) more.remove();
+            return;
+        }
+        if (!more) {
+            more = document.createElement('button');
+            more.id = 'adminStoriesMore';
+            more.className = 'btn-secondary load-more-btn';
+            more.textContent = 'Load more stories';
+            more.addEventListener('click', loadMoreStories);
+            container.parentNode.insertBefore(more, container.nextSibling);
+        }
+    }
+
     // ═══════════════════════════════════════
     // Render Stories
     // ═══════════════════════════════════════
@@ -57,6 +103,7 @@
         var stories = currentTab === 'pending' ? pendingStories
             : currentTab === 'published' ? publishedStories
                 : rejectedStories;
+        updateMoreButton(container);
 
         if (stories.length === 0) {
             var msg = currentTab === 'pending' ? 'No stories pending review'
@@ -72,8 +119,7 @@
 
         var html = '';
         stories.forEach(function (story) {
-            var preview = (story.content || story.summary || '').substring(0, 200);
-            if (preview.length >= 200) preview += '...';
+            var preview = story.excerpt || story.summary || '';
             var date = story.updatedAt ? new Date(story.updatedAt).toLocaleDateString() : '';
 
             html += '<div class="admin-story-card">';
@@ -3,17 +3,20 @@
 
     var currentTab = 'all';
     var allStories = [];
+    var nextCursor = null;
     var editingStoryId = null;
 
     // ═══════════════════════════════════════
-    // Load Stories
+    // Load Stories (one page at a time; no cursor reloads from the top)
     // ═══════════════════════════════════════
-    function loadStories() {
-        fetch('/api/stories/mine')
+    function loadStories(cursor) {
+        var url = '/api/stories/mine' + (cursor ? '?cursor=' + encodeURIComponent(cursor) : '');
+        fetch(url)
             .then(function (resp) { return resp.json(); })
-            .then(function (data) {
-                if (Array.isArray(data)) {
-                    allStories = data;
+            .then(function (page) {
+                if (page && Array.isArray(page.items)) {
+                    allStories = cursor ? allStories.concat(page.items) : page.items;
+                    nextCursor = page.nextCursor;
                     renderStories();
                 }
             })
@@ -28,6 +31,7 @@
     function renderStories() {
         var container = document.getElementById('storiesGrid');
         if (!container) return;
+        updateMoreButton(container);
 
         var filtered = allStories;
         if (currentTab === 'drafts') {
@@ -51,8 +55,7 @@
 
         var html = '';
         filtered.forEach(function (story) {
-            var preview = (story.content || '').substring(0, 150);
-            if ((story.content || '').length > 150) preview += '...';
+            var preview = story.excerpt || '';
             var date = story.updatedAt ? new Date(story.updatedAt).toLocaleDateString() : '';
             var statusClass = story.status === 'published' ? 'status-published' : 'status-draft';
             var statusLabel = story.status === 'published' ? 'Published' : 'Draft';
@@ -82,6 +85,23 @@
         bindCardActions();
     }
 
+    // "Load more" sits after the grid while there are further pages
+    function updateMoreButton(container) {
+        var more = document.getElementById('storiesMore');
+        if (!nextCursor) {
+            if (more) more.remove();
+            return;
+        }
+        if (!more) {
+            more = document.createElement('button');
+            more.id = 'storiesMore';
+            more.className = 'btn-secondary load-more-btn';
+            more.textContent = 'Load more stories';
+            more.addEventListener('click', function () { loadStories(nextCursor); });
+            container.parentNode.insertBefore(more, container.nextSibling);
+        }
+    }
+
     // ═══════════════════════════════════════
     // Card Action Handlers
     // ═══════════════════════════════════════
@@ -130,8 +150,20 @@
         document.getElementById('storyTitle').value = story.title || '';
         document.getElementById('storyGenre').value = story.genre || '';
         document.getElementById('storyTone').value = story.tone || '';
-        document.getElementById('storyContent').value = story.content || '';
+        document.getElementById('storyContent').value = '';
         document.getElementById('storyModal').classList.add('show');
+
+        // Story lists leave content out; fetch it for editing
+        fetch('/api/stories/' + storyId)
+            .then(function (resp) { return resp.json(); })
+            .then(function (full) {
+                if (editingStoryId === storyId) {
+                    document.getElementById('storyContent').value = full.content || '';
+                }
+            })
+            .catch(function () {
+                showToast('Failed to load story content');
+            });
     }
 
     function updateStoryStatus(storyId, newStatus) {
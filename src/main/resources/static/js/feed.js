@@ -4,54 +4,49 @@
     // ═══════════════════════════════════════
     // Load Published Stories for Visual Feed
     // ═══════════════════════════════════════
-    function loadFeed() {
+    var nextCursor = null;
+    var loading = false;
+
+    function loadFeed(cursor) {
         var container = document.getElementById('feedGrid');
-        if (!container) return;
+        if (!container || loading) return;
+        loading = true;
 
-        fetch('/api/stories/published')
+        var url = '/api/stories/published' + (cursor ? '?cursor=' + encodeURIComponent(cursor) : '');
+        fetch(url)
             .then(function (resp) { return resp.json(); })
-            .then(function (stories) {
-                if (!Array.isArray(stories) || stories.length === 0) {
+            .then(function (page) {
+                loading = false;
+                var stories = page && Array.isArray(page.items) ? page.items : [];
+                nextCursor = page ? page.nextCursor : null;
+
+                if (!cursor && stories.length === 0) {
                     container.innerHTML =
                         '<div class="empty-state">' +
                         '<div class="empty-state-icon">📚</div>' +
                         '<div class="empty-state-title">No stories published yet</div>' +
                         '<div class="empty-state-text">Be the first to share your story!</div>' +
                         '</div>';
+                    updateMoreButton(container);
                     return;
                 }
 
                 var html = '';
                 stories.forEach(function (story) {
-                    var coverHtml;
-                    if (story.coverImage) {
-                        coverHtml = '<img class="feed-card-cover" src="' + esc(story.coverImage) + '" alt="' + esc(story.title || '') + '">';
-                    } else {
-                        // Generate a consistent gradient placeholder with genre emoji
-                        var emoji = getGenreEmoji(story.genre);
-                        coverHtml = '<div class="feed-card-cover-placeholder">' + emoji + '</div>';
-                    }
-
-                    html += '<a href="/story-view/' + story.id + '" class="feed-card">';
-                    html += coverHtml;
-                    html += '<div class="feed-card-body">';
-                    html += '<div class="feed-card-title">' + esc(story.title || 'Untitled') + '</div>';
-                    html += '<div class="feed-card-badges">';
-                    if (story.genre) html += '<span class="story-card-badge genre">' + esc(story.genre) + '</span>';
-                    if (story.tone) html += '<span class="story-card-badge" style="background:rgba(100,210,255,0.15);color:var(--teal)">' + esc(story.tone) + '</span>';
-                    html += '</div>';
-                    html += '<div class="feed-card-stats">';
-                    html += '<span class="feed-card-stat">👁️ ' + (story.viewCount || 0) + '</span>';
-                    html += '<span class="feed-card-stat">❤️ ' + (story.likeCount || 0) + '</span>';
-                    html += '</div>';
-                    html += '<div class="feed-card-author">✍️ ' + esc(story.authorName || 'Anonymous') + '</div>';
-                    html += '</div>';
-                    html += '</a>';
+                    html += renderCard(story);
                 });
 
-                container.innerHTML = html;
+                if (cursor) {
+                    container.insertAdjacentHTML('beforeend', html);
+                } else {
+                    container.innerHTML = html;
+                }
+                updateMoreButton(container);
+                loadInteractions(stories);
             })
             .catch(function () {
+                loading = false;
+                if (cursor) return;
                 container.innerHTML =
                     '<div class="empty-state">' +
                     '<div class="empty-state-icon">⚠️</div>' +
@@ -60,6 +55,76 @@
             });
     }
 
+    function renderCard(story) {
+        var coverHtml;
+        if (story.coverUrl) {
+            coverHtml = '<img class="feed-card-cover" src="' + esc(story.coverUrl) + '" alt="' + esc(story.title || '') + '" loading="lazy">';
+        } else {
+            // Generate a consistent gradient placeholder with genre emoji
+            var emoji = getGenreEmoji(story.genre);
+            coverHtml = '<div class="feed-card-cover-placeholder">' + emoji + '</div>';
+        }
+
+        var html = '<a href="/story-view/' + story.id + '" class="feed-card" data-story-id="' + esc(story.id) + '">';
+        html += coverHtml;
+        html += '<div class="feed-card-body">';
+        html += '<div class="feed-card-title">' + esc(story.title || 'Untitled') + '</div>';
+        html += '<div class="feed-card-badges">';
+        if (story.genre) html += '<span class="story-card-badge genre">' + esc(story.genre) + '</span>';
+        if (story.tone) html += '<span class="story-card-badge" style="background:rgba(100,210,255,0.15);color:var(--teal)">' + esc(story.tone) + '</span>';
+        html += '</div>';
+        html += '<div class="feed-card-stats">';
+        html += '<span class="feed-card-stat" data-stat="views">👁️ <span>' + (story.viewCount || 0) + '</span></span>';
+        html += '<span class="feed-card-stat" data-stat="likes">❤️ <span>' + (story.likeCount || 0) + '</span></span>';
+        if (story.readingTimeMinutes) html += '<span class="feed-card-stat">⏱️ ' + story.readingTimeMinutes + ' min</span>';
+        html += '</div>';
+        html += '<div class="feed-card-author">✍️ ' + esc(story.authorName || 'Anonymous') + '</div>';
+        html += '</div>';
+        html += '</a>';
+        return html;
+    }
+
+    // The feed itself can be minutes old: refresh counts and the reader's
+    // own likes for a whole page of cards in one request
+    function loadInteractions(stories) {
+        if (stories.length === 0) return;
+        var ids = stories.map(function (story) { return story.id; });
+        fetch('/api/stories/interactions?ids=' + ids.map(encodeURIComponent).join(','))
+            .then(function (resp) { return resp.ok ? resp.json() : {}; })
+            .then(function (byId) {
+                Object.keys(byId).forEach(function (id) {
+                    var card = document.querySelector('.feed-card[data-story-id="' + id + '"]');
+                    if (!card) return;
+                    var data = byId[id];
+                    var views = card.querySelector('[data-stat="views"]');
+                    var likes = card.querySelector('[data-stat="likes"]');
+                    if (views) views.lastChild.textContent = data.viewCount || 0;
+                    if (likes) {
+                        likes.lastChild.textContent = data.likeCount || 0;
+                        likes.classList.toggle('liked', !!data.userLiked);
+                    }
+                });
+            })
+            .catch(function () { });
+    }
+
+    // "Load more" sits after the grid while there are further pages
+    function updateMoreButton(container) {
+        var more = document.getElementById('feedMore');
+        if (!nextCursor) {
+            if (more) more.remove();
+            return;
+        }
+        if (!more) {
+            more = document.createElement('button');
+            more.id = 'feedMore';
+            more.className = 'btn-secondary load-more-btn';
+            more.textContent = 'Load more stories';
+            more.addEventListener('click', function () { loadFeed(nextCursor); });
+            container.parentNode.insertBefore(more, container.nextSibling);
+        }
+    }
+
     function getGenreEmoji(genre) {
         if (!genre) return '📖';
         var g = genre.toLowerCase();
@@ -4,33 +4,44 @@
     // ═══════════════════════════════════════
     // Load Published Stories
     // ═══════════════════════════════════════
-    function loadPublishedStories() {
+    var nextCursor = null;
+    var loading = false;
+
+    function loadPublishedStories(cursor) {
         var container = document.getElementById('publicStoriesGrid');
-        if (!container) return;
+        if (!container || loading) return;
+        loading = true;
 
-        container.innerHTML =
-            '<div class="empty-state">' +
-            '<div class="spinner"></div>' +
-            '<div class="empty-state-text">Loading stories...</div>' +
-            '</div>';
+        if (!cursor) {
+            container.innerHTML =
+                '<div class="empty-state">' +
+                '<div class="spinner"></div>' +
+                '<div class="empty-state-text">Loading stories...</div>' +
+                '</div>';
+        }
 
-        fetch('/api/stories/published')
+        var url = '/api/stories/published' + (cursor ? '?cursor=' + encodeURIComponent(cursor) : '');
+        fetch(url)
             .then(function (resp) { return resp.json(); })
-            .then(function (stories) {
-                if (!Array.isArray(stories) || stories.length === 0) {
+            .then(function (page) {
+                loading = false;
+                var stories = page && Array.isArray(page.items) ? page.items : [];
+                nextCursor = page ? page.nextCursor : null;
+
+                if (!cursor && stories.length === 0) {
                     container.innerHTML =
                         '<div class="empty-state">' +
                         '<div class="empty-state-icon">📚</div>' +
                         '<div class="empty-state-title">No stories published yet</div>' +
                         '<div class="empty-state-text">Be the first to share your story with the community!</div>' +
                         '</div>';
+                    updateMoreButton(container);
                     return;
                 }
 
                 var html = '';
                 stories.forEach(function (story) {
-                    var preview = (story.content || '').substring(0, 150);
-                    if ((story.content || '').length > 150) preview += '...';
+                    var preview = story.excerpt || '';
                     var date = story.updatedAt ? new Date(story.updatedAt).toLocaleDateString() : '';
 
                     html +=
@@ -49,9 +60,16 @@
                         '</a>';
                 });
 
-                container.innerHTML = html;
+                if (cursor) {
+                    container.insertAdjacentHTML('beforeend', html);
+                } else {
+                    container.innerHTML = html;
+                }
+                updateMoreButton(container);
             })
             .catch(function () {
+                loading = false;
+                if (cursor) return;
                 container.innerHTML =
                     '<div class="empty-state">' +
                     '<div class="empty-state-icon">⚠️</div>' +
@@ -60,6 +78,23 @@
             });
     }
 
+    // "Load more" sits after the grid while there are further pages
+    function updateMoreButton(container) {
+        var more = document.getElementById('storiesMore');
+        if (!nextCursor) {
+            if (more) more.remove();
+            return;
+        }
+        if (!more) {
+            more = document.createElement('button');
+            more.id = 'storiesMore';
+            more.className = 'btn-secondary load-more-btn';
+            more.textContent = 'Load more stories';
+            more.addEventListener('click', function () { loadPublishedStories(nextCursor); });
+            container.parentNode.insertBefore(more, container.nextSibling);
+        }
+    }
+
     function esc(text) {
         var d = document.createElement('div');
         d.textContent = text;
@@ -20,7 +20,7 @@
             if (!r.ok) throw new Error('Not found');
             return r.json();
         }),
-        fetch('/api/chapters/story/' + storyId).then(function (r) { return r.json(); }).catch(function () { return []; }),
+        fetch('/api/chapters/story/' + storyId + '/toc').then(function (r) { return r.json(); }).catch(function () { return []; }),
         fetch('/api/stories/' + storyId + '/interactions').then(function (r) { return r.json(); }).catch(function () { return {}; })
     ]).then(function (results) {
         var story = results[0];
@@ -31,6 +31,7 @@
         fetch('/api/stories/' + storyId + '/view', { method: 'POST' }).catch(function () { });
 
         renderStoryPage(story, allChapters, interactions);
+        watchCounts();
     }).catch(function () {
         container.innerHTML =
             '<div class="empty-state">' +
@@ -51,8 +52,8 @@
 
         // Hero Cover
         html += '<div class="story-hero">';
-        if (story.coverImage) {
-            html += '<img class="story-hero-img" src="' + esc(story.coverImage) + '" alt="' + esc(story.title || '') + '">';
+        if (story.coverDetailUrl) {
+            html += '<img class="story-hero-img" src="' + esc(story.coverDetailUrl) + '" alt="' + esc(story.title || '') + '">';
         } else {
             html += '<div class="story-hero-placeholder">📖</div>';
         }
@@ -95,6 +96,7 @@
                 html += '<div class="chapter-list-item" data-index="' + index + '" onclick="window._openChapter(' + index + ')">';
                 html += '<div class="chapter-number">' + ch.chapterNumber + '</div>';
                 html += '<div class="chapter-title">' + esc(ch.title || 'Chapter ' + ch.chapterNumber) + '</div>';
+                if (ch.wordCount) html += '<div class="chapter-words">' + ch.wordCount + ' words</div>';
                 html += '<div class="chapter-arrow">→</div>';
                 html += '</div>';
             });
@@ -117,7 +119,8 @@
 
         document.getElementById('chapterReaderTitle').textContent =
             'Chapter ' + ch.chapterNumber + ': ' + (ch.title || 'Untitled');
-        document.getElementById('chapterReaderBody').textContent = ch.content || '';
+        document.getElementById('chapterReaderBody').textContent = 'Loading...';
+        loadChapterPage(ch.id, 0, index, true);
         document.getElementById('chapterNavInfo').textContent =
             'Chapter ' + (index + 1) + ' of ' + allChapters.length;
 
@@ -127,6 +130,35 @@
         document.getElementById('chapterReader').classList.add('show');
     };
 
+    // Chapter text is fetched in slices; long chapters get a "continue" button
+    function loadChapterPage(chapterId, offset, index, replace) {
+        fetch('/api/chapters/' + chapterId + '/content?offset=' + offset)
+            .then(function (r) { return r.json(); })
+            .then(function (page) {
+                if (index !== currentChapterIndex) return; // reader moved on
+                var body = document.getElementById('chapterReaderBody');
+                if (replace) body.textContent = '';
+                var more = document.getElementById('chapterReaderMore');
+                if (more) more.remove();
+
+                body.appendChild(document.createTextNode(page.content || ''));
+                if (page.nextOffset !== null && page.nextOffset !== undefined) {
+                    more = document.createElement('button');
+                    more.id = 'chapterReaderMore';
+                    more.className = 'chapter-nav-btn';
+                    more.textContent = 'Continue reading ↓';
+                    more.addEventListener('click', function () {
+                        more.disabled = true;
+                        loadChapterPage(chapterId, page.nextOffset, index, false);
+                    });
+                    body.parentNode.insertBefore(more, body.nextSibling);
+                }
+            })
+            .catch(function () {
+                if (replace) document.getElementById('chapterReaderBody').textContent = 'Failed to load chapter';
+            });
+    }
+
     // Navigation
     var prevBtn = document.getElementById('prevChapterBtn');
     var nextBtn = document.getElementById('nextChapterBtn');
@@ -169,6 +201,23 @@
             .catch(function () { });
     };
 
+    // ═══════════════════════════════════════
+    // Live Counts (server-sent events)
+    // ═══════════════════════════════════════
+    function watchCounts() {
+        if (!window.EventSource) return;
+        var source = new EventSource('/api/stories/' + storyId + '/live');
+        source.addEventListener('counts', function (e) {
+            var data;
+            try { data = JSON.parse(e.data); } catch (err) { return; }
+            var likes = document.getElementById('likeCount');
+            var views = document.getElementById('viewCount');
+            if (likes && data.likeCount != null) likes.textContent = data.likeCount;
+            if (views && data.viewCount != null) views.textContent = data.viewCount;
+        });
+        window.addEventListener('pagehide', function () { source.close(); });
+    }
+
     function esc(text) {
         var d = document.createElement('div');
         d.textContent = text;
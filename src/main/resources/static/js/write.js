@@ -5,6 +5,7 @@
     var editingChapterIndex = -1;
     var storyId = null;
     var isEditMode = false;
+    var storyBase = null; // { version, content } as last stored on the server
 
     // Check if editing an existing story
     var pathParts = window.location.pathname.split('/');
@@ -30,8 +31,12 @@
         ]).then(function (results) {
             var story = results[0];
             chapters = (Array.isArray(results[1]) ? results[1] : []).map(function (ch) {
-                return { title: ch.title, content: ch.content, id: ch.id };
+                return {
+                    title: ch.title, content: ch.content, id: ch.id, contentHash: ch.contentHash,
+                    version: ch.version || 0, savedContent: ch.content, dirty: false
+                };
             });
+            storyBase = { version: story.version || 0, content: story.content || '' };
 
             document.getElementById('writeTitle').value = story.title || '';
             document.getElementById('writeGenre').value = story.genre || '';
@@ -132,8 +137,10 @@
             }
 
             if (editingChapterIndex >= 0) {
-                chapters[editingChapterIndex].title = title;
-                chapters[editingChapterIndex].content = content;
+                var edited = chapters[editingChapterIndex];
+                if (edited.content !== content) edited.dirty = true;
+                edited.title = title;
+                edited.content = content;
             } else {
                 chapters.push({ title: title || 'Chapter ' + (chapters.length + 1), content: content });
             }
@@ -234,11 +241,13 @@
 
         var storyPayload = {
             title: title,
-            content: combinedContent,
             genre: genre,
             tone: tone,
             status: 'draft'
         };
+        // Existing stories send their content as a patch after the metadata
+        var patchContent = isEditMode && storyBase !== null;
+        if (!patchContent) storyPayload.content = combinedContent;
 
         var url = isEditMode ? '/api/stories/' + storyId : '/api/stories';
         var method = isEditMode ? 'PUT' : 'POST';
@@ -259,44 +268,32 @@
                 storyId = sid;
                 isEditMode = true;
 
+                var contentSaved;
+                if (patchContent) {
+                    contentSaved = saveStoryContent(sid, combinedContent, storyPayload);
+                } else {
+                    storyBase = { version: savedStory.version || 0, content: combinedContent };
+                    contentSaved = Promise.resolve();
+                }
+
                 // Update extended fields via PATCH
-                return fetch('/api/stories/' + sid + '/extended', {
-                    method: 'PATCH',
-                    headers: { 'Content-Type': 'application/json' },
-                    body: JSON.stringify({
-                        summary: summary,
-                        coverImage: coverImage
-                    })
+                return contentSaved.then(function () {
+                    return fetch('/api/stories/' + sid + '/extended', {
+                        method: 'PATCH',
+                        headers: { 'Content-Type': 'application/json' },
+                        body: JSON.stringify({
+                            summary: summary,
+                            coverImage: coverImage
+                        })
+                    });
+                }).then(function () {
+                    return uploadCover(sid);
                 }).then(function () { return sid; });
             })
             .then(function (sid) {
                 if (!sid) return;
-
-                // Delete existing chapters first if editing
-                var deleteFirst = fetch('/api/chapters/story/' + sid)
-                    .then(function (r) { return r.json(); })
-                    .then(function (existing) {
-                        if (!Array.isArray(existing) || existing.length === 0) return;
-                        return Promise.all(existing.map(function (ch) {
-                            return fetch('/api/chapters/' + ch.id, { method: 'DELETE' });
-                        }));
-                    })
-                    .catch(function () { });
-
-                return deleteFirst.then(function () {
-                    // Save new chapters
-                    return Promise.all(chapters.map(function (ch, i) {
-                        return fetch('/api/chapters', {
-                            method: 'POST',
-                            headers: { 'Content-Type': 'application/json' },
-                            body: JSON.stringify({
-                                storyId: sid,
-                                chapterNumber: i + 1,
-                                title: ch.title,
-                                content: ch.content
-                            })
-                        });
-                    }));
+                return patchChapters().then(function () {
+                    return syncChapters(sid, false);
                 }).then(function () { return sid; });
             })
             .then(function (sid) {
@@ -307,12 +304,11 @@
                     return fetch('/api/moderation/publish/' + sid, { method: 'POST' })
                         .then(function (r) { return r.json(); })
                         .then(function (result) {
-                            if (result.status === 'published') {
-                                showToast('Story published successfully!');
-                            } else if (result.status === 'rejected') {
-                                showToast('Story rejected: ' + (result.rejectionReason || 'Content flagged'));
-                            } else {
+                            if (result.status === 'pending_review') {
                                 showToast('Story saved and submitted for review');
+                                pollModeration(sid, 0);
+                            } else {
+                                showModerationVerdict(result);
                             }
                         });
                 } else {
@@ -325,6 +321,155 @@
             });
     }
 
+    // Moderation runs in the background; check back until the verdict is in
+    var MODERATION_POLL_MS = 2000;
+    var MODERATION_POLL_LIMIT = 60;
+
+    function pollModeration(sid, attempt) {
+        if (attempt >= MODERATION_POLL_LIMIT) return;
+        setTimeout(function () {
+            fetch('/api/moderation/status/' + sid)
+                .then(function (r) { return r.ok ? r.json() : null; })
+                .then(function (status) {
+                    if (status && (status.status !== 'pending_review' || status.moderation === 'failed')) {
+                        showModerationVerdict(status);
+                    } else {
+                        pollModeration(sid, attempt + 1);
+                    }
+                })
+                .catch(function () { pollModeration(sid, attempt + 1); });
+        }, MODERATION_POLL_MS);
+    }
+
+    function showModerationVerdict(result) {
+        if (result.status === 'published') {
+            showToast('Story published successfully!');
+        } else if (result.status === 'rejected') {
+            showToast('Story rejected: ' + (result.rejectionReason || 'Content flagged'));
+        } else if (result.moderation === 'failed') {
+            showToast('Review is taking longer than usual; your story stays submitted');
+        } else {
+            showToast('Story saved and submitted for review');
+        }
+    }
+
+    // Upload the chosen cover file, if any; the story then refers to the stored image
+    function uploadCover(sid) {
+        var input = document.getElementById('writeCoverFile');
+        if (!input || !input.files || input.files.length === 0) return Promise.resolve();
+
+        var form = new FormData();
+        form.append('file', input.files[0]);
+        return fetch('/api/stories/' + sid + '/cover', { method: 'POST', body: form })
+            .then(function (r) { return r.json(); })
+            .then(function (data) {
+                if (data.error) {
+                    showToast(data.error);
+                    return Promise.reject(new Error(data.error));
+                }
+                document.getElementById('writeCoverImage').value = data.coverImage;
+                input.value = '';
+            });
+    }
+
+    // Single replace covering everything between the common prefix and suffix
+    function textDelta(oldText, newText) {
+        var start = 0;
+        var max = Math.min(oldText.length, newText.length);
+        while (start < max && oldText.charCodeAt(start) === newText.charCodeAt(start)) start++;
+        var oldEnd = oldText.length;
+        var newEnd = newText.length;
+        while (oldEnd > start && newEnd > start &&
+            oldText.charCodeAt(oldEnd - 1) === newText.charCodeAt(newEnd - 1)) {
+            oldEnd--;
+            newEnd--;
+        }
+        return { offset: start, deleteLength: oldEnd - start, insert: newText.substring(start, newEnd) };
+    }
+
+    function sendPatch(url, base, text) {
+        return fetch(url, {
+            method: 'PATCH',
+            headers: { 'Content-Type': 'application/json' },
+            body: JSON.stringify({ version: base.version, deltas: [textDelta(base.content, text)] })
+        }).then(function (r) {
+            if (!r.ok) return Promise.reject(r.status);
+            return r.json();
+        });
+    }
+
+    // Patch the story's combined content; if the server copy has moved on,
+    // fall back to a full write.
+    function saveStoryContent(sid, text, storyPayload) {
+        if (text === storyBase.content) return Promise.resolve();
+        return sendPatch('/api/stories/' + sid + '/content', storyBase, text)
+            .then(function (updated) {
+                storyBase = { version: updated.version, content: text };
+            })
+            .catch(function () {
+                var full = Object.assign({}, storyPayload, { content: text });
+                return fetch('/api/stories/' + sid, {
+                    method: 'PUT',
+                    headers: { 'Content-Type': 'application/json' },
+                    body: JSON.stringify(full)
+                })
+                    .then(function (r) { return r.json(); })
+                    .then(function (saved) {
+                        storyBase = { version: saved.version || 0, content: text };
+                    });
+            });
+    }
+
+    // Send edits to already-stored chapters as patches. Chapters that fail
+    // stay dirty and go up in full with the sync.
+    function patchChapters() {
+        return Promise.all(chapters.map(function (ch) {
+            if (!ch.id || !ch.dirty || typeof ch.savedContent !== 'string') return null;
+            var base = { version: ch.version || 0, content: ch.savedContent };
+            return sendPatch('/api/chapters/' + ch.id + '/content', base, ch.content)
+                .then(function (updated) {
+                    ch.contentHash = updated.contentHash;
+                    ch.version = updated.version;
+                    ch.savedContent = ch.content;
+                    ch.dirty = false;
+                })
+                .catch(function () { });
+        }));
+    }
+
+    // Send the chapter list with content hashes; bodies only go up for
+    // chapters the server hasn't seen. The server answers 409 when it needs
+    // more content, in which case everything is resent once.
+    function syncChapters(sid, includeAll) {
+        var payload = chapters.map(function (ch) {
+            var entry = { id: ch.id || null, title: ch.title, contentHash: ch.contentHash || null };
+            if (includeAll || !ch.id || !ch.contentHash || ch.dirty) entry.content = ch.content;
+            return entry;
+        });
+
+        return fetch('/api/chapters/story/' + sid + '/sync', {
+            method: 'PUT',
+            headers: { 'Content-Type': 'application/json' },
+            body: JSON.stringify({ chapters: payload })
+        })
+            .then(function (r) {
+                if (r.status === 409 && !includeAll) return syncChapters(sid, true);
+                return r.json();
+            })
+            .then(function (result) {
+                if (!result || !Array.isArray(result.chapters)) return result;
+                result.chapters.forEach(function (saved, i) {
+                    if (!chapters[i]) return;
+                    chapters[i].id = saved.id;
+                    chapters[i].contentHash = saved.contentHash;
+                    chapters[i].version = saved.version;
+                    chapters[i].savedContent = chapters[i].content;
+                    chapters[i].dirty = false;
+                });
+                return result;
+            });
+    }
+
     // ═══════════════════════════════════════
     // Helpers
     // ═══════════════════════════════════════
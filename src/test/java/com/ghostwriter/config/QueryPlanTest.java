@@ -0,0 +1,185 @@
+package com.ghostwriter.config;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryPlanTest {
+
+    /**
+     * Every repository query, and the MongoTemplate queries of the like and
+     * view paths, filters on the leading field of a declared index and, if
+     * it sorts, finds that order in the index right after its equality fields.
+     */
+    @Test
+    void queriesUseDeclaredIndexes() {
+        MongoMappingContext context = QueryShapes.mappingContext();
+        Map<String, List<IndexDefinition>> indexes = declaredIndexes(context);
+
+        List<QueryShapes.Shape> shapes = new ArrayList<>(QueryShapes.repositoryQueries(context));
+        shapes.addAll(QueryShapes.serviceQueries(context));
+        assertTrue(shapes.size() > 10, "found only " + shapes.size() + " queries");
+
+        List<String> problems = new ArrayList<>();
+        for (QueryShapes.Shape shape : shapes) {
+            String problem = problemWith(shape, indexes.getOrDefault(shape.collection, List.of()));
+            if (problem != null) {
+                problems.add(shape + ": " + problem);
+            }
+        }
+        assertTrue(problems.isEmpty(), String.join("\n", problems));
+    }
+
+    /**
+     * The same queries planned by a real server, against empty collections
+     * carrying the declared indexes: no winning plan may scan a collection
+     * or sort in memory. Runs when MONGODB_TEST_URI names a server; a
+     * throwaway database is created and dropped.
+     */
+    @Test
+    @EnabledIfEnvironmentVariable(named = "MONGODB_TEST_URI", matches = ".+")
+    void explainPlansAvoidScansAndSorts() {
+        MongoMappingContext context = QueryShapes.mappingContext();
+        List<QueryShapes.Shape> shapes = new ArrayList<>(QueryShapes.repositoryQueries(context));
+        shapes.addAll(QueryShapes.serviceQueries(context));
+
+        try (MongoClient client = MongoClients.create(System.getenv("MONGODB_TEST_URI"))) {
+            MongoTemplate template = new MongoTemplate(client, "ghostwriter_query_plans_" + System.nanoTime());
+            try {
+                declaredIndexes(context).forEach((collection, definitions) ->
+                        definitions.forEach(definition -> template.indexOps(collection).ensureIndex(definition)));
+
+                List<String> problems = new ArrayList<>();
+                for (QueryShapes.Shape shape : shapes) {
+                    Document find = new Document("find", shape.collection).append("filter", shape.filter);
+                    if (!shape.sort.isEmpty()) {
+                        find.append("sort", shape.sort);
+                    }
+                    Document explain = template.getDb().runCommand(
+                            new Document("explain", find).append("verbosity", "queryPlanner"));
+                    Document planner = explain.get("queryPlanner", Document.class);
+                    List<String> stages = new ArrayList<>();
+                    collectStages(planner != null ? planner.get("winningPlan", Document.class) : null, stages);
+                    if (stages.contains("COLLSCAN") || stages.contains("SORT")) {
+                        problems.add(shape + ": " + stages);
+                    }
+                }
+                assertTrue(problems.isEmpty(), String.join("\n", problems));
+            } finally {
+                template.getDb().drop();
+            }
+        }
+    }
+
+    private static Map<String, List<IndexDefinition>> declaredIndexes(MongoMappingContext context) {
+        IndexResolver resolver = IndexResolver.create(context);
+        Map<String, List<IndexDefinition>> indexes = new HashMap<>();
+        for (MongoPersistentEntity<?> entity : context.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class)) {
+                continue;
+            }
+            for (IndexDefinition definition : resolver.resolveIndexFor(entity.getTypeInformation())) {
+                indexes.computeIfAbsent(entity.getCollection(), c -> new ArrayList<>()).add(definition);
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Why the query cannot be served by any index, or null if one fits.
+     * Mirrors the planner's rules closely enough for the shapes used here:
+     * an index is usable when the filter constrains its first field, and a
+     * partial one only when the filter names the fields of its condition.
+     */
+    private static String problemWith(QueryShapes.Shape shape, List<IndexDefinition> indexes) {
+        Map<String, Boolean> equality = new HashMap<>();
+        for (Map.Entry<String, Object> field : shape.filter.entrySet()) {
+            if (!field.getKey().startsWith("$")) {
+                equality.put(field.getKey(), !(field.getValue() instanceof Document));
+            }
+        }
+        if (Boolean.TRUE.equals(equality.get("_id"))) {
+            return null;
+        }
+        if (equality.isEmpty()) {
+            return "reads the whole collection";
+        }
+
+        boolean usable = false;
+        for (IndexDefinition index : indexes) {
+            Document partial = index.getIndexOptions().get("partialFilterExpression", Document.class);
+            List<String> keys = new ArrayList<>(index.getIndexKeys().keySet());
+            if ((partial != null && !equality.keySet().containsAll(partial.keySet()))
+                    || !equality.containsKey(keys.get(0))) {
+                continue;
+            }
+            usable = true;
+            if (shape.sort.isEmpty() || sortsIn(shape.sort, index.getIndexKeys(), equality)) {
+                return null;
+            }
+        }
+        return usable ? "sorts in memory" : "has no index";
+    }
+
+    // After the equality fields, the index must continue with the sort
+    // fields in order, every direction matching or every one reversed
+    private static boolean sortsIn(Document sort, Document keys, Map<String, Boolean> equality) {
+        List<String> fields = new ArrayList<>(keys.keySet());
+        int start = 0;
+        while (start < fields.size() && Boolean.TRUE.equals(equality.get(fields.get(start)))) {
+            start++;
+        }
+        int sign = 0;
+        int i = start;
+        for (Map.Entry<String, Object> order : sort.entrySet()) {
+            if (i >= fields.size() || !fields.get(i).equals(order.getKey())) {
+                return false;
+            }
+            int direction = ((Number) order.getValue()).intValue() * ((Number) keys.get(fields.get(i))).intValue();
+            if (sign != 0 && Integer.signum(direction) != sign) {
+                return false;
+            }
+            sign = Integer.signum(direction);
+            i++;
+        }
+        return true;
+    }
+
+    // Plans nest through inputStage / inputStages; newer servers wrap the
+    // classic plan in queryPlan
+    private static void collectStages(Document plan, List<String> stages) {
+        if (plan == null) {
+            return;
+        }
+        if (plan.containsKey("queryPlan")) {
+            collectStages(plan.get("queryPlan", Document.class), stages);
+            return;
+        }
+        if (plan.getString("stage") != null) {
+            stages.add(plan.getString("stage"));
+        }
+        collectStages(plan.get("inputStage", Document.class), stages);
+        List<?> inputs = plan.get("inputStages", List.class);
+        if (inputs != null) {
+            for (Object input : inputs) {
+                if (input instanceof Document) {
+                    collectStages((Document) input, stages);
+                }
+            }
+        }
+    }
+}
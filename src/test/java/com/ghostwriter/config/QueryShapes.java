@@ -0,0 +1,223 @@
+package com.ghostwriter.config;
+
+import com.ghostwriter.interaction.Like;
+import com.ghostwriter.interaction.LikeService;
+import com.ghostwriter.interaction.UniqueReaderCounter;
+import com.ghostwriter.interaction.ViewCounterBuffer;
+import com.ghostwriter.interaction.ViewService;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.mockito.invocation.Invocation;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.when;
+
+/**
+ * The filter and sort of each query the application issues, read from the
+ * code rather than kept by hand: repository methods are parsed with Spring
+ * Data's own query derivation (or their {@code @Query} text), and
+ * MongoTemplate queries are captured by running the service methods against
+ * a mock template. Values are placeholders; only the fields matter.
+ */
+final class QueryShapes {
+
+    static final String BASE_PACKAGE = "com.ghostwriter";
+    private static final String ANY = "?";
+
+    private QueryShapes() {
+    }
+
+    /**
+     * A mapping context holding every {@code @Document} class of the application.
+     */
+    static MongoMappingContext mappingContext() {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(org.springframework.data.mongodb.core.mapping.Document.class));
+        Set<Class<?>> entities = new HashSet<>();
+        for (BeanDefinition definition : scanner.findCandidateComponents(BASE_PACKAGE)) {
+            entities.add(load(definition.getBeanClassName()));
+        }
+        MongoMappingContext context = new MongoMappingContext();
+        context.setInitialEntitySet(entities);
+        context.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        context.setAutoIndexCreation(false);
+        context.afterPropertiesSet();
+        return context;
+    }
+
+    /**
+     * Every query method declared on a repository interface.
+     */
+    static List<Shape> repositoryQueries(MongoMappingContext context) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition bean) {
+                return bean.getMetadata().isInterface();
+            }
+        };
+        scanner.addIncludeFilter(new AssignableTypeFilter(MongoRepository.class));
+
+        List<Shape> shapes = new ArrayList<>();
+        for (BeanDefinition definition : scanner.findCandidateComponents(BASE_PACKAGE)) {
+            Class<?> repository = load(definition.getBeanClassName());
+            Class<?> domain = ResolvableType.forClass(repository).as(MongoRepository.class).resolveGeneric(0);
+            MongoPersistentEntity<?> entity = context.getRequiredPersistentEntity(domain);
+            List<Method> methods = new ArrayList<>(List.of(repository.getDeclaredMethods()));
+            methods.sort(Comparator.comparing(Method::getName));
+            for (Method method : methods) {
+                if (method.isDefault() || method.isSynthetic()) {
+                    continue;
+                }
+                String name = repository.getSimpleName() + "." + method.getName();
+                org.springframework.data.mongodb.repository.Query annotated =
+                        method.getAnnotation(org.springframework.data.mongodb.repository.Query.class);
+                shapes.add(annotated != null
+                        ? fromAnnotation(name, entity, annotated)
+                        : fromMethodName(name, entity, method.getName()));
+            }
+        }
+        return shapes;
+    }
+
+    /**
+     * Queries built with MongoTemplate on the hot interaction paths.
+     */
+    static List<Shape> serviceQueries(MongoMappingContext context) {
+        MongoTemplate template = mock(MongoTemplate.class);
+        IndexOperations likeIndexes = mock(IndexOperations.class);
+        when(likeIndexes.getIndexInfo()).thenReturn(List.of(new IndexInfo(
+                List.of(IndexField.create("storyId", Sort.Direction.ASC), IndexField.create("userId", Sort.Direction.ASC)),
+                "storyId_userId", true, false, null)));
+        when(template.indexOps(Like.class)).thenReturn(likeIndexes);
+        when(template.exists(any(Query.class), any(Class.class))).thenReturn(true);
+        // Take the unlike branch of the toggle as well as the like branch
+        doThrow(new DuplicateKeyException("liked")).when(template).insert(any(Object.class));
+        when(template.remove(any(Query.class), any(Class.class))).thenReturn(DeleteResult.acknowledged(0));
+        when(template.upsert(any(Query.class), any(UpdateDefinition.class), any(Class.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        LikeService likes = new LikeService(template, mock(ApplicationEventPublisher.class));
+        likes.toggleLike(ANY, ANY);
+        likes.likedAmong(ANY, List.of(ANY, ANY));
+
+        ViewService views = new ViewService(template, mock(ViewCounterBuffer.class),
+                mock(UniqueReaderCounter.class), 1, 1);
+        views.recordView(ANY, ANY, ANY);
+        views.shutdown();
+
+        List<Shape> shapes = new ArrayList<>();
+        for (Invocation invocation : mockingDetails(template).getInvocations()) {
+            Query query = null;
+            Class<?> type = null;
+            for (Object argument : invocation.getArguments()) {
+                if (argument instanceof Query) {
+                    query = (Query) argument;
+                } else if (argument instanceof Class) {
+                    type = (Class<?>) argument;
+                }
+            }
+            if (query != null && type != null) {
+                String name = "MongoTemplate." + invocation.getMethod().getName();
+                shapes.add(new Shape(name, context.getRequiredPersistentEntity(type).getCollection(),
+                        query.getQueryObject(), query.getSortObject()));
+            }
+        }
+        return shapes;
+    }
+
+    private static Shape fromAnnotation(String name, MongoPersistentEntity<?> entity,
+            org.springframework.data.mongodb.repository.Query annotated) {
+        Document filter = Document.parse(annotated.value().replaceAll("\\?\\d+", "'" + ANY + "'"));
+        Document sort = annotated.sort().isEmpty() ? new Document() : Document.parse(annotated.sort());
+        return new Shape(name, entity.getCollection(), filter, sort);
+    }
+
+    private static Shape fromMethodName(String name, MongoPersistentEntity<?> entity, String methodName) {
+        PartTree tree = new PartTree(methodName, entity.getType());
+        Document filter = new Document();
+        for (Part part : tree.getParts()) {
+            String field = fieldName(entity, part.getProperty().toDotPath());
+            switch (part.getType()) {
+                case SIMPLE_PROPERTY -> filter.append(field, ANY);
+                case IN -> filter.append(field, new Document("$in", List.of(ANY, ANY)));
+                default -> filter.append(field, new Document("$gt", ANY));
+            }
+        }
+        Document sort = new Document();
+        for (Sort.Order order : tree.getSort()) {
+            sort.append(fieldName(entity, order.getProperty()), order.isAscending() ? 1 : -1);
+        }
+        return new Shape(name, entity.getCollection(), filter, sort);
+    }
+
+    private static String fieldName(MongoPersistentEntity<?> entity, String property) {
+        MongoPersistentProperty persistent = entity.getPersistentProperty(property);
+        return persistent != null ? persistent.getFieldName() : property;
+    }
+
+    private static Class<?> load(String className) {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * One query: where it comes from, the collection it runs on, and its
+     * filter and sort documents.
+     */
+    static final class Shape {
+
+        final String name;
+        final String collection;
+        final Document filter;
+        final Document sort;
+
+        Shape(String name, String collection, Document filter, Document sort) {
+            this.name = name;
+            this.collection = collection;
+            this.filter = filter;
+            this.sort = sort != null ? sort : new Document();
+        }
+
+        @Override
+        public String toString() {
+            return name + " on " + collection + " " + filter.toJson()
+                    + (sort.isEmpty() ? "" : " sorted " + sort.toJson());
+        }
+    }
+}
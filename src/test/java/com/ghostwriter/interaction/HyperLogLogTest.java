@@ -0,0 +1,100 @@
+package com.ghostwriter.interaction;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    /**
+     * Estimates stay within four standard errors from a handful of readers
+     * up to a million, across the linear-counting and raw ranges.
+     */
+    @Test
+    void estimatesStayWithinTheStandardError() {
+        int precision = 12;
+        double error = HyperLogLog.errorOf(precision);
+        for (int count : new int[] {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000}) {
+            HyperLogLog sketch = new HyperLogLog(precision);
+            for (int i = 0; i < count; i++) {
+                sketch.add("reader-" + i);
+            }
+            // Adding the same readers again changes nothing
+            for (int i = 0; i < Math.min(count, 1_000); i++) {
+                sketch.add("reader-" + i);
+            }
+            long estimate = sketch.estimate();
+            assertTrue(Math.abs(estimate - count) <= Math.max(1, 4 * error * count),
+                    "estimated " + estimate + " for " + count);
+        }
+        assertEquals(0, new HyperLogLog(precision).estimate());
+    }
+
+    /**
+     * Merging sketches of overlapping reader sets gives the same registers,
+     * and so the same estimate, as one sketch of their union.
+     */
+    @Test
+    void mergeMatchesTheSketchOfTheUnion() {
+        HyperLogLog monday = new HyperLogLog(14);
+        HyperLogLog tuesday = new HyperLogLog(14);
+        HyperLogLog both = new HyperLogLog(14);
+        for (int i = 0; i < 30_000; i++) {
+            monday.add("reader-" + i);
+            both.add("reader-" + i);
+        }
+        for (int i = 20_000; i < 50_000; i++) {
+            tuesday.add("reader-" + i);
+            both.add("reader-" + i);
+        }
+
+        HyperLogLog merged = monday.copy();
+        merged.merge(tuesday);
+        assertArrayEquals(both.toBytes(), merged.toBytes());
+        assertEquals(both.estimate(), merged.estimate());
+        long estimate = merged.estimate();
+        assertTrue(Math.abs(estimate - 50_000) <= 4 * HyperLogLog.errorOf(14) * 50_000,
+                "estimated " + estimate + " for 50000");
+
+        // Merging is idempotent and leaves the argument alone
+        byte[] before = tuesday.toBytes();
+        merged.merge(tuesday);
+        assertArrayEquals(both.toBytes(), merged.toBytes());
+        assertArrayEquals(before, tuesday.toBytes());
+    }
+
+    @Test
+    void mergeRejectsOtherPrecisions() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(10).merge(new HyperLogLog(11)));
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        HyperLogLog sketch = new HyperLogLog(10);
+        for (int i = 0; i < 5_000; i++) {
+            sketch.add("reader-" + i);
+        }
+        HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes());
+        assertEquals(10, restored.getPrecision());
+        assertEquals(sketch.estimate(), restored.estimate());
+
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[] {10, 0, 0}));
+    }
+
+    @Test
+    void precisionForMeetsTheErrorBound() {
+        for (double bound : new double[] {0.2, 0.05, 0.02, 0.01, 0.005}) {
+            int precision = HyperLogLog.precisionFor(bound);
+            assertTrue(HyperLogLog.errorOf(precision) <= bound, "precision " + precision + " for " + bound);
+            if (precision > HyperLogLog.MIN_PRECISION) {
+                assertTrue(HyperLogLog.errorOf(precision - 1) > bound, "precision " + precision + " for " + bound);
+            }
+        }
+        assertEquals(HyperLogLog.MAX_PRECISION, HyperLogLog.precisionFor(0.0001));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.precisionFor(0));
+    }
+}
@@ -0,0 +1,100 @@
+package com.ghostwriter.moderation;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Times {@link SpamDetectors} against the regexes they replaced on inputs
+ * built to make the regexes backtrack; {@link SpamDetectorsTest} checks that
+ * both give the same verdicts. Run with
+ * {@code mvn test-compile exec:java -Dexec.mainClass=com.ghostwriter.moderation.ModerationBenchmark -Dexec.classpathScope=test}.
+ */
+public class ModerationBenchmark {
+
+    static final Pattern ALL_CAPS_PATTERN = Pattern.compile("[A-Z\\s]{50,}");
+    static final Pattern REPETITIVE_PATTERN = Pattern.compile("(.{3,})\\1{4,}");
+    private static final long REGEX_TIMEOUT_SECONDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        ExecutorService regexRunner = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "regex");
+            thread.setDaemon(true);
+            return thread;
+        });
+        System.out.printf("%-24s %9s %14s %14s%n", "input", "chars", "regex ms", "detector ms");
+        for (int size : new int[] { 2_000, 8_000, 32_000, 128_000, 1_000_000 }) {
+            Random random = new Random(size);
+            run(regexRunner, "no repeats, one line", size, randomText(random, size, "abcdefghij klmnop"), false);
+            run(regexRunner, "four copies, then break", size, nearRepeats(random, size), false);
+            run(regexRunner, "long period, 4.9 copies", size, longPeriod(random, size), false);
+            run(regexRunner, "caps, 49 at a time", size, capsNearMiss(size), true);
+        }
+        regexRunner.shutdownNow();
+    }
+
+    private static void run(ExecutorService regexRunner, String name, int size, String text, boolean caps)
+            throws Exception {
+        Predicate<String> regex = caps ? t -> ALL_CAPS_PATTERN.matcher(t).find()
+                : t -> REPETITIVE_PATTERN.matcher(t).find();
+        Predicate<String> detector = caps ? t -> SpamDetectors.hasCapsRun(t, 50)
+                : t -> SpamDetectors.hasRepetition(t, 3, 5);
+
+        long start = System.nanoTime();
+        boolean found = detector.test(text);
+        double detectorMs = (System.nanoTime() - start) / 1e6;
+
+        String regexMs;
+        Future<Boolean> future = regexRunner.submit(() -> regex.test(text));
+        long regexStart = System.nanoTime();
+        try {
+            boolean regexFound = future.get(REGEX_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            regexMs = String.format("%.1f", (System.nanoTime() - regexStart) / 1e6);
+            if (regexFound != found) {
+                regexMs += " DIFFERS";
+            }
+        } catch (TimeoutException e) {
+            // The regex cannot be interrupted; later rows wait behind it
+            regexMs = "> " + REGEX_TIMEOUT_SECONDS * 1000;
+        }
+        System.out.printf("%-24s %9d %14s %14.1f%n", name, size, regexMs, detectorMs);
+    }
+
+    static String randomText(Random random, int length, String alphabet) {
+        int[] codePoints = alphabet.codePoints().toArray();
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) {
+            text.appendCodePoint(codePoints[random.nextInt(codePoints.length)]);
+        }
+        return text.toString();
+    }
+
+    static String nearRepeats(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) {
+            String unit = randomText(random, 3 + random.nextInt(6), "abcdefgh");
+            text.append(unit.repeat(4)).append('#');
+        }
+        return text.substring(0, length);
+    }
+
+    static String longPeriod(Random random, int length) {
+        String unit = randomText(random, Math.max(3, length / 5), "abcdefgh");
+        String text = unit.repeat(5);
+        // Break the last copy just before its end
+        return text.substring(0, text.length() - 2) + "##";
+    }
+
+    static String capsNearMiss(int length) {
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) {
+            text.append("SHOUTING ".repeat(6), 0, 49).append('x');
+        }
+        return text.substring(0, length);
+    }
+}
@@ -0,0 +1,120 @@
+package com.ghostwriter.moderation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModerationScannerTest {
+
+    // The checks the scanner replaced, as ModerationService.moderate ran them
+    private static final List<String> COPYRIGHTED_PHRASES = List.of(
+            "harry potter", "lord of the rings", "game of thrones",
+            "star wars", "marvel cinematic", "disney princess",
+            "hunger games", "twilight saga", "percy jackson");
+    private static final List<String> INAPPROPRIATE_WORDS = List.of(
+            "hate speech", "racial slur", "explicit violence",
+            "graphic content", "extremist", "terrorist propaganda");
+    private static final Pattern URL_PATTERN = Pattern.compile("https?://\\S+", Pattern.CASE_INSENSITIVE);
+
+    // Pieces that, strung together at random, hit each check often: whole
+    // and split phrases in either case, URLs, caps and repeats
+    private static final String[] TOKENS = {
+            "star wars", "STAR WARS", "star", " wars", "Harry Potter", "twilight saga",
+            "hate speech", "hate", " speech", "extremist", "EXTREMIST",
+            "http://", "https://", "HTTP://x", "https://a.b/c ", "http:// ",
+            "ABCDEFGHIJ", "THE END ", "   ", "\n", "\t", "abcabc", "xyz", "a", "b",
+            "Once upon a time ", "😀", "."
+    };
+
+    /**
+     * Random texts get the same verdict from the scanner as from the old
+     * contains and regex checks. The old code reported the first finding
+     * in check order and the scanner the first in text order, so a blocking
+     * reason must be one the old checks would have given, and a URL count
+     * is compared without the number.
+     */
+    @Test
+    void verdictsMatchTheReplacedChecks() {
+        ModerationService service = new ModerationService();
+        Random random = new Random(47);
+        for (int i = 0; i < 20_000; i++) {
+            String text = randomText(random, 1 + random.nextInt(40));
+            String shown = text.replace("\n", "\\n");
+            List<String> expected = oldFindings(text);
+            ModerationResult result = service.moderate(text);
+
+            assertEquals(expected.isEmpty(), result.isApproved(), "verdict for: " + shown);
+            if (!result.isApproved()) {
+                assertTrue(expected.contains(withoutCount(result.getReason())),
+                        "reason " + result.getReason() + " not among " + expected + " for: " + shown);
+            }
+        }
+    }
+
+    /**
+     * Texts fed one after another are scanned apart, except that URLs are
+     * counted across them all, as when a story's fields were joined.
+     */
+    @Test
+    void urlsAreCountedAcrossTexts() {
+        ModerationScanner scanner = new ModerationService().newScanner();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(scanner.feed("see https://example.com/" + i));
+        }
+        assertTrue(scanner.result().isApproved());
+        scanner.feed("and http://example.org");
+        assertEquals("Content flagged as spam: too many URLs (6 found)", scanner.result().getReason());
+
+        ModerationScanner split = new ModerationService().newScanner();
+        split.feed("star");
+        split.feed(" wars");
+        assertTrue(split.result().isApproved());
+    }
+
+    // Every reason the old checks could give, in their order
+    private static List<String> oldFindings(String content) {
+        List<String> findings = new ArrayList<>();
+        if (content.isBlank()) {
+            return findings;
+        }
+        String lowerContent = content.toLowerCase();
+        for (String phrase : COPYRIGHTED_PHRASES) {
+            if (lowerContent.contains(phrase)) {
+                findings.add("Content may contain copyrighted material: \"" + phrase + "\"");
+            }
+        }
+        for (String word : INAPPROPRIATE_WORDS) {
+            if (lowerContent.contains(word)) {
+                findings.add("Content flagged for inappropriate material: \"" + word + "\"");
+            }
+        }
+        if (URL_PATTERN.matcher(content).results().count() > 5) {
+            findings.add("Content flagged as spam: too many URLs");
+        }
+        if (ModerationBenchmark.ALL_CAPS_PATTERN.matcher(content).find()) {
+            findings.add("Content flagged as spam: excessive use of capital letters");
+        }
+        if (ModerationBenchmark.REPETITIVE_PATTERN.matcher(content).find()) {
+            findings.add("Content flagged as spam: repetitive text patterns detected");
+        }
+        return findings;
+    }
+
+    private static String withoutCount(String reason) {
+        return reason.replaceFirst(" \\(\\d+ found\\)$", "");
+    }
+
+    private static String randomText(Random random, int tokens) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < tokens; i++) {
+            text.append(TOKENS[random.nextInt(TOKENS.length)]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,48 @@
+package com.ghostwriter.moderation;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class SpamDetectorsTest {
+
+    /**
+     * Short random texts over a small alphabet, where repeats and caps runs
+     * of every shape are common, get the same verdicts as the regexes.
+     */
+    @Test
+    void verdictsMatchTheReplacedRegexes() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            String text = ModerationBenchmark.randomText(random, 1 + random.nextInt(120), "abA \n 😀");
+            String shown = text.replace("\n", "\\n");
+            assertEquals(ModerationBenchmark.REPETITIVE_PATTERN.matcher(text).find(),
+                    SpamDetectors.hasRepetition(text, 3, 5), "repetition verdict for: " + shown);
+            assertEquals(ModerationBenchmark.ALL_CAPS_PATTERN.matcher(text).find(),
+                    SpamDetectors.hasCapsRun(text, 50), "caps verdict for: " + shown);
+        }
+    }
+
+    /**
+     * Inputs that make the regexes backtrack for seconds or minutes are
+     * handled in well under a second at a million characters.
+     */
+    @Test
+    void adversarialInputsStayFast() {
+        int size = 1_000_000;
+        Random random = new Random(size);
+        String nearRepeats = ModerationBenchmark.nearRepeats(random, size);
+        String longPeriod = ModerationBenchmark.longPeriod(random, size);
+        String capsNearMiss = ModerationBenchmark.capsNearMiss(size);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            SpamDetectors.hasRepetition(nearRepeats, 3, 5);
+            assertFalse(SpamDetectors.hasRepetition(longPeriod, 3, 5));
+            assertFalse(SpamDetectors.hasCapsRun(capsNearMiss, 50));
+        });
+    }
+}